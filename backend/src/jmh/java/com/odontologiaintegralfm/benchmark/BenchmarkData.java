@@ -0,0 +1,72 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.odontologiaintegralfm.model.*;
+
+import java.time.LocalDate;
+
+/**
+ * Datos de prueba deterministas para los benchmarks (sin valores aleatorios, para que las ejecuciones sean comparables).
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+
+    /**
+     * Persona con todas sus relaciones cargadas: 2 emails, 2 teléfonos y domicilio completo.
+     */
+    static Person person(Long id) {
+        DniType dniType = new DniType();
+        dniType.setName("DNI");
+        Gender gender = new Gender();
+        gender.setName("Femenino");
+        Nationality nationality = new Nationality();
+        nationality.setName("Argentina");
+
+        Country country = new Country();
+        country.setId(1L);
+        country.setName("Argentina");
+        Province province = new Province();
+        province.setId(2L);
+        province.setName("Buenos Aires");
+        province.setCountry(country);
+        Locality locality = new Locality();
+        locality.setId(3L);
+        locality.setName("La Plata");
+        locality.setProvince(province);
+        Address address = new Address();
+        address.setStreet("Calle 7");
+        address.setNumber(1234);
+        address.setFloor("2");
+        address.setApartment("B");
+        address.setLocality(locality);
+
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName("María");
+        person.setLastName("González");
+        person.setDniType(dniType);
+        person.setDni(String.valueOf(30000000 + id));
+        person.setBirthDate(LocalDate.of(1985, 6, 15));
+        person.setGender(gender);
+        person.setNationality(nationality);
+        person.setAddress(address);
+
+        PhoneType phoneType = new PhoneType();
+        phoneType.setName("Celular");
+        for (long i = 1; i <= 2; i++) {
+            ContactEmail email = new ContactEmail();
+            email.setId(id * 10 + i);
+            email.setEmail("persona" + id + "." + i + "@example.com");
+            person.getContactEmails().add(email);
+
+            ContactPhone phone = new ContactPhone();
+            phone.setId(id * 10 + i);
+            phone.setPhoneType(phoneType);
+            phone.setNumber("221555000" + i);
+            person.getContactPhones().add(phone);
+        }
+        return person;
+    }
+}
@@ -0,0 +1,119 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.odontologiaintegralfm.configuration.securityConfig.JwtUtils;
+import com.odontologiaintegralfm.configuration.securityConfig.PermissionAuthenticationToken;
+import com.odontologiaintegralfm.configuration.securityConfig.PermissionBitIndex;
+import com.odontologiaintegralfm.dto.internal.SystemParameterSnapshot;
+import com.odontologiaintegralfm.model.Action;
+import com.odontologiaintegralfm.model.Permission;
+import com.odontologiaintegralfm.repository.IActionRepository;
+import com.odontologiaintegralfm.repository.IPermissionRepository;
+import com.odontologiaintegralfm.service.SystemParameterService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emisión y validación de JWT con {@link JwtUtils}: firma HMAC256 con los permisos codificados como bitmask,
+ * verificación de la firma y armado de la autenticación a partir del token.
+ * <p>
+ * Se usan 10 permisos y 4 acciones (40 autoridades), el tamaño típico de un rol administrador.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    private static final int PERMISSIONS = 10;
+
+    private static final String[] ACTIONS = {"READ", "CREATE", "UPDATE", "DELETE"};
+
+    private JwtUtils jwtUtils;
+
+    private Authentication authentication;
+
+    private String token;
+
+
+    @Setup
+    public void setUp() {
+        List<Permission> permissions = new ArrayList<>();
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_ADMINISTRADOR"));
+        for (long i = 1; i <= PERMISSIONS; i++) {
+            Permission permission = new Permission();
+            permission.setId(i);
+            permission.setName("PERMISO" + i);
+            permission.setLabel("Permiso " + i);
+            permissions.add(permission);
+            for (String action : ACTIONS) {
+                authorities.add(new SimpleGrantedAuthority("PERMISO_PERMISO" + i + "_" + action));
+            }
+        }
+        List<Action> actions = new ArrayList<>();
+        for (int i = 0; i < ACTIONS.length; i++) {
+            Action action = new Action();
+            action.setId(i + 1L);
+            action.setName(ACTIONS[i]);
+            action.setLabel(ACTIONS[i]);
+            actions.add(action);
+        }
+
+        IPermissionRepository permissionRepository = Mockito.mock(IPermissionRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(permissionRepository.findAll()).thenReturn(permissions);
+        IActionRepository actionRepository = Mockito.mock(IActionRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(actionRepository.findAll()).thenReturn(actions);
+        PermissionBitIndex permissionBitIndex = new PermissionBitIndex();
+        ReflectionTestUtils.setField(permissionBitIndex, "permissionRepository", permissionRepository);
+        ReflectionTestUtils.setField(permissionBitIndex, "actionRepository", actionRepository);
+
+        SystemParameterService systemParameterService = Mockito.mock(SystemParameterService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(systemParameterService.getSnapshot()).thenReturn(new SystemParameterSnapshot(
+                Map.of(), 5, Duration.ofMinutes(30), Duration.ofDays(7), 30, 30, Set.of("jpg"), Set.of("pdf"), 5L * 1024 * 1024));
+
+        jwtUtils = new JwtUtils(new StaticMessageSource());
+        ReflectionTestUtils.setField(jwtUtils, "privateKey", "benchmark-private-key");
+        ReflectionTestUtils.setField(jwtUtils, "userGenerator", "benchmark");
+        ReflectionTestUtils.setField(jwtUtils, "systemParameterService", systemParameterService);
+        ReflectionTestUtils.setField(jwtUtils, "permissionBitIndex", permissionBitIndex);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+
+        authentication = new UsernamePasswordAuthenticationToken("benchmark", null, authorities);
+        token = jwtUtils.createToken(authentication, 1L);
+    }
+
+
+    @Benchmark
+    public String createToken() {
+        return jwtUtils.createToken(authentication, 1L);
+    }
+
+
+    @Benchmark
+    public DecodedJWT validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+
+    @Benchmark
+    public PermissionAuthenticationToken validateAndBuildAuthentication() {
+        return jwtUtils.buildAuthentication(jwtUtils.validateToken(token));
+    }
+}
@@ -0,0 +1,89 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.odontologiaintegralfm.aspect.LogActionAspect;
+import com.odontologiaintegralfm.configuration.appConfig.annotations.LogAction;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
+import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.enums.LogType;
+import com.odontologiaintegralfm.service.interfaces.ISystemLogService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.context.support.StaticMessageSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por invocación de {@link LogActionAspect}: compara la llamada directa al método con la llamada a través
+ * del proxy del aspecto (evaluación de las expresiones SpEL, mensaje y encolado del log).
+ * <p>
+ * El servicio de logs es un mock sin registro de invocaciones, por lo que no se mide la escritura en la base.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LogActionAspectBenchmark {
+
+    private ScheduledTask target;
+
+    private ScheduledTask proxy;
+
+
+    /**
+     * Método con la forma de las tareas programadas anotadas del sistema.
+     */
+    public static class ScheduledTask {
+
+        @LogAction(
+                value = "benchmark.logAction",
+                args = {"#batchSize", "#result.durationSeconds", "#result.message", "#result.countDeleted"},
+                type = LogType.SCHEDULED,
+                level = LogLevel.INFO
+        )
+        public SchedulerResultDTO deleteExpired(int batchSize) {
+            return new SchedulerResultDTO(0.5, "Registros eliminados correctamente", 0, batchSize);
+        }
+    }
+
+
+    @Setup
+    public void setUp() {
+        StaticMessageSource messageSource = new StaticMessageSource();
+        messageSource.addMessage("benchmark.logAction", Locale.getDefault(), "Lote {0}: {1} s - {2} - {3} registros");
+
+        AuthenticatedUserService authenticatedUserService = Mockito.mock(AuthenticatedUserService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(authenticatedUserService.getAuthenticatedUsername()).thenReturn("benchmark");
+
+        LogActionAspect aspect = new LogActionAspect();
+        ReflectionTestUtils.setField(aspect, "authenticatedUserService", authenticatedUserService);
+        ReflectionTestUtils.setField(aspect, "systemLogService", Mockito.mock(ISystemLogService.class, Mockito.withSettings().stubOnly()));
+        ReflectionTestUtils.setField(aspect, "messageSource", messageSource);
+        ReflectionTestUtils.setField(aspect, "meterRegistry", new SimpleMeterRegistry());
+
+        target = new ScheduledTask();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(aspect);
+        proxy = factory.getProxy();
+    }
+
+
+    @Benchmark
+    public SchedulerResultDTO direct() {
+        return target.deleteExpired(1000);
+    }
+
+
+    @Benchmark
+    public SchedulerResultDTO withAspect() {
+        return proxy.deleteExpired(1000);
+    }
+}
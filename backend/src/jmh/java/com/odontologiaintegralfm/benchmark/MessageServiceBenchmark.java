@@ -0,0 +1,87 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.odontologiaintegralfm.model.MessageConfig;
+import com.odontologiaintegralfm.repository.IMessageRepository;
+import com.odontologiaintegralfm.service.MessageService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolución y formateo de mensajes con {@link MessageService#getMessage} sobre el catálogo en memoria
+ * (500 claves en {@code es_AR}).
+ * <ul>
+ *   <li>{@code withoutArgs}: mensaje sin parámetros (sin formateo).</li>
+ *   <li>{@code withArgs}: mensaje de log con 4 parámetros, como los de las excepciones.</li>
+ *   <li>{@code localeFallback}: idioma sin mensajes propios, que recorre la cadena hasta el idioma por defecto.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageServiceBenchmark {
+
+    private static final int MESSAGES = 500;
+
+    private static final Locale LOCALE = new Locale("es", "AR");
+
+    private static final Locale FALLBACK_LOCALE = Locale.US;
+
+    private static final Object[] ARGS = {42L, "Paciente", "PatientService", "getById"};
+
+    private MessageService messageService;
+
+
+    @Setup
+    public void setUp() {
+        List<MessageConfig> messages = new ArrayList<>();
+        for (int i = 0; i < MESSAGES; i++) {
+            MessageConfig message = new MessageConfig();
+            message.setId((long) i);
+            message.setKey("benchmark.message." + i);
+            message.setValue("[Detalle: No se encontró el registro [ID: {0}] - [Entidad: {1}]] - [Clase: {2}] - [Método: {3}]");
+            message.setLocale("es_AR");
+            messages.add(message);
+        }
+        MessageConfig plain = new MessageConfig();
+        plain.setId((long) MESSAGES);
+        plain.setKey("benchmark.plain");
+        plain.setValue("Operación realizada correctamente.");
+        plain.setLocale("es_AR");
+        messages.add(plain);
+
+        IMessageRepository messageRepository = Mockito.mock(IMessageRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(messageRepository.findAll()).thenReturn(messages);
+
+        messageService = new MessageService();
+        ReflectionTestUtils.setField(messageService, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(messageService, "defaultLocale", "es_AR");
+        messageService.reload();
+    }
+
+
+    @Benchmark
+    public String withoutArgs() {
+        return messageService.getMessage("benchmark.plain", null, LOCALE);
+    }
+
+
+    @Benchmark
+    public String withArgs() {
+        return messageService.getMessage("benchmark.message.250", ARGS, LOCALE);
+    }
+
+
+    @Benchmark
+    public String localeFallback() {
+        return messageService.getMessage("benchmark.message.250", ARGS, FALLBACK_LOCALE);
+    }
+}
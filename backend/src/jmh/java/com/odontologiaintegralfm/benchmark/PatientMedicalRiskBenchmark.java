@@ -0,0 +1,113 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
+import com.odontologiaintegralfm.dto.PatientMedicalRiskRequestDTO;
+import com.odontologiaintegralfm.dto.PatientMedicalRiskResponseDTO;
+import com.odontologiaintegralfm.model.MedicalRisk;
+import com.odontologiaintegralfm.model.Patient;
+import com.odontologiaintegralfm.model.PatientMedicalRisk;
+import com.odontologiaintegralfm.model.UserSec;
+import com.odontologiaintegralfm.repository.IPatientMedicalRiskRepository;
+import com.odontologiaintegralfm.repository.IPatientRepository;
+import com.odontologiaintegralfm.service.PatientMedicalRiskService;
+import com.odontologiaintegralfm.service.interfaces.IMedicalRiskService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Comparación entre los riesgos médicos actuales de un paciente y los recibidos en la actualización
+ * ({@link PatientMedicalRiskService#CreateOrUpdate}).
+ * <p>
+ * El paciente tiene {@code riskCount} riesgos y la solicitud conserva la mitad y agrega otros tantos nuevos, de modo
+ * que se recorren los tres casos: actualizar, crear y deshabilitar. Los repositorios son mocks: se mide el recorrido
+ * y no las escrituras. Después de la primera invocación los riesgos quedan en un estado estable (los conservados
+ * habilitados y el resto deshabilitados), por lo que todas las mediciones recorren el mismo caso.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientMedicalRiskBenchmark {
+
+    private static final Long PATIENT_ID = 1L;
+
+    @Param({"10", "50"})
+    private int riskCount;
+
+    private PatientMedicalRiskService patientMedicalRiskService;
+
+    private Set<PatientMedicalRiskRequestDTO> request;
+
+
+    @Setup
+    public void setUp() {
+        Patient patient = new Patient();
+        patient.setId(PATIENT_ID);
+
+        Set<PatientMedicalRisk> currentRisks = new HashSet<>();
+        Set<PatientMedicalRisk> enabledRisks = new HashSet<>();
+        request = new HashSet<>();
+        for (long i = 1; i <= riskCount; i++) {
+            PatientMedicalRisk risk = new PatientMedicalRisk();
+            risk.setId(i);
+            risk.setPatient(patient);
+            risk.setMedicalRisk(medicalRisk(i));
+            risk.setObservation("Observación " + i);
+            risk.setEnabled(true);
+            currentRisks.add(risk);
+
+            //Se conserva la mitad de los riesgos actuales y se agrega la misma cantidad de riesgos nuevos.
+            if (i % 2 == 0) {
+                request.add(new PatientMedicalRiskRequestDTO(i, "Observación actualizada " + i));
+                enabledRisks.add(risk);
+            }
+            request.add(new PatientMedicalRiskRequestDTO(riskCount + i, "Riesgo nuevo " + i));
+        }
+
+        IPatientMedicalRiskRepository patientMedicalRiskRepository = Mockito.mock(IPatientMedicalRiskRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(patientMedicalRiskRepository.findByPatientId(PATIENT_ID)).thenReturn(currentRisks);
+        Mockito.when(patientMedicalRiskRepository.findByPatientIdAndEnabledTrue(PATIENT_ID)).thenReturn(enabledRisks);
+        Mockito.when(patientMedicalRiskRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        IPatientRepository patientRepository = Mockito.mock(IPatientRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(patientRepository.findById(PATIENT_ID)).thenReturn(Optional.of(patient));
+
+        IMedicalRiskService medicalRiskService = Mockito.mock(IMedicalRiskService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(medicalRiskService.getById(anyLong())).thenAnswer(invocation -> medicalRisk(invocation.getArgument(0)));
+
+        AuthenticatedUserService authenticatedUserService = Mockito.mock(AuthenticatedUserService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(authenticatedUserService.getAuthenticatedUserReference()).thenReturn(new UserSec());
+
+        patientMedicalRiskService = new PatientMedicalRiskService();
+        ReflectionTestUtils.setField(patientMedicalRiskService, "patientMedicalRiskRepository", patientMedicalRiskRepository);
+        ReflectionTestUtils.setField(patientMedicalRiskService, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(patientMedicalRiskService, "medicalRiskService", medicalRiskService);
+        ReflectionTestUtils.setField(patientMedicalRiskService, "authenticatedUserService", authenticatedUserService);
+    }
+
+
+    @Benchmark
+    public Set<PatientMedicalRiskResponseDTO> createOrUpdate() {
+        return patientMedicalRiskService.CreateOrUpdate(PATIENT_ID, request);
+    }
+
+
+    private static MedicalRisk medicalRisk(Long id) {
+        MedicalRisk medicalRisk = new MedicalRisk();
+        medicalRisk.setId(id);
+        medicalRisk.setName("Riesgo " + id);
+        return medicalRisk;
+    }
+}
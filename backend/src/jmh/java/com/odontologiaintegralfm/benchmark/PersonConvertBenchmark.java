@@ -0,0 +1,40 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.odontologiaintegralfm.dto.PersonResponseDTO;
+import com.odontologiaintegralfm.model.Person;
+import com.odontologiaintegralfm.service.PersonService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión de {@link Person} a {@link PersonResponseDTO} con {@link PersonService#convertToDTO(Person)}, usada en
+ * cada elemento de los listados de pacientes, odontólogos y usuarios.
+ * <p>
+ * La persona tiene todas sus relaciones cargadas (2 emails, 2 teléfonos y domicilio completo), por lo que solo
+ * se mide el armado del DTO, sin consultas.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersonConvertBenchmark {
+
+    private PersonService personService;
+
+    private Person person;
+
+    @Setup
+    public void setUp() {
+        personService = new PersonService();
+        person = BenchmarkData.person(1L);
+    }
+
+    @Benchmark
+    public PersonResponseDTO convertToDTO() {
+        return personService.convertToDTO(person);
+    }
+}
@@ -0,0 +1,133 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.odontologiaintegralfm.dto.RoleFullResponseDTO;
+import com.odontologiaintegralfm.dto.internal.RolePermissionActionRowDTO;
+import com.odontologiaintegralfm.model.Action;
+import com.odontologiaintegralfm.model.Permission;
+import com.odontologiaintegralfm.model.Role;
+import com.odontologiaintegralfm.model.RolePermissionAction;
+import com.odontologiaintegralfm.repository.IRolePermissionActionRepository;
+import com.odontologiaintegralfm.repository.IRoleRepository;
+import com.odontologiaintegralfm.service.RolePermissionSnapshotService;
+import com.odontologiaintegralfm.service.RoleService;
+import com.odontologiaintegralfm.service.interfaces.IRolePermissionActionService;
+import com.odontologiaintegralfm.service.interfaces.IRolePermissionSnapshotService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Árbol Rol → Permisos → Acciones de {@link RoleService#getFullByRoleId(Long)}.
+ * <ul>
+ *   <li>{@code snapshotLookup}: lectura desde la instantánea en memoria (camino del login y de los listados).</li>
+ *   <li>{@code snapshotReload}: reconstrucción de la instantánea completa a partir de las filas planas
+ *   ({@code roleCount} roles con 10 permisos y 4 acciones cada uno).</li>
+ *   <li>{@code buildFromEntities}: armado del árbol desde las entidades, usado en create/update.</li>
+ * </ul>
+ * Los repositorios son mocks: no se miden consultas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoleTreeBenchmark {
+
+    private static final int PERMISSIONS = 10;
+
+    private static final int ACTIONS = 4;
+
+    @Param({"5", "20"})
+    private int roleCount;
+
+    private RoleService snapshotRoleService;
+
+    private RoleService entityRoleService;
+
+    private RolePermissionSnapshotService snapshotService;
+
+
+    @Setup
+    public void setUp() {
+        List<RolePermissionActionRowDTO> rows = new ArrayList<>();
+        for (long role = 1; role <= roleCount; role++) {
+            for (long permission = 1; permission <= PERMISSIONS; permission++) {
+                for (long action = 1; action <= ACTIONS; action++) {
+                    rows.add(new RolePermissionActionRowDTO(role, "ROL" + role, "Rol " + role,
+                            permission, "PERMISO" + permission, "Permiso " + permission,
+                            action, "ACCION" + action, "Acción " + action));
+                }
+            }
+        }
+
+        IRolePermissionActionRepository rolePermissionActionRepository = Mockito.mock(IRolePermissionActionRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(rolePermissionActionRepository.findAllRolePermissionActionRows()).thenReturn(rows);
+        snapshotService = new RolePermissionSnapshotService();
+        ReflectionTestUtils.setField(snapshotService, "rolePermissionActionRepository", rolePermissionActionRepository);
+        snapshotService.reload();
+
+        snapshotRoleService = new RoleService();
+        ReflectionTestUtils.setField(snapshotRoleService, "rolePermissionSnapshotService", snapshotService);
+
+        //Sin instantánea: el árbol se arma desde las entidades del rol.
+        Role role = Role.builder().id(1L).name("ROL1").label("Rol 1").build();
+        Set<RolePermissionAction> relations = new HashSet<>();
+        for (long permissionId = 1; permissionId <= PERMISSIONS; permissionId++) {
+            Permission permission = new Permission();
+            permission.setId(permissionId);
+            permission.setName("PERMISO" + permissionId);
+            permission.setLabel("Permiso " + permissionId);
+            for (long actionId = 1; actionId <= ACTIONS; actionId++) {
+                Action action = new Action();
+                action.setId(actionId);
+                action.setName("ACCION" + actionId);
+                action.setLabel("Acción " + actionId);
+
+                RolePermissionAction relation = new RolePermissionAction();
+                relation.setId(permissionId * ACTIONS + actionId);
+                relation.setRole(role);
+                relation.setPermission(permission);
+                relation.setAction(action);
+                relations.add(relation);
+            }
+        }
+
+        IRoleRepository roleRepository = Mockito.mock(IRoleRepository.class, Mockito.withSettings().stubOnly());
+        Mockito.when(roleRepository.findById(1L)).thenReturn(Optional.of(role));
+        IRolePermissionActionService rolePermissionActionService = Mockito.mock(IRolePermissionActionService.class, Mockito.withSettings().stubOnly());
+        Mockito.when(rolePermissionActionService.getAllByRoleId(1L)).thenReturn(relations);
+        IRolePermissionSnapshotService emptySnapshot = Mockito.mock(IRolePermissionSnapshotService.class, Mockito.withSettings().stubOnly());
+
+        entityRoleService = new RoleService();
+        ReflectionTestUtils.setField(entityRoleService, "roleRepository", roleRepository);
+        ReflectionTestUtils.setField(entityRoleService, "rolePermissionActionService", rolePermissionActionService);
+        ReflectionTestUtils.setField(entityRoleService, "rolePermissionSnapshotService", emptySnapshot);
+    }
+
+
+    @Benchmark
+    public RoleFullResponseDTO snapshotLookup() {
+        return snapshotRoleService.getFullByRoleId(1L);
+    }
+
+
+    @Benchmark
+    public long snapshotReload() {
+        snapshotService.reload();
+        return snapshotService.getVersion();
+    }
+
+
+    @Benchmark
+    public RoleFullResponseDTO buildFromEntities() {
+        return entityRoleService.getFullByRoleId(1L);
+    }
+}
@@ -0,0 +1,59 @@
+package com.odontologiaintegralfm.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontologiaintegralfm.service.SystemLogService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización de la metadata de los logs del sistema: {@link SystemLogService#toJson(Map)} al registrar cada log
+ * y {@link SystemLogService#fromJson(String)} al listarlos.
+ * <p>
+ * La metadata tiene la forma de la que registra el manejador de excepciones de base de datos (5 valores de texto).
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SystemLogJsonBenchmark {
+
+    private SystemLogService systemLogService;
+
+    private Map<String, Object> metadata;
+
+    private String json;
+
+
+    @Setup
+    public void setUp() {
+        systemLogService = new SystemLogService();
+        ReflectionTestUtils.setField(systemLogService, "objectMapper", new ObjectMapper());
+
+        metadata = new LinkedHashMap<>();
+        metadata.put("clase", "PatientService");
+        metadata.put("entityId", 42L);
+        metadata.put("entityName", "Paciente");
+        metadata.put("method", "getById");
+        metadata.put("rootCause", "Communications link failure: The last packet sent successfully to the server was 0 milliseconds ago.");
+        json = systemLogService.toJson(metadata);
+    }
+
+
+    @Benchmark
+    public String toJson() {
+        return systemLogService.toJson(metadata);
+    }
+
+
+    @Benchmark
+    public Map<String, Object> fromJson() {
+        return systemLogService.fromJson(json);
+    }
+}
@@ -8,6 +8,8 @@ import com.odontologiaintegralfm.dto.SystemLogResponseDTO;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.enums.LogType;
 import com.odontologiaintegralfm.service.interfaces.ISystemLogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -15,16 +17,37 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
-import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
-import java.util.*;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aspecto que registra en los logs del sistema la ejecución de los métodos anotados con {@link LogAction}.
+ * <p>
+ * Las expresiones SpEL de {@link LogAction#args()} y los nombres de parámetros se resuelven una sola vez por método
+ * y se guardan en caché. Las expresiones se compilan a bytecode (modo {@link SpelCompilerMode#MIXED}): se interpretan
+ * las primeras evaluaciones y luego se compilan, volviendo al modo interpretado si una compilación falla.
+ * </p>
+ * <p>
+ * También mide la duración de cada método anotado con el timer {@code log.action} (tags {@code class}, {@code method}
+ * y {@code outcome}), publicado como histograma para obtener p50/p99 por operación. Los timers de cada método se
+ * resuelven junto con sus expresiones, una sola vez.
+ * </p>
+ */
 @Aspect
 @Component
 public class LogActionAspect {
 
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, LogActionAspect.class.getClassLoader()));
+
     @Autowired
     private AuthenticatedUserService authenticatedUserService;
 
@@ -34,24 +57,27 @@ public class LogActionAspect {
     @Autowired
     private MessageSource messageSource;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    @Around("@annotation(logAction)")
-    public Object logMethod(ProceedingJoinPoint pjp, LogAction logAction) throws Throwable {
+    private final ConcurrentHashMap<Method, CompiledLogAction> compiledLogActions = new ConcurrentHashMap<>();
 
-        //Obtiene los argumentos del método principal.
-        MethodSignature signature = (MethodSignature) pjp.getSignature();
 
+    /**
+     * Metadatos de un método anotado: nombres de sus parámetros, expresiones ya parseadas de {@link LogAction#args()}
+     * y timers de ejecución exitosa y con error.
+     */
+    private record CompiledLogAction(String[] paramNames, Expression[] expressions, Timer successTimer, Timer errorTimer) {
+    }
 
-        // Obtener nombres de parámetros y valores reales
-        String[] paramNames = signature.getParameterNames();
-        Object[] paramValues = pjp.getArgs();
+    @Around("@annotation(logAction)")
+    public Object logMethod(ProceedingJoinPoint pjp, LogAction logAction) throws Throwable {
 
-        // Crear el contexto de evaluación de SpEL
-        StandardEvaluationContext context = new StandardEvaluationContext();
-        for (int i = 0; i < paramNames.length; i++) {
-            context.setVariable(paramNames[i], paramValues[i]);  // Convierte todos los argumentos del método interceptado en variables del contexto SpEL
-        }
+        //Obtiene los metadatos del método principal (se resuelven en la primera invocación).
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        CompiledLogAction compiled = compiledLogActions.computeIfAbsent(signature.getMethod(), method -> compile(signature, logAction));
 
         //Lectura de valores de la anotación @LogAction
         LogLevel level = logAction.level();
@@ -62,12 +88,13 @@ public class LogActionAspect {
 
 
         // Ejecuta el método original, si falla loguea la exception
+        long start = System.nanoTime();
         try {
             result = pjp.proceed(); // llama al método original anotado.
-            // Agregar resultado al contexto para evaluar en SpEL
-            context.setVariable("result", result);
+            compiled.successTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
         } catch (Throwable ex) {
+            compiled.errorTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             level = LogLevel.ERROR;
 
             // Guardar log de error en BD y luego re-lanzar la excepción para que se maneje arriba
@@ -77,7 +104,7 @@ public class LogActionAspect {
                     null,
                    "Error al ejecutar el método principal en LogActionAspect.",
                     "LogActionAspect",
-                    authenticatedUserService.getAuthenticatedUser().getUsername(),
+                    authenticatedUserService.getAuthenticatedUsername(),
                     null,
                     systemLogService.getStackTraceAsString(ex)
             ));
@@ -86,19 +113,12 @@ public class LogActionAspect {
         }
 
         // Evaluar expresiones definidas en la anotación
-        List<Object> resolvedArgs = new ArrayList<>();
-        ExpressionParser parser = new SpelExpressionParser();
-
-        // Itera sobre los args declarados en @LogAction.args()
-        for (String argExpr : logAction.args()) {
-            Object value = parser.parseExpression(argExpr).getValue(context); //Evalúa cada expresión pasada en LogAction contra el contexto cargado de todos los argumentos del método principal, resolviendo el valor real de cada una. Ej Anotación Cuando el parser ve #usuario.nombre busca el objeto usuario y llama a su método getNombre() para devolver "Juan".
-            resolvedArgs.add(value);
-        }
+        Object[] resolvedArgs = resolveArgs(compiled, pjp.getArgs(), result);
 
         // Obtener mensaje
         String message = messageSource.getMessage(
                 logAction.value(), // clave del mensaje
-                resolvedArgs.toArray(), // args
+                resolvedArgs, // args
                 LocaleContextHolder.getLocale()
         );
 
@@ -109,11 +129,66 @@ public class LogActionAspect {
                 null,
                 message,
                 "LogActionAspect",
-                authenticatedUserService.getAuthenticatedUser().getUsername(),
+                authenticatedUserService.getAuthenticatedUsername(),
                 null,
                 null
         ));
 
         return result; //Devuelve el resultado al método original para que continue el flujo.
     }
+
+
+    /**
+     * Evalúa las expresiones de {@link LogAction#args()} contra los argumentos del método y su resultado.
+     * <p>
+     * Cada argumento del método interceptado es una variable del contexto SpEL y el resultado es {@code #result}.
+     * Ej: cuando la expresión es {@code #usuario.nombre} busca el objeto usuario y llama a su método getNombre().
+     * </p>
+     */
+    private Object[] resolveArgs(CompiledLogAction compiled, Object[] paramValues, Object result) {
+        Expression[] expressions = compiled.expressions();
+        if (expressions.length == 0) {
+            return null;
+        }
+
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        String[] paramNames = compiled.paramNames();
+        for (int i = 0; i < paramNames.length; i++) {
+            context.setVariable(paramNames[i], paramValues[i]);
+        }
+        context.setVariable("result", result);
+
+        Object[] resolvedArgs = new Object[expressions.length];
+        for (int i = 0; i < expressions.length; i++) {
+            resolvedArgs[i] = expressions[i].getValue(context);
+        }
+        return resolvedArgs;
+    }
+
+
+    //Parsea una sola vez las expresiones del método anotado y registra sus timers.
+    private CompiledLogAction compile(MethodSignature signature, LogAction logAction) {
+        String[] argExpressions = logAction.args();
+        Expression[] expressions = new Expression[argExpressions.length];
+        for (int i = 0; i < argExpressions.length; i++) {
+            expressions[i] = PARSER.parseExpression(argExpressions[i]);
+        }
+
+        String[] paramNames = signature.getParameterNames();
+        return new CompiledLogAction(
+                paramNames != null ? paramNames : new String[0],
+                expressions,
+                timer(signature, "success"),
+                timer(signature, "error"));
+    }
+
+
+    private Timer timer(MethodSignature signature, String outcome) {
+        return Timer.builder("log.action")
+                .description("Duración de los métodos anotados con @LogAction")
+                .tag("class", signature.getDeclaringType().getSimpleName())
+                .tag("method", signature.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
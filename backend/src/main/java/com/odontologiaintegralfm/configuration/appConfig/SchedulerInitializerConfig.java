@@ -66,6 +66,8 @@ public class SchedulerInitializerConfig implements SchedulingConfigurer {
         registerTask(taskRegistrar, ScheduledTaskKey.CLEAN_ORPHAN_PHONE, () -> cleanupService.cleanOrphanDataContactPhone());
         registerTask(taskRegistrar, ScheduledTaskKey.CLEAN_ATTACHED_FILE_DISABLED, () -> cleanupService.cleanAttachedFileDisabled());
         registerTask(taskRegistrar,ScheduledTaskKey.CLEAN_LOGS, () -> cleanupService.cleanLogs());
+        registerTask(taskRegistrar,ScheduledTaskKey.CLEAN_EXPIRED_REFRESH_TOKENS, () -> cleanupService.cleanExpiredRefreshTokens());
+        registerTask(taskRegistrar,ScheduledTaskKey.CLEAN_REVOKED_TOKENS, () -> cleanupService.cleanRevokedTokens());
     }
 
 
@@ -73,23 +75,22 @@ public class SchedulerInitializerConfig implements SchedulingConfigurer {
         registrar.addTriggerTask(
                 task,
                 triggerContext -> {
+                    // 1. Obtener la expresión cron actual desde el servicio y crear un CronTrigger con ella.
+                    // Si no se puede obtener o no es válida se usa la expresión por defecto: devolver null cancelaría la tarea.
+                    CronTrigger trigger;
                     try {
-                        // 1. Obtener la expresión cron actual desde el servicio
-                        String cron = scheduleConfigService.getByKeyName(key);
-
-                        // 2. Crear un CronTrigger con esa expresión
-                        CronTrigger trigger = new CronTrigger(cron);
-
-                        // 3. Calcular la próxima fecha de ejecución (devuelve Date, aunque esté deprecated)
-                        Date nextExec = trigger.nextExecutionTime(triggerContext);
-
-                        // 4. Retornar la fecha convertida a Instant ya que lo pide Spring
-                        return (nextExec != null) ? nextExec.toInstant() : null;
+                        trigger = new CronTrigger(scheduleConfigService.getByKeyName(key));
                     } catch (Exception e) {
-                        log.warn("Error al obtener cron para tarea: " + key);
-                        e.printStackTrace();
-                        return null;
+                        String cron = scheduleConfigService.getDefaultCron(key);
+                        log.warn("Error al obtener cron para tarea: {}. Se usa la expresión por defecto: {}", key, cron, e);
+                        trigger = new CronTrigger(cron);
                     }
+
+                    // 2. Calcular la próxima fecha de ejecución (devuelve Date, aunque esté deprecated)
+                    Date nextExec = trigger.nextExecutionTime(triggerContext);
+
+                    // 3. Retornar la fecha convertida a Instant ya que lo pide Spring
+                    return (nextExec != null) ? nextExec.toInstant() : null;
                 }
         );
     }
@@ -0,0 +1,68 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Contadores de autenticación publicados en Micrometer.
+ * <ul>
+ *   <li>{@code security.auth.login}: logins por resultado ({@code outcome=success|failure}) y, en los fallidos,
+ *   por motivo ({@code reason}, nombre de la excepción: credenciales inválidas, cuenta bloqueada, límite de intentos, etc.).</li>
+ *   <li>{@code security.jwt.rejections}: solicitudes rechazadas por el filtro JWT ({@code reason=missing|invalid}).</li>
+ * </ul>
+ * Los motivos provienen de un conjunto acotado de valores, por lo que la cantidad de series no crece.
+ */
+@Component
+public class AuthMetrics {
+
+    private static final String LOGIN = "security.auth.login";
+
+    private static final String JWT_REJECTIONS = "security.jwt.rejections";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+
+    /**
+     * Registra un login exitoso.
+     */
+    public void loginSuccess() {
+        Counter.builder(LOGIN)
+                .description("Intentos de login")
+                .tag("outcome", "success")
+                .tag("reason", "none")
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    /**
+     * Registra un login fallido.
+     *
+     * @param reason Motivo del rechazo.
+     */
+    public void loginFailure(String reason) {
+        Counter.builder(LOGIN)
+                .description("Intentos de login")
+                .tag("outcome", "failure")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+
+    /**
+     * Registra una solicitud rechazada por el filtro JWT.
+     *
+     * @param reason {@code missing} (sin token) o {@code invalid} (token inválido, expirado o revocado).
+     */
+    public void jwtRejection(String reason) {
+        Counter.builder(JWT_REJECTIONS)
+                .description("Solicitudes rechazadas por el filtro JWT")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+}
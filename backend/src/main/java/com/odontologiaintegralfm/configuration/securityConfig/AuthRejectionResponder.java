@@ -0,0 +1,109 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontologiaintegralfm.dto.Response;
+import com.odontologiaintegralfm.service.interfaces.IMessageService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respuestas de rechazo (HTTP 401) de bajo costo para los filtros de autenticación.
+ * <p>
+ * Ante una ráfaga de solicitudes sin token o con tokens inválidos, cada rechazo no debe costar más que la solicitud:
+ * </p>
+ * <ul>
+ *   <li>El cuerpo JSON de cada mensaje se serializa una sola vez por idioma y se reutiliza como {@code byte[]}
+ *   hasta que vence su TTL (para reflejar cambios en los mensajes).</li>
+ *   <li>El registro de los rechazos lo limita {@link com.odontologiaintegralfm.service.LogRateLimiter}.</li>
+ * </ul>
+ */
+@Component
+public class AuthRejectionResponder {
+
+    private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+
+    //El idioma proviene de la solicitud: se acota la caché para que no crezca con valores arbitrarios.
+    private static final int MAX_BODIES = 256;
+
+    @Autowired
+    private IMessageService messageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${security.jwt.rejection.body-ttl-seconds:300}")
+    private long bodyTtlSeconds;
+
+    private final ConcurrentHashMap<String, CachedBody> bodies = new ConcurrentHashMap<>();
+
+
+    /**
+     * Cuerpo serializado de un mensaje para un idioma.
+     */
+    private record CachedBody(String userMessage, byte[] body, long expiresAtMillis) {
+    }
+
+
+    /**
+     * Escribe la respuesta 401 con el cuerpo ya serializado del mensaje indicado.
+     *
+     * @param response Respuesta HTTP.
+     * @param userMessageKey Clave del mensaje para el usuario.
+     * @throws IOException Si ocurre un error al escribir el cuerpo.
+     */
+    public void reject(HttpServletResponse response, String userMessageKey) throws IOException {
+        byte[] body = getBody(userMessageKey).body();
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+
+    /**
+     * Obtiene el mensaje para el usuario desde la misma caché que los cuerpos serializados.
+     *
+     * @param userMessageKey Clave del mensaje para el usuario.
+     * @return Mensaje en el idioma de la solicitud.
+     */
+    public String getUserMessage(String userMessageKey) {
+        return getBody(userMessageKey).userMessage();
+    }
+
+
+    //Obtiene el cuerpo del mensaje para el idioma de la solicitud; lo serializa si no existe o venció.
+    private CachedBody getBody(String userMessageKey) {
+        Locale locale = LocaleContextHolder.getLocale();
+        String cacheKey = userMessageKey + '|' + locale.toLanguageTag();
+        long now = System.currentTimeMillis();
+
+        CachedBody cached = bodies.get(cacheKey);
+        if (cached == null || cached.expiresAtMillis() <= now) {
+            String userMessage = messageService.getMessage(userMessageKey, null, locale);
+            cached = new CachedBody(userMessage, serialize(userMessage), now + bodyTtlSeconds * 1000L);
+            if (bodies.size() >= MAX_BODIES) {
+                bodies.clear();
+            }
+            bodies.put(cacheKey, cached);
+        }
+        return cached;
+    }
+
+
+    private byte[] serialize(String userMessage) {
+        try {
+            return objectMapper.writeValueAsBytes(new Response<>(false, userMessage, null));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
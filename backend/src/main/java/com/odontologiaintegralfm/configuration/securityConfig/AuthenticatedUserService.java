@@ -6,20 +6,39 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import java.util.Optional;
 
 /**
  * Componente para obtener el usuario autenticado.
  * Se utiliza para completar la información de auditoría.
+ * <p>
+ * El usuario resuelto se conserva como atributo de la solicitud HTTP en curso, de modo que las llamadas
+ * siguientes dentro de la misma solicitud no vuelven a consultar la base de datos.
+ * </p>
+ * <p>
+ * Para la auditoría y los logs no hace falta la entidad completa: {@link #getAuthenticatedUserId()},
+ * {@link #getAuthenticatedUsername()} y {@link #getAuthenticatedUserReference()} se resuelven desde el JWT
+ * (claim con el ID del usuario) sin ejecutar consultas.
+ * </p>
  */
 
 @Component
 public class AuthenticatedUserService {
 
+    private static final String REQUEST_ATTRIBUTE = AuthenticatedUserService.class.getName() + ".user";
+
     @Autowired
     private IUserRepository userRepository;
 
+    /**
+     * Obtiene la entidad completa del usuario autenticado.
+     * Solo debe utilizarse cuando se necesitan datos del usuario además de su ID y nombre de usuario.
+     *
+     * @return Usuario autenticado, o un usuario sin ID con nombre "No autenticado".
+     */
     public UserSec  getAuthenticatedUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
@@ -30,13 +49,90 @@ public class AuthenticatedUserService {
             username = authentication.getName();
         }
 
-        return userRepository.findUserEntityByUsername(username)
+        //Reutiliza el usuario ya resuelto en la solicitud actual
+        UserSec requestUser = getRequestUser();
+        if (requestUser != null && username.equals(requestUser.getUsername())) {
+            return requestUser;
+        }
+
+        UserSec user = userRepository.findUserEntityByUsername(username)
                 .orElseGet(() -> {
                     UserSec anon = new UserSec();
                     anon.setUsername(username);
                     return anon;
                 });
 
+        setAuthenticatedUser(user);
+        return user;
+    }
+
+
+    /**
+     * Obtiene el nombre del usuario autenticado desde el contexto de seguridad, sin consultar la base.
+     *
+     * @return Nombre de usuario, o "No autenticado".
+     */
+    public String getAuthenticatedUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return "No autenticado";
+        }
+        return authentication.getName();
+    }
+
+
+    /**
+     * Obtiene el ID del usuario autenticado.
+     * <p>
+     * Se toma del claim del JWT o del usuario ya registrado en la solicitud (Ej: durante el login).
+     * Solo para tokens anteriores al claim se recurre a la base de datos.
+     * </p>
+     *
+     * @return ID del usuario autenticado, o null si no hay un usuario autenticado.
+     */
+    public Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof PermissionAuthenticationToken token && token.getUserId() != null) {
+            return token.getUserId();
+        }
+        return getAuthenticatedUser().getId();
+    }
+
+
+    /**
+     * Obtiene una referencia (proxy) al usuario autenticado para asignar en las columnas de auditoría
+     * ({@code createdBy}, {@code updatedBy}, {@code disabledBy}). La referencia no ejecuta consultas
+     * mientras no se acceda a sus datos.
+     *
+     * @return Referencia al usuario autenticado, o null si no hay un usuario autenticado.
+     */
+    public UserSec getAuthenticatedUserReference() {
+        Long userId = getAuthenticatedUserId();
+        return userId == null ? null : userRepository.getReferenceById(userId);
+    }
+
+
+    /**
+     * Registra el usuario autenticado para la solicitud actual (Ej: el usuario ya cargado durante el login).
+     * Fuera de una solicitud HTTP (Ej: tareas programadas) no tiene efecto.
+     *
+     * @param user Usuario autenticado.
+     */
+    public void setAuthenticatedUser(UserSec user) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+
+    //Obtiene el usuario registrado en la solicitud actual, si existe.
+    private UserSec getRequestUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (UserSec) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
     }
 
 }
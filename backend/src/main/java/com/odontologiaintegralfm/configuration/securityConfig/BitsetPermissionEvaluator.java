@@ -0,0 +1,63 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+
+/**
+ * Evaluador de permisos utilizado por las anotaciones {@code @PreAuthorize("hasPermission('PERMISO','ACCION')")}.
+ * <p>
+ * Si la autenticación proviene de un JWT ({@link PermissionAuthenticationToken}), la verificación consiste en
+ * consultar un bit. En cualquier otro caso (Ej: durante el login) se recurre a las autoridades en formato texto.
+ * </p>
+ */
+@Component
+public class BitsetPermissionEvaluator implements PermissionEvaluator {
+
+    @Autowired
+    private PermissionBitIndex permissionBitIndex;
+
+
+    /**
+     * Evalúa si el usuario cuenta con un permiso y acción.
+     *
+     * @param authentication Autenticación actual.
+     * @param targetDomainObject Nombre del permiso (Ej: PATIENTS).
+     * @param permission Nombre de la acción (Ej: READ).
+     * @return true si el usuario posee el permiso.
+     */
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        if (authentication == null || targetDomainObject == null || permission == null) {
+            return false;
+        }
+
+        String permissionName = targetDomainObject.toString();
+        String actionName = permission.toString();
+
+        if (authentication instanceof PermissionAuthenticationToken token) {
+            return token.hasPermissionBit(permissionBitIndex.bitOf(permissionName, actionName));
+        }
+
+        String authority = PermissionBitIndex.PERMISSION_PREFIX + permissionName + "_" + actionName;
+        for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+            if (authority.equals(grantedAuthority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * No se utilizan permisos por identificador de entidad.
+     */
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        return false;
+    }
+}
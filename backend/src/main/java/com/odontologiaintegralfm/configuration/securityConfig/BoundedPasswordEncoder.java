@@ -0,0 +1,169 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Codificador de contraseñas BCrypt que limita la cantidad de cálculos simultáneos.
+ * <p>
+ * El cálculo de BCrypt es costoso a propósito; una ráfaga de logins puede ocupar todos los hilos de Tomcat
+ * calculando o esperando hashes y demorar el resto de la API. Este componente:
+ * </p>
+ * <ul>
+ *   <li>Admite como máximo {@code security.password.hash.max-concurrent} cálculos a la vez. El cálculo se hace
+ *   en el hilo de la solicitud, que nunca queda esperando un turno: si no hay un permiso libre, la solicitud se
+ *   rechaza de inmediato con {@link TooManyRequestsException} (HTTP 429).</li>
+ *   <li>Calibra al iniciar el costo de BCrypt para los hashes nuevos según una latencia objetivo.
+ *   La verificación de hashes existentes siempre usa el costo guardado en el propio hash.</li>
+ *   <li>Publica métricas de cálculos en curso, rechazos y tiempo de hashing.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    @Value("${security.password.hash.max-concurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${security.password.bcrypt.target-ms:250}")
+    private long targetMillis;
+
+    @Value("${security.password.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${security.password.bcrypt.max-strength:14}")
+    private int maxStrength;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Semaphore permits;
+
+    private BCryptPasswordEncoder delegate;
+
+    private Timer encodeTimer;
+
+    private Timer matchesTimer;
+
+    private Counter rejectedCounter;
+
+
+    @PostConstruct
+    public void init() {
+        int strength = calibrateStrength();
+        delegate = new BCryptPasswordEncoder(strength);
+        permits = new Semaphore(maxConcurrent);
+
+        Gauge.builder("security.password.hash.active", permits, p -> maxConcurrent - p.availablePermits())
+                .description("Cálculos de BCrypt en curso")
+                .register(meterRegistry);
+        Gauge.builder("security.password.bcrypt.strength", () -> strength)
+                .description("Costo BCrypt aplicado a los hashes nuevos")
+                .register(meterRegistry);
+
+        encodeTimer = Timer.builder("security.password.hash.duration")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        matchesTimer = Timer.builder("security.password.hash.duration")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("security.password.hash.rejected")
+                .description("Solicitudes rechazadas por exceder los cálculos simultáneos de BCrypt")
+                .register(meterRegistry);
+
+        log.info("BCrypt calibrado con costo {} (objetivo {} ms), máximo {} cálculos simultáneos.", strength, targetMillis, maxConcurrent);
+    }
+
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer, "encode");
+    }
+
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer, "matches");
+    }
+
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+
+    /**
+     * Ejecuta la operación si hay un permiso libre, sin esperar.
+     *
+     * @param task Operación de hashing.
+     * @param timer Temporizador en el que se registra la duración del hashing.
+     * @param operation Nombre de la operación (para el log).
+     * @return Resultado de la operación.
+     * @throws TooManyRequestsException Si ya se alcanzó el máximo de cálculos simultáneos.
+     */
+    private <T> T execute(Supplier<T> task, Timer timer, String operation) {
+        if (!permits.tryAcquire()) {
+            rejectedCounter.increment();
+            //No se registra en base de datos: durante una ráfaga cada rechazo generaría una escritura adicional.
+            throw new TooManyRequestsException("exception.passwordHashBusy.user", null, "exception.passwordHashBusy.log", new Object[]{operation, maxConcurrent, "BoundedPasswordEncoder", "execute"}, LogLevel.NONE);
+        }
+        try {
+            return timer.record(task);
+        } finally {
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Busca el mayor costo BCrypt cuyo tiempo de hashing no supera la latencia objetivo,
+     * sin bajar nunca del mínimo configurado.
+     *
+     * @return Costo a utilizar para los hashes nuevos.
+     */
+    private int calibrateStrength() {
+        int strength = minStrength;
+        for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+            long elapsed = measure(candidate);
+            if (elapsed > targetMillis) {
+                break;
+            }
+            strength = candidate;
+
+            //Cada punto de costo duplica el tiempo: se evita medir un costo que excede el objetivo.
+            if (elapsed * 2 > targetMillis) {
+                break;
+            }
+        }
+        return strength;
+    }
+
+
+    //Mide el menor de dos hashes para descartar el calentamiento de la JVM.
+    private long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return best;
+    }
+}
@@ -5,16 +5,19 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.Claim;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.odontologiaintegralfm.enums.LogLevel;
-import com.odontologiaintegralfm.enums.SystemParameterKey;
 import com.odontologiaintegralfm.exception.UnauthorizedException;
 import com.odontologiaintegralfm.service.SystemParameterService;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.security.core.Authentication;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Date;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -37,6 +40,15 @@ import java.util.stream.Collectors;
 @Component
 public class JwtUtils {
 
+    /** Claim con las autoridades que no son permisos (Ej: roles), separadas por coma. */
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    /** Claim con los permisos del usuario codificados como bitmask en Base64. */
+    public static final String PERMISSIONS_CLAIM = "perms";
+
+    /** Claim con el ID del usuario, para resolver el usuario autenticado sin consultar la base. */
+    public static final String USER_ID_CLAIM = "uid";
+
     private final MessageSource messageSource;
 
     //Con estas configuraciones aseguramos la autenticidad del token a crear
@@ -49,12 +61,31 @@ public class JwtUtils {
     @Autowired
     private SystemParameterService systemParameterService;
 
+    @Autowired
+    private PermissionBitIndex permissionBitIndex;
+
+    //Algoritmo y verificador compartidos: son inmutables y thread-safe, se construyen una única vez.
+    private Algorithm algorithm;
+    private JWTVerifier verifier;
+
 
     public JwtUtils(@Qualifier("messageSource") MessageSource messageSource) {
         this.messageSource = messageSource;
     }
 
 
+    /**
+     * Construye el algoritmo de firma y el verificador una vez inyectadas las propiedades.
+     */
+    @PostConstruct
+    void init() {
+        this.algorithm = Algorithm.HMAC256(this.privateKey);
+        this.verifier = JWT.require(this.algorithm)
+                .withIssuer(this.userGenerator)
+                .build();
+    }
+
+
     /**
      * Crea un token JWT (JSON Web Token) para un usuario autenticado.
      * <p>
@@ -62,30 +93,45 @@ public class JwtUtils {
      * e incluye información sobre el usuario autenticado, como su nombre de usuario, roles/autorizaciones,
      * la fecha de emisión y la fecha de expiración del token.
      * </p>
+     * <p>
+     * Los permisos ({@code PERMISO_<PERMISO>_<ACCION>}) no se escriben como texto: se codifican como bitmask
+     * mediante {@link PermissionBitIndex} en el claim {@value #PERMISSIONS_CLAIM}. El claim {@value #AUTHORITIES_CLAIM}
+     * conserva el resto de autoridades (roles).
+     * </p>
      *
      * @param authentication La autenticación del usuario, que contiene el principal (nombre de usuario)
      *                      y las autoridades (roles/permisos).
      * @return El token JWT generado.
      */
     public String createToken (Authentication authentication) {
+        return createToken(authentication, null);
+    }
 
-        // Clave secreta y algoritmo para la firma del token
-        Algorithm algorithm = Algorithm.HMAC256(this.privateKey);
+
+    /**
+     * Crea un token JWT que además incluye el ID del usuario en el claim {@value #USER_ID_CLAIM}.
+     *
+     * @param authentication La autenticación del usuario.
+     * @param userId ID del usuario autenticado (puede ser null).
+     * @return El token JWT generado.
+     */
+    public String createToken (Authentication authentication, Long userId) {
 
         // Obtener el nombre de usuario desde la autenticación
         String username = authentication.getPrincipal().toString();
 
-        // Obtener las autoridades (permisos/roles) del usuario y convertirlas a una cadena separada por comas
+        // Obtener las autoridades que no son permisos (roles) y convertirlas a una cadena separada por comas
         String authorities = authentication.getAuthorities()
                 .stream()
                 .map(GrantedAuthority::getAuthority)
+                .filter(authority -> !authority.startsWith(PermissionBitIndex.PERMISSION_PREFIX))
                 .collect(Collectors.joining(","));
 
-        // Obtener el valor parametrizado en la base.
-        int expirationInMinutes = Integer.parseInt(systemParameterService.getByKey(SystemParameterKey.JWT_EXPIRATION));
+        // Codificar los permisos como bitmask
+        String permissions = permissionBitIndex.toClaim(permissionBitIndex.encode(authentication.getAuthorities()));
 
-        //Convertilo a milisegundos.
-        int expirationInMillis = expirationInMinutes * 60 * 1000;
+        // Obtener el valor parametrizado (instantánea en memoria) en milisegundos.
+        long expirationInMillis = systemParameterService.getSnapshot().jwtExpiration().toMillis();
 
         //Se convierte en formato correcto para crear el token
         Date expirationDate = new Date(System.currentTimeMillis() +expirationInMillis);
@@ -96,13 +142,15 @@ public class JwtUtils {
         String jwtToken = JWT.create()
                 .withIssuer(this.userGenerator) //acá va el usuario que genera el token
                 .withSubject(username) // a quien se le genera el token
-                .withClaim("authorities", authorities) //claims son los datos contraidos en el JWT
+                .withClaim(AUTHORITIES_CLAIM, authorities) //claims son los datos contraidos en el JWT
+                .withClaim(PERMISSIONS_CLAIM, permissions)
+                .withClaim(USER_ID_CLAIM, userId)
                 .withIssuedAt(new Date()) //fecha de generación del token
                 .withExpiresAt(expirationDate) //fecha de expiración, tiempo en milisegundos
                 //.withExpiresAt(new Date(System.currentTimeMillis() + 1800000)) //fecha de expiración, tiempo en milisegundos
                 .withJWTId(UUID.randomUUID().toString()) //id al token - que genere una random
                 .withNotBefore(new Date (System.currentTimeMillis())) //desde cuando es válido (desde ahora en este caso)
-                .sign(algorithm); //nuestra firma es la que creamos con la clave secreta
+                .sign(this.algorithm); //nuestra firma es la que creamos con la clave secreta
 
         return jwtToken;
     }
@@ -112,7 +160,7 @@ public class JwtUtils {
     /**
      * Valída y decodifica un token JWT (JSON Web Token).
      * <p>
-     * Este método recibe un token JWT, lo valida utilizando el algoritmo HMAC256 y la clave secreta,
+     * Este método recibe un token JWT, lo valida utilizando el verificador compartido (HMAC256 y la clave secreta),
      * y verifica que el emisor del token coincida con el generador esperado. Si el token es válido,
      * lo decodifica y devuelve un objeto {@link DecodedJWT} con los datos contenidos en el token.
      * </p>
@@ -122,23 +170,53 @@ public class JwtUtils {
      */
     public DecodedJWT validateToken(String token) {
         try {
-            // Algoritmo y clave secreta para la validación
-            Algorithm algorithm = Algorithm.HMAC256(this.privateKey);
-
-            // Configurar el verificador del token con el emisor esperado
-            JWTVerifier verifier = JWT.require(algorithm)
-                    .withIssuer(this.userGenerator)
-                    .build();
-
             // Si el token es válido, se decodifica y se devuelve el objeto DecodedJWT
-            DecodedJWT decodedJWT = verifier.verify(token);
+            DecodedJWT decodedJWT = this.verifier.verify(token);
             return decodedJWT;
         }catch (Exception e){
-            throw new UnauthorizedException("exception.jwtUtils.validateToken.error.user", null, "exception.jwtUtils.validateToken.error.log", new Object[]{"JwtUtils","UserService"}, LogLevel.ERROR);
+            //Sin stack trace: es un rechazo esperado y ante una ráfaga de tokens inválidos su captura es el mayor costo.
+            throw new UnauthorizedException("exception.jwtUtils.validateToken.error.user", null, "exception.jwtUtils.validateToken.error.log", new Object[]{"JwtUtils","UserService"}, LogLevel.ERROR, false);
         }
     }
 
 
+    /**
+     * Construye la autenticación de Spring Security a partir de un token ya validado.
+     * <p>
+     * Los roles se obtienen del claim {@value #AUTHORITIES_CLAIM} y los permisos del bitmask {@value #PERMISSIONS_CLAIM}.
+     * Para tokens emitidos antes de la codificación por bits (sin claim de permisos) los permisos se calculan
+     * a partir del texto de autoridades. El ID del usuario se toma del claim {@value #USER_ID_CLAIM}
+     * (null en tokens emitidos antes de incorporarlo).
+     * </p>
+     *
+     * @param decodedJWT Token decodificado y validado.
+     * @return Una {@link PermissionAuthenticationToken} con roles y permisos del usuario.
+     */
+    public PermissionAuthenticationToken buildAuthentication(DecodedJWT decodedJWT) {
+        String authorities = decodedJWT.getClaim(AUTHORITIES_CLAIM).asString();
+        String permissions = decodedJWT.getClaim(PERMISSIONS_CLAIM).asString();
+
+        BitSet permissionBits = permissions != null
+                ? permissionBitIndex.fromClaim(permissions)
+                : permissionBitIndex.encode(authorities);
+
+        String roles = authorities == null ? "" : authorities;
+        if (permissions == null) {
+            roles = Arrays.stream(roles.split(","))
+                    .filter(authority -> !authority.startsWith(PermissionBitIndex.PERMISSION_PREFIX))
+                    .collect(Collectors.joining(","));
+        }
+
+        return new PermissionAuthenticationToken(
+                decodedJWT.getClaim(USER_ID_CLAIM).asLong(),
+                extractUsername(decodedJWT),
+                AuthorityUtils.commaSeparatedStringToAuthorityList(roles),
+                permissionBits,
+                decodedJWT.getId(),
+                decodedJWT.getExpiresAtAsInstant());
+    }
+
+
     /**
      * Extrae el nombre de usuario (subject) de un token JWT decodificado.
      * <p>
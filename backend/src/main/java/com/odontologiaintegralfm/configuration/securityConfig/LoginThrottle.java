@@ -0,0 +1,182 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador en memoria de intentos de login fallidos por usuario y por IP del cliente.
+ * <p>
+ * Cada clave ({@code u:<username>} o {@code ip:<dirección>}) tiene una ventana deslizante dividida en buckets.
+ * Los contadores se actualizan sin bloqueos (operaciones atómicas sobre arreglos) y el mapa de claves es un
+ * {@link ConcurrentHashMap}, que ya reparte la concurrencia por segmentos. Un intento fallido no genera
+ * escrituras en la base: solo el cambio de estado a "cuenta bloqueada" se persiste, desde {@code UserService}.
+ * </p>
+ * <p>
+ * Los contadores no se comparten entre instancias y se pierden al reiniciar; el bloqueo de la cuenta sí queda persistido.
+ * </p>
+ */
+@Component
+public class LoginThrottle {
+
+    private static final String USER_PREFIX = "u:";
+
+    private static final String IP_PREFIX = "ip:";
+
+    @Value("${security.login.throttle.window-seconds:900}")
+    private long windowSeconds;
+
+    @Value("${security.login.throttle.buckets:15}")
+    private int buckets;
+
+    @Value("${security.login.throttle.ip-max-failures:50}")
+    private int ipMaxFailures;
+
+    @Value("${security.login.throttle.max-keys:100000}")
+    private int maxKeys;
+
+    private long bucketMillis;
+
+    private final ConcurrentHashMap<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+
+    @PostConstruct
+    public void init() {
+        bucketMillis = Math.max(1L, windowSeconds * 1000L / buckets);
+    }
+
+
+    /**
+     * Verifica que la IP del cliente no haya superado el máximo de intentos fallidos en la ventana.
+     * Se invoca antes de consultar al usuario y de calcular BCrypt.
+     *
+     * @param clientIp IP del cliente (puede ser null).
+     * @throws TooManyRequestsException Si la IP superó el límite.
+     */
+    public void checkClient(String clientIp) {
+        if (clientIp == null) {
+            return;
+        }
+        SlidingWindowCounter counter = counters.get(IP_PREFIX + clientIp);
+        if (counter != null && counter.sum(System.currentTimeMillis(), bucketMillis) >= ipMaxFailures) {
+            throw new TooManyRequestsException("exception.loginThrottle.user", null, "exception.loginThrottle.log", new Object[]{clientIp, "LoginThrottle", "checkClient"}, LogLevel.NONE);
+        }
+    }
+
+
+    /**
+     * Registra un intento fallido para la IP del cliente (Ej: usuario inexistente).
+     *
+     * @param clientIp IP del cliente (puede ser null).
+     */
+    public void recordClientFailure(String clientIp) {
+        if (clientIp != null) {
+            increment(IP_PREFIX + clientIp);
+        }
+    }
+
+
+    /**
+     * Registra un intento fallido para el usuario y la IP del cliente.
+     *
+     * @param username Nombre de usuario.
+     * @param clientIp IP del cliente (puede ser null).
+     * @return Cantidad de intentos fallidos del usuario dentro de la ventana, incluido el actual.
+     */
+    public long recordFailure(String username, String clientIp) {
+        recordClientFailure(clientIp);
+        return increment(USER_PREFIX + username);
+    }
+
+
+    /**
+     * Descarta los intentos fallidos del usuario (login exitoso o restablecimiento de contraseña).
+     *
+     * @param username Nombre de usuario.
+     */
+    public void reset(String username) {
+        counters.remove(USER_PREFIX + username);
+    }
+
+
+    /**
+     * Elimina periódicamente los contadores sin intentos dentro de la ventana.
+     */
+    @Scheduled(fixedDelayString = "${security.login.throttle.cleanup-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        counters.entrySet().removeIf(entry -> entry.getValue().sum(now, bucketMillis) == 0);
+    }
+
+
+    private long increment(String key) {
+        long now = System.currentTimeMillis();
+        SlidingWindowCounter counter = counters.get(key);
+        if (counter == null) {
+            //Ante una ráfaga de claves distintas se depuran las vencidas antes de seguir creciendo.
+            if (counters.size() >= maxKeys) {
+                evictExpired();
+            }
+            counter = counters.computeIfAbsent(key, k -> new SlidingWindowCounter(buckets));
+        }
+        return counter.incrementAndSum(now, bucketMillis);
+    }
+
+
+    /**
+     * Ventana deslizante de {@code buckets} intervalos. Cada bucket es un único {@code long} con el número de
+     * intervalo (bits altos) y el conteo (bits bajos), de modo que reiniciar un bucket de un intervalo anterior y
+     * contar el intento son el mismo CAS: un incremento concurrente nunca se pierde en el cambio de intervalo.
+     */
+    private static final class SlidingWindowCounter {
+
+        private static final int COUNT_BITS = 20;
+
+        private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+        private final AtomicLongArray slots;
+
+        private SlidingWindowCounter(int buckets) {
+            this.slots = new AtomicLongArray(buckets);
+        }
+
+        private long incrementAndSum(long now, long bucketMillis) {
+            long interval = now / bucketMillis;
+            int index = (int) (interval % slots.length());
+
+            while (true) {
+                long current = slots.get(index);
+                long next;
+                if ((current >>> COUNT_BITS) >= interval) {
+                    //Mismo intervalo (o uno posterior ya registrado por otro hilo): suma al conteo, sin desbordarlo.
+                    next = (current & COUNT_MASK) < COUNT_MASK ? current + 1 : current;
+                } else {
+                    //Bucket de un intervalo anterior: se reinicia con este intento.
+                    next = (interval << COUNT_BITS) | 1;
+                }
+                if (next == current || slots.compareAndSet(index, current, next)) {
+                    break;
+                }
+            }
+            return sum(now, bucketMillis);
+        }
+
+        private long sum(long now, long bucketMillis) {
+            long oldest = now / bucketMillis - slots.length() + 1;
+            long total = 0;
+            for (int i = 0; i < slots.length(); i++) {
+                long slot = slots.get(i);
+                if ((slot >>> COUNT_BITS) >= oldest) {
+                    total += slot & COUNT_MASK;
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Autenticación construida a partir de un JWT válido.
+ * <p>
+ * Además de las autoridades de tipo rol, mantiene los permisos del usuario como un {@link BitSet}
+ * indexado por {@link PermissionBitIndex}, lo que permite verificar permisos en tiempo constante.
+ * También conserva el ID del usuario, de modo que identificar a quien realiza la solicitud no requiere consultas,
+ * y el {@code jti} y la expiración del token, necesarios para revocarlo.
+ * </p>
+ */
+public class PermissionAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final Long userId;
+
+    private final BitSet permissionBits;
+
+    private final String tokenId;
+
+    private final Instant expiresAt;
+
+    public PermissionAuthenticationToken(Long userId, String username, Collection<? extends GrantedAuthority> authorities, BitSet permissionBits,
+                                         String tokenId, Instant expiresAt) {
+        super(username, null, authorities);
+        this.userId = userId;
+        this.permissionBits = (BitSet) permissionBits.clone();
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+
+    /**
+     * @return ID del usuario autenticado, o null si el token no incluye el claim (tokens anteriores).
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+
+    /**
+     * @return Identificador del JWT (claim {@code jti}).
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+
+    /**
+     * @return Expiración del JWT (claim {@code exp}).
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+
+    /**
+     * @return Copia de los bits de permiso (para reconstruir la autenticación desde {@link VerifiedTokenCache}).
+     */
+    BitSet getPermissionBits() {
+        return (BitSet) permissionBits.clone();
+    }
+
+
+    /**
+     * Indica si el usuario cuenta con el bit de permiso indicado.
+     *
+     * @param bit Posición del bit según {@link PermissionBitIndex}.
+     * @return true si el permiso está otorgado.
+     */
+    public boolean hasPermissionBit(int bit) {
+        return bit >= 0 && permissionBits.get(bit);
+    }
+}
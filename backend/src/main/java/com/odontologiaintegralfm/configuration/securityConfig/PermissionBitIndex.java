@@ -0,0 +1,180 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import com.odontologiaintegralfm.model.Action;
+import com.odontologiaintegralfm.model.Permission;
+import com.odontologiaintegralfm.repository.IActionRepository;
+import com.odontologiaintegralfm.repository.IPermissionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Índice estable de bits sobre los pares Permiso × Acción.
+ * <p>
+ * Cada par se ubica en una posición fija calculada a partir de los IDs de la base de datos:
+ * {@code (idPermiso - 1) * ACTION_SLOTS + (idAcción - 1)}. Como los IDs no cambian, la posición de un par
+ * tampoco cambia al agregar nuevos permisos o acciones, por lo que los tokens ya emitidos siguen siendo válidos.
+ * </p>
+ * <p>
+ * Se utiliza para codificar los permisos del usuario en un único claim del JWT (bitmask en Base64)
+ * y para resolver en tiempo constante las verificaciones de {@code hasPermission('PERMISO','ACCION')}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class PermissionBitIndex {
+
+    /** Cantidad fija de posiciones reservadas para acciones dentro de cada permiso. */
+    public static final int ACTION_SLOTS = 16;
+
+    /** Prefijo de las autoridades de tipo permiso. Ej: PERMISO_PATIENTS_READ */
+    public static final String PERMISSION_PREFIX = "PERMISO_";
+
+    @Autowired
+    private IPermissionRepository permissionRepository;
+
+    @Autowired
+    private IActionRepository actionRepository;
+
+    //Índices inmutables. Se cargan una única vez de forma diferida.
+    private volatile Map<String, Map<String, Integer>> bitsByPermission;
+    private volatile Map<String, Integer> bitsByAuthority;
+
+
+    /**
+     * Obtiene la posición del bit correspondiente a un permiso y una acción.
+     *
+     * @param permission Nombre del permiso (Ej: PATIENTS).
+     * @param action Nombre de la acción (Ej: READ).
+     * @return La posición del bit o -1 si el par no existe.
+     */
+    public int bitOf(String permission, String action) {
+        Map<String, Integer> actions = getBitsByPermission().get(permission);
+        if (actions == null) {
+            return -1;
+        }
+        Integer bit = actions.get(action);
+        return bit == null ? -1 : bit;
+    }
+
+
+    /**
+     * Obtiene la posición del bit correspondiente a una autoridad de tipo permiso.
+     *
+     * @param authority Autoridad completa (Ej: PERMISO_PATIENTS_READ).
+     * @return La posición del bit o -1 si no corresponde a un permiso conocido.
+     */
+    public int bitOf(String authority) {
+        Integer bit = getBitsByAuthority().get(authority);
+        return bit == null ? -1 : bit;
+    }
+
+
+    /**
+     * Codifica las autoridades de tipo permiso en un {@link BitSet}. Las demás autoridades (Ej: roles) se ignoran.
+     *
+     * @param authorities Autoridades del usuario.
+     * @return Conjunto de bits con los permisos del usuario.
+     */
+    public BitSet encode(Collection<? extends GrantedAuthority> authorities) {
+        BitSet bits = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            int bit = bitOf(authority.getAuthority());
+            if (bit >= 0) {
+                bits.set(bit);
+            }
+        }
+        return bits;
+    }
+
+
+    /**
+     * Codifica una lista de autoridades separadas por comas (formato del claim "authorities" de tokens anteriores).
+     *
+     * @param authorities Autoridades separadas por coma.
+     * @return Conjunto de bits con los permisos contenidos.
+     */
+    public BitSet encode(String authorities) {
+        BitSet bits = new BitSet();
+        if (authorities == null || authorities.isBlank()) {
+            return bits;
+        }
+        for (String authority : authorities.split(",")) {
+            int bit = bitOf(authority.trim());
+            if (bit >= 0) {
+                bits.set(bit);
+            }
+        }
+        return bits;
+    }
+
+
+    /**
+     * Serializa un conjunto de bits a Base64 URL-safe para incluirlo como claim.
+     */
+    public String toClaim(BitSet bits) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+
+    /**
+     * Reconstruye un conjunto de bits a partir del claim en Base64.
+     */
+    public BitSet fromClaim(String claim) {
+        if (claim == null || claim.isEmpty()) {
+            return new BitSet();
+        }
+        return BitSet.valueOf(Base64.getUrlDecoder().decode(claim));
+    }
+
+
+    private Map<String, Map<String, Integer>> getBitsByPermission() {
+        if (bitsByPermission == null) {
+            load();
+        }
+        return bitsByPermission;
+    }
+
+
+    private Map<String, Integer> getBitsByAuthority() {
+        if (bitsByAuthority == null) {
+            load();
+        }
+        return bitsByAuthority;
+    }
+
+
+    //Construye los índices a partir de los permisos y acciones registrados.
+    private synchronized void load() {
+        if (bitsByAuthority != null) {
+            return;
+        }
+
+        List<Action> actions = actionRepository.findAll();
+        Map<String, Map<String, Integer>> byPermission = new HashMap<>();
+        Map<String, Integer> byAuthority = new HashMap<>();
+
+        for (Permission permission : permissionRepository.findAll()) {
+            String permissionName = permission.getName().toUpperCase();
+            Map<String, Integer> byAction = new HashMap<>();
+
+            for (Action action : actions) {
+                if (action.getId() > ACTION_SLOTS) {
+                    log.warn("Acción ID {} fuera del rango del índice de permisos ({} posiciones). No se codifica.", action.getId(), ACTION_SLOTS);
+                    continue;
+                }
+                String actionName = action.getName().toUpperCase();
+                int bit = (int) ((permission.getId() - 1) * ACTION_SLOTS + (action.getId() - 1));
+                byAction.put(actionName, bit);
+                byAuthority.put(PERMISSION_PREFIX + permissionName + "_" + actionName, bit);
+            }
+            byPermission.put(permissionName, Map.copyOf(byAction));
+        }
+
+        bitsByPermission = Map.copyOf(byPermission);
+        bitsByAuthority = Map.copyOf(byAuthority);
+    }
+}
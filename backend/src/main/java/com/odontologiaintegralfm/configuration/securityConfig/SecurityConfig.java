@@ -2,12 +2,17 @@ package com.odontologiaintegralfm.configuration.securityConfig;
 import com.odontologiaintegralfm.repository.IUserRepository;
 import com.odontologiaintegralfm.configuration.securityConfig.filter.JwtTokenValidator;
 import com.odontologiaintegralfm.configuration.securityConfig.filter.OAuth2UserFilter;
+import com.odontologiaintegralfm.service.LogRateLimiter;
 import com.odontologiaintegralfm.service.interfaces.IMessageService;
 import com.odontologiaintegralfm.service.interfaces.IRefreshTokenService;
 import com.odontologiaintegralfm.service.interfaces.ISystemLogService;
+import com.odontologiaintegralfm.service.interfaces.ITokenRevocationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -17,9 +22,9 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.expression.WebExpressionAuthorizationManager;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
@@ -42,6 +47,21 @@ public class SecurityConfig {
     @Autowired
     private ISystemLogService systemLogService;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private ITokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuthRejectionResponder authRejectionResponder;
+
+    @Autowired
+    private LogRateLimiter logRateLimiter;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
 
 
     /**
@@ -66,6 +86,7 @@ public class SecurityConfig {
                         "/v3/api-docs/**",
                         "/swagger-ui/**",
                         "/swagger-ui.html",
+                        "/actuator/health",
                         "/api/auth/login",
                         "/api/auth/token/refresh",
                         "/api/auth/logout",
@@ -73,6 +94,9 @@ public class SecurityConfig {
                         "/api/auth/password/reset"
                         )
                         .permitAll()
+                        //Prometheus: sin JWT, solo desde la propia máquina.
+                        .requestMatchers("/actuator/prometheus")
+                        .access(new WebExpressionAuthorizationManager("hasIpAddress('127.0.0.1') or hasIpAddress('::1')"))
                         .anyRequest().authenticated()
                 )
                 .csrf(csrf -> csrf.disable())
@@ -85,7 +109,7 @@ public class SecurityConfig {
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 //Se agregan filtros Personalizados.
-                .addFilterBefore(new JwtTokenValidator(jwtUtils, messageService, systemLogService),UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JwtTokenValidator(jwtUtils, messageService, systemLogService, verifiedTokenCache, tokenRevocationService, authRejectionResponder, logRateLimiter, authMetrics),UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(new OAuth2UserFilter(jwtUtils,userRepository,messageService,refreshTokenService), BasicAuthenticationFilter.class)
                 .oauth2Login(oauth2 -> oauth2
                       .defaultSuccessUrl("/holaseg",true))//Redirección luego de autenticación.
@@ -123,12 +147,13 @@ public class SecurityConfig {
      * </p>
      *
      * @param userDetailsService El servicio que proporciona los detalles del usuario para la autenticación.
+     * @param passwordEncoder Codificador BCrypt con pool de hilos acotado ({@link BoundedPasswordEncoder}).
      * @return Un {@link AuthenticationProvider} configurado con el servicio de detalles del usuario y el codificador de contraseñas.
      */
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService){
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
 
         provider.setUserDetailsService(userDetailsService);
 
@@ -138,20 +163,18 @@ public class SecurityConfig {
 
 
     /**
-     * Crea un codificador de contraseñas para la aplicación.
-     *
-     * <p>
-     * Este método configura un {@link PasswordEncoder} utilizando el algoritmo {@link BCryptPasswordEncoder}.
-     * El codificador BCrypt proporciona un mecanismo robusto para almacenar contraseñas de manera segura,
-     * aplicando un proceso de hashing con sal (salt) para mejorar la seguridad.
-     * </p>
+     * Registra el evaluador de permisos por bits para las expresiones {@code hasPermission(...)}
+     * utilizadas en las anotaciones de seguridad.
      *
-     * @return Un {@link PasswordEncoder} configurado para codificar las contraseñas de forma segura.
+     * @param permissionEvaluator Evaluador basado en {@link PermissionBitIndex}.
+     * @return El manejador de expresiones de seguridad de métodos.
      */
     @Bean
-    public PasswordEncoder passwordEncoder(){
-         return new BCryptPasswordEncoder();
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler(PermissionEvaluator permissionEvaluator) {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setPermissionEvaluator(permissionEvaluator);
+        return handler;
     }
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caché acotada de tokens JWT ya verificados.
+ * <p>
+ * Evita repetir la verificación de firma HMAC y la decodificación de claims en cada solicitud
+ * autenticada con el mismo token. Cada entrada se indexa por el digest SHA-256 del token
+ * (nunca se guarda el token en claro) y contiene los claims ya decodificados. Cada acierto construye una
+ * {@link PermissionAuthenticationToken} nueva: la autenticación se guarda en el contexto de seguridad de cada
+ * solicitud y no se comparte entre hilos.
+ * </p>
+ * <ul>
+ *     <li>Las entradas vencen en el instante de expiración (claim {@code exp}) del propio token.</li>
+ *     <li>Un token que todavía no es válido (claim {@code nbf} futuro) no se cachea ni se devuelve.</li>
+ *     <li>El tamaño máximo es configurable mediante {@code security.jwt.cache.max-size}.</li>
+ *     <li>Al alcanzar el límite se purgan las entradas vencidas; si sigue lleno, el token no se cachea.</li>
+ * </ul>
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${security.jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    //MessageDigest no es thread-safe, se mantiene una instancia por hilo.
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+
+    /**
+     * Entrada de la caché: claims del token ya verificado y los instantes (epoch millis) entre los que es válido.
+     */
+    public record Entry(Long userId,
+                        String username,
+                        List<GrantedAuthority> authorities,
+                        BitSet permissionBits,
+                        String tokenId,
+                        Instant expiresAt,
+                        long notBeforeMillis) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt.toEpochMilli();
+        }
+
+        boolean isNotYetValid(long now) {
+            return now < notBeforeMillis;
+        }
+
+        /**
+         * Construye una autenticación nueva para la solicitud actual.
+         */
+        public PermissionAuthenticationToken toAuthentication() {
+            return new PermissionAuthenticationToken(userId, username, authorities, permissionBits, tokenId, expiresAt);
+        }
+    }
+
+
+    /**
+     * Obtiene los claims de un token previamente verificado.
+     *
+     * @param token Token JWT (sin el prefijo "Bearer ").
+     * @return La entrada vigente o {@code null} si no existe, ya venció o todavía no es válida.
+     */
+    public Entry get(String token) {
+        String key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (entry.isExpired(now)) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.isNotYetValid(now) ? null : entry;
+    }
+
+
+    /**
+     * Registra los claims de un token verificado.
+     *
+     * @param token Token JWT (sin el prefijo "Bearer ").
+     * @param authentication Autenticación construida a partir de los claims del token (no se guarda la instancia).
+     * @param notBefore Fecha desde la que el token es válido (claim {@code nbf}), puede ser null.
+     */
+    public void put(String token, PermissionAuthenticationToken authentication, Date notBefore) {
+        Instant expiresAt = authentication.getExpiresAt();
+        if (expiresAt == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long notBeforeMillis = notBefore != null ? notBefore.getTime() : 0L;
+        if (expiresAt.toEpochMilli() <= now || notBeforeMillis > now) {
+            return;
+        }
+
+        if (entries.size() >= maxSize) {
+            evictExpired(now);
+            if (entries.size() >= maxSize) {
+                return;
+            }
+        }
+        entries.put(digest(token), new Entry(
+                authentication.getUserId(),
+                authentication.getName(),
+                List.copyOf(authentication.getAuthorities()),
+                authentication.getPermissionBits(),
+                authentication.getTokenId(),
+                expiresAt,
+                notBeforeMillis));
+    }
+
+
+    /**
+     * Quita un token de la caché (por ejemplo, al revocarlo).
+     *
+     * @param token Token JWT (sin el prefijo "Bearer ").
+     */
+    public void remove(String token) {
+        entries.remove(digest(token));
+    }
+
+
+    //Elimina todas las entradas vencidas.
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+
+    //Calcula el digest SHA-256 del token codificado en Base64.
+    private String digest(String token) {
+        MessageDigest messageDigest = SHA_256.get();
+        messageDigest.reset();
+        byte[] hash = messageDigest.digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+}
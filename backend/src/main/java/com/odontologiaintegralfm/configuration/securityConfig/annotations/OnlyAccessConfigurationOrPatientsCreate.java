@@ -12,6 +12,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("hasAuthority('PERMISO_PATIENTS_CREATE') or hasAuthority('PERMISO_CONFIGURATION_CREATE')")
+@PreAuthorize("hasPermission('PATIENTS','CREATE') or hasPermission('CONFIGURATION','CREATE')")
 public @interface OnlyAccessConfigurationOrPatientsCreate {
 }
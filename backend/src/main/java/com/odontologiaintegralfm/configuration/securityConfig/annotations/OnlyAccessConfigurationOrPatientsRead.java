@@ -13,6 +13,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("hasAuthority('PERMISO_PATIENTS_READ') or hasAuthority('PERMISO_CONFIGURATION_READ')")
+@PreAuthorize("hasPermission('PATIENTS','READ') or hasPermission('CONFIGURATION','READ')")
 public @interface OnlyAccessConfigurationOrPatientsRead {
 }
@@ -9,6 +9,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("hasAuthority('PERMISO_CONFIGURATION_UPDATE')")
+@PreAuthorize("hasPermission('CONFIGURATION','UPDATE')")
 public @interface OnlyAccessConfigurationUpdate {
 }
@@ -9,6 +9,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("hasAuthority('PERMISO_CONSULTATION_RECORD_READ')")
+@PreAuthorize("hasPermission('CONSULTATION_RECORD','READ')")
 public @interface OnlyAccessConsultationRecordRead {
 }
@@ -10,6 +10,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("hasAuthority('PERMISO_PATIENTS_READ')")
+@PreAuthorize("hasPermission('PATIENTS','READ')")
 public @interface OnlyAccessPatientsRead {
 }
@@ -9,6 +9,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("hasAuthority('PERMISO_SYSTEM_READ')")
+@PreAuthorize("hasPermission('SYSTEM','READ')")
 public @interface OnlyAccessSystemRead {
 }
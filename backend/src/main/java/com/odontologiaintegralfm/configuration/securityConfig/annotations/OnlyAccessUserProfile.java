@@ -12,6 +12,6 @@ import java.lang.annotation.Target;
 
 @Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
-@PreAuthorize("#id == @authenticatedUserService.authenticatedUser.id or hasAuthority('PERMISO_CONFIGURATION_READ')")
+@PreAuthorize("#id == @authenticatedUserService.authenticatedUserId or hasPermission('CONFIGURATION','READ')")
 public @interface OnlyAccessUserProfile {
 }
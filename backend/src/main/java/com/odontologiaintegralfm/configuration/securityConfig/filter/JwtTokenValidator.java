@@ -3,16 +3,19 @@ package com.odontologiaintegralfm.configuration.securityConfig.filter;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.odontologiaintegralfm.dto.Response;
 import com.odontologiaintegralfm.dto.SystemLogResponseDTO;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.enums.LogType;
 import com.odontologiaintegralfm.exception.UnauthorizedException;
-import com.odontologiaintegralfm.service.SystemLogService;
 import com.odontologiaintegralfm.service.interfaces.IMessageService;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthMetrics;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthRejectionResponder;
 import com.odontologiaintegralfm.configuration.securityConfig.JwtUtils;
+import com.odontologiaintegralfm.configuration.securityConfig.PermissionAuthenticationToken;
+import com.odontologiaintegralfm.configuration.securityConfig.VerifiedTokenCache;
+import com.odontologiaintegralfm.service.LogRateLimiter;
 import com.odontologiaintegralfm.service.interfaces.ISystemLogService;
+import com.odontologiaintegralfm.service.interfaces.ITokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,18 +23,13 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
-import java.util.Collection;
+import java.util.Map;
 
 /**
  * Filtro encargado de validar el token JWT en las solicitudes HTTP para asegurar que el usuario esté autenticado.
@@ -48,6 +46,22 @@ import java.util.Collection;
  * y personalización de los mensajes de respuesta.
  * </p>
  *
+ * <p>
+ * Los tokens ya verificados se guardan en {@link VerifiedTokenCache} hasta su expiración, de modo que las solicitudes
+ * siguientes con el mismo token no repiten la verificación de firma ni la decodificación de claims.
+ * </p>
+ *
+ * <p>
+ * En ambos casos se consulta {@link ITokenRevocationService} por el {@code jti} del token, de modo que un token
+ * revocado (Ej: tras el logout) deja de ser aceptado aunque siga en la caché.
+ * </p>
+ *
+ * <p>
+ * Los rechazos (HTTP 401) se responden con cuerpos ya serializados de {@link AuthRejectionResponder}, sin stack trace
+ * y con registro limitado por tipo de rechazo e IP del cliente ({@link LogRateLimiter}), para que una ráfaga de solicitudes
+ * no autenticadas no sature el servidor ni la tabla de logs.
+ * </p>
+ *
  * @see JwtUtils Utiliza este servicio para la validación del token y la extracción de datos del mismo.
  * @see IMessageService Servicio utilizado para obtener los mensajes de error y respuesta personalizados.
  */
@@ -57,11 +71,28 @@ public class JwtTokenValidator extends OncePerRequestFilter {
     private JwtUtils jwtUtils;
     private IMessageService messageService;
     private ISystemLogService systemLogService;
-
-    public JwtTokenValidator(JwtUtils jwtUtils, IMessageService messageService, ISystemLogService systemLogService) {
+    private VerifiedTokenCache verifiedTokenCache;
+    private ITokenRevocationService tokenRevocationService;
+    private AuthRejectionResponder authRejectionResponder;
+    private LogRateLimiter logRateLimiter;
+    private AuthMetrics authMetrics;
+
+    private static final String NULL_TOKEN_USER_KEY = "exception.authenticationRequired.user";
+    private static final String NULL_TOKEN_LOG_KEY = "exception.authenticationRequired.log";
+    private static final String INVALID_TOKEN_USER_KEY = "exception.validateToken.user";
+    private static final String INVALID_TOKEN_LOG_KEY = "exception.validateToken.log";
+
+    public JwtTokenValidator(JwtUtils jwtUtils, IMessageService messageService, ISystemLogService systemLogService, VerifiedTokenCache verifiedTokenCache,
+                             ITokenRevocationService tokenRevocationService, AuthRejectionResponder authRejectionResponder, LogRateLimiter logRateLimiter,
+                             AuthMetrics authMetrics) {
         this.jwtUtils = jwtUtils;
         this.messageService = messageService;
         this.systemLogService = systemLogService;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.authRejectionResponder = authRejectionResponder;
+        this.logRateLimiter = logRateLimiter;
+        this.authMetrics = authMetrics;
     }
 
 
@@ -93,27 +124,35 @@ public class JwtTokenValidator extends OncePerRequestFilter {
             if (jwtToken != null) {
                 //en el encabezado antes del token viene la palabra bearer (esquema de autenticación)
                 //por lo que debemos sacarlo
-                jwtToken = jwtToken.substring(7); //son 7 letras + 1 espacio
-                DecodedJWT decodedJWT = jwtUtils.validateToken(jwtToken);
+                //Un encabezado más corto se rechaza como token inválido (sin provocar un error 500)
+                jwtToken = jwtToken.length() > 7 ? jwtToken.substring(7) : ""; //son 7 letras + 1 espacio
+
+                //Si el token ya fue verificado y está vigente, se reutilizan sus claims (con una autenticación nueva)
+                VerifiedTokenCache.Entry cached = verifiedTokenCache.get(jwtToken);
+                PermissionAuthenticationToken authentication;
 
-                //si el token es válido, le concedemos el acceso
-                String username = jwtUtils.extractUsername(decodedJWT);
+                if (cached != null) {
+                    authentication = cached.toAuthentication();
+                } else {
+                    DecodedJWT decodedJWT = jwtUtils.validateToken(jwtToken);
 
-                //me devuelve claim, necesito pasarlo a String
-                String authorities = jwtUtils.getSpecificClaim(decodedJWT, "authorities").asString();
+                    //si el token es válido, le concedemos el acceso con sus roles y permisos (bitmask)
+                    authentication = jwtUtils.buildAuthentication(decodedJWT);
+                    verifiedTokenCache.put(jwtToken, authentication, decodedJWT.getNotBefore());
+                }
 
-                //Si todo está ok, hay que setearlo en el Context Holder
-                //Para eso tengo que convertirlos a GrantedAuthority
-                Collection<? extends GrantedAuthority> authoritiesList = AuthorityUtils.commaSeparatedStringToAuthorityList(authorities);
+                //Rechaza tokens revocados. Para los no revocados basta una consulta al filtro de Bloom en memoria.
+                if (tokenRevocationService.isRevoked(authentication.getTokenId())) {
+                    throw new UnauthorizedException("exception.validateToken.user", null, "exception.revokedToken.log", new Object[]{authentication.getName(), authentication.getTokenId(), "Jwt Token Validator", "doFilterInternal"}, LogLevel.WARN, false);
+                }
 
                 //Si se valida el token, le damos acceso al usuario en el context holder
                 SecurityContext context = SecurityContextHolder.getContext();
-                Authentication authentication = new UsernamePasswordAuthenticationToken(username, null, authoritiesList);
                 context.setAuthentication(authentication);
                 SecurityContextHolder.setContext(context);
 
             }else{
-                handleTokenNullException(new UnauthorizedException("exception.jwtUtils.validateToken.error.user", null, "exception.jwtUtils.validateToken.error.log", new Object[]{"Jwt Token Validator","doFilterInternal"}, LogLevel.ERROR), request, response);
+                handleTokenNullException(request, response);
                 return;
             }
 
@@ -126,89 +165,67 @@ public class JwtTokenValidator extends OncePerRequestFilter {
     }
 
 
-    private void handleTokenNullException(Exception ex,HttpServletRequest request, HttpServletResponse response) throws IOException{
-        // Cargar el mensaje de error desde properties
-        String logMessage = messageService.getMessage("exception.authenticationRequired.log", new Object[]{"Token nulo",request.getServletPath(),"JWT Token Validator","handleTokenInvalidException"}, LocaleContextHolder.getLocale());
-
-        // Crear mensaje genérico para el usuario
-        String userMessage = messageService.getMessage("exception.authenticationRequired.user", null, LocaleContextHolder.getLocale());
-
-        // log en consola
-        log.error(logMessage,ex);
-
-        // Guardar log en base de datos
-        systemLogService.save(new SystemLogResponseDTO(
-                LogLevel.ERROR,                      // level
-                LogType.EXCEPTION,                   // type
-                userMessage,                         // userMessage
-                logMessage,                          // technicalMessage
-                "LogActionAspect",
-                "No autenticado",
-                null,    // metadata como Map<String, Object>
-                systemLogService.getStackTraceAsString(ex)           // stacktrace como texto
-        ));
-
-        // Capturamos la excepción y devolvemos una respuesta personalizada
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.setContentType("application/json; charset=UTF-8");
-        // Crear la respuesta con el formato adecuado
-        Response<String> customResponse = new Response<>(false, userMessage, null);
-
-        // Convertir el objeto a JSON (usando una librería como Jackson)
-        String jsonResponse = new ObjectMapper().writeValueAsString(customResponse);
-
-        // Escribir la respuesta JSON en el cuerpo de la respuesta HTTP
-        response.getWriter().write(jsonResponse);
-
+    /**
+     * Rechaza una solicitud sin token JWT.
+     * <p>
+     * No se crea ninguna excepción: la respuesta usa el cuerpo ya serializado y el registro se limita por IP del cliente.
+     * </p>
+     *
+     * @param request La solicitud HTTP.
+     * @param response La respuesta HTTP que se enviará al cliente.
+     * @throws IOException Si ocurre un error al escribir la respuesta JSON en el cuerpo de la respuesta HTTP.
+     */
+    private void handleTokenNullException(HttpServletRequest request, HttpServletResponse response) throws IOException{
+        authMetrics.jwtRejection("missing");
+        if (logRateLimiter.tryAcquire(NULL_TOKEN_LOG_KEY, LogLevel.ERROR, request.getRemoteAddr())) {
+            // Cargar el mensaje de error desde properties
+            String logMessage = messageService.getMessage(NULL_TOKEN_LOG_KEY, new Object[]{"Token nulo",request.getServletPath(),"JWT Token Validator","handleTokenNullException"}, LocaleContextHolder.getLocale());
+            saveLog(logMessage, authRejectionResponder.getUserMessage(NULL_TOKEN_USER_KEY), request);
+        }
 
+        authRejectionResponder.reject(response, NULL_TOKEN_USER_KEY);
     }
 
     /**
-     * Maneja la excepción cuando un token JWT es inválido (Error en el JWT o expirado).
+     * Maneja la excepción cuando un token JWT es inválido (Error en el JWT, expirado o revocado).
      * <p>
-     * Este método captura la excepción que indica que el token JWT es inválido, registra un mensaje de error en el log,
-     * y proporciona una respuesta personalizada al cliente informando que el token es inválido.
+     * Devuelve el cuerpo ya serializado del mensaje de token inválido. El registro (consola y base de datos) se limita
+     * por IP del cliente y no incluye el stack trace: el rechazo es esperado y la pila no aporta información.
      * </p>
      *
-     * @param ex La excepción de tipo `JWTVerificationException` que indica que el token JWT es inválido.
+     * @param ex La excepción que indica que el token JWT es inválido.
+     * @param request La solicitud HTTP.
      * @param response La respuesta HTTP que se enviará al cliente.
      * @throws IOException Si ocurre un error al escribir la respuesta JSON en el cuerpo de la respuesta HTTP.
      */
-
     private void handleTokenInvalidException(Exception ex,HttpServletRequest request, HttpServletResponse response) throws IOException {
+        authMetrics.jwtRejection("invalid");
+        if (logRateLimiter.tryAcquire(INVALID_TOKEN_LOG_KEY, LogLevel.ERROR, request.getRemoteAddr())) {
+            // Cargar el mensaje de error desde properties (el de la excepción si lo tiene, Ej: token revocado)
+            String logMessage = ex instanceof UnauthorizedException unauthorizedException && "exception.revokedToken.log".equals(unauthorizedException.getLogMessageKey())
+                    ? messageService.getMessage(unauthorizedException.getLogMessageKey(), unauthorizedException.getLogArgs(), LocaleContextHolder.getLocale())
+                    : messageService.getMessage(INVALID_TOKEN_LOG_KEY, new Object[]{request.getHeader(HttpHeaders.AUTHORIZATION),request.getServletPath(),"JWT Token Validator","handleTokenInvalidException"}, LocaleContextHolder.getLocale());
+            saveLog(logMessage, authRejectionResponder.getUserMessage(INVALID_TOKEN_USER_KEY), request);
+        }
 
-        // Cargar el mensaje de error desde properties
-        String logMessage = messageService.getMessage("exception.validateToken.log", new Object[]{request.getHeader(HttpHeaders.AUTHORIZATION),request.getServletPath(),"JWT Token Validator","handleTokenInvalidException"}, LocaleContextHolder.getLocale());
+        authRejectionResponder.reject(response, INVALID_TOKEN_USER_KEY);
+    }
 
-        // Crear mensaje genérico para el usuario
-         String userMessage = messageService.getMessage("exception.validateToken.user", null, LocaleContextHolder.getLocale());
 
-        // log en consola
-        log.error(logMessage,ex);
+    //Registra el rechazo en consola y en base de datos. Los omitidos por el límite se informan en el resumen de LogRateLimiter.
+    private void saveLog(String logMessage, String userMessage, HttpServletRequest request) {
+        log.warn(logMessage);
 
-        // Guardar log en base de datos
         systemLogService.save(new SystemLogResponseDTO(
                 LogLevel.ERROR,                      // level
                 LogType.EXCEPTION,                   // type
                 userMessage,                         // userMessage
                 logMessage,                          // technicalMessage
-                "LogActionAspect",// username
+                "LogActionAspect",
                 "No autenticado",
-                null,    // metadata como Map<String, Object>
-                systemLogService.getStackTraceAsString(ex)           // stacktrace como texto
+                Map.of("clientIp", request.getRemoteAddr()), // metadata como Map<String, Object>
+                null                                 // sin stacktrace
         ));
-
-        // Capturamos la excepción y devolvemos una respuesta personalizada
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
-        response.setContentType("application/json; charset=UTF-8");
-        // Crear la respuesta con el formato adecuado
-        Response<String> customResponse = new Response<>(false, userMessage, null);
-
-        // Convertir el objeto a JSON (usando una librería como Jackson)
-        String jsonResponse = new ObjectMapper().writeValueAsString(customResponse);
-
-        // Escribir la respuesta JSON en el cuerpo de la respuesta HTTP
-        response.getWriter().write(jsonResponse);
     }
 
 
@@ -218,10 +235,19 @@ public class JwtTokenValidator extends OncePerRequestFilter {
         return  path.equals("/api/auth/login") ||
                 path.equals("/api/auth/register") ||
                 path.equals("/api/auth/token/refresh") ||
+                path.equals("/actuator/health") ||
+                (path.equals("/actuator/prometheus") && isLoopback(request)) ||
                 path.startsWith("/v3/api-docs") ||
                 path.startsWith("/swagger-ui") ||
                 path.equals("/swagger-ui.html");
     }
+
+
+    //El scrape de Prometheus solo se acepta desde la propia máquina (el puerto de administración escucha en 127.0.0.1).
+    private static boolean isLoopback(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        return "127.0.0.1".equals(remoteAddr) || "0:0:0:0:0:0:0:1".equals(remoteAddr) || "::1".equals(remoteAddr);
+    }
 }
 
 
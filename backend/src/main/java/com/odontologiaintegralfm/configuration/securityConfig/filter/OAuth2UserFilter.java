@@ -22,7 +22,6 @@ package com.odontologiaintegralfm.configuration.securityConfig.filter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odontologiaintegralfm.dto.Response;
 import com.odontologiaintegralfm.exception.DataBaseException;
-import com.odontologiaintegralfm.model.RefreshToken;
 import com.odontologiaintegralfm.model.UserSec;
 import com.odontologiaintegralfm.repository.IUserRepository;
 import com.odontologiaintegralfm.service.interfaces.IMessageService;
@@ -112,16 +111,13 @@ public class OAuth2UserFilter extends OncePerRequestFilter {
                     }
 
                     // Si el usuario está registrado, se genera un JWT usando el método createToken.
-                    String jwt = jwtUtils.createToken(authentication);
+                    String jwt = jwtUtils.createToken(authentication, user.getId());
 
                     // Se incluye el token en el encabezado de la respuesta con el formato "Bearer [token]".
                      response.addHeader("Authorization", "Bearer " + jwt);
 
-                    // Elimina el RefreshToken anterior.
-                    refreshTokenService.deleteRefreshToken(user.getId());
-
-                    //Crea el RefreshToken
-                    RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getUsername());
+                    //Emite el RefreshToken (reemplaza en el lugar el anterior del usuario).
+                    refreshTokenService.createRefreshToken(user);
                 }
 
                 // Pasa la solicitud al siguiente filtro en la cadena de filtros.
@@ -56,11 +56,12 @@ public class AuthenticationController {
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Autenticado existosamente."),
             @ApiResponse(responseCode = "401", description = "No autenticado."),
-            @ApiResponse(responseCode = "403", description = "Cuenta bloqueada o sin permisos de acceso.")
+            @ApiResponse(responseCode = "403", description = "Cuenta bloqueada o sin permisos de acceso."),
+            @ApiResponse(responseCode = "429", description = "Demasiados intentos fallidos desde el mismo origen o servicio de login saturado.")
     })
     @PostMapping("/login")
-    public ResponseEntity<Response<AuthLoginResponseDTO>> login(@RequestBody @Valid AuthLoginRequestDTO userRequest) {
-        Response<AuthLoginResponseDTO> response = this.userDetailsService.loginUser(userRequest);
+    public ResponseEntity<Response<AuthLoginResponseDTO>> login(@RequestBody @Valid AuthLoginRequestDTO userRequest, HttpServletRequest request) {
+        Response<AuthLoginResponseDTO> response = this.userDetailsService.loginUser(userRequest, request.getRemoteAddr());
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -3,6 +3,7 @@ package com.odontologiaintegralfm.controller;
 import com.odontologiaintegralfm.configuration.securityConfig.annotations.OnlyAccessSystemRead;
 import com.odontologiaintegralfm.configuration.securityConfig.annotations.OnlyAccessSystemUpdate;
 import com.odontologiaintegralfm.dto.*;
+import com.odontologiaintegralfm.enums.LogExportFormat;
 import com.odontologiaintegralfm.model.MessageConfig;
 import com.odontologiaintegralfm.service.interfaces.IConfigService;
 import com.odontologiaintegralfm.service.interfaces.ISystemLogService;
@@ -13,9 +14,13 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -48,6 +53,9 @@ import java.util.List;
  *   <li><b>PATCH /api/config/token</b>: Actualiza la expiración del token.</li>
  *   <li><b>GET /api/config/token/refresh</b>: Obtiene la expiración del refresh token.</li>
  *   <li><b>PATCH /api/config/token/refresh</b>: Actualiza la expiración del refresh token.</li>
+ *   <li><b>GET /api/config/logs/search</b>: Búsqueda filtrada de logs con paginación por cursor.</li>
+ *   <li><b>GET /api/config/logs/export</b>: Exporta los logs filtrados en NDJSON o CSV.</li>
+ *   <li><b>POST /api/config/logs/partition</b>: Convierte la tabla de logs en particionada por mes (mantenimiento).</li>
  * </ul>
  * </p>
  * <p>
@@ -323,5 +331,120 @@ public class ConfigController {
     }
 
 
+    /**
+     * Búsqueda filtrada de logs del sistema, del más reciente al más antiguo.
+     * <p>
+     * Requiere PERMISO_SYSTEM_READ
+     * </p>
+     * <p>
+     * Filtros opcionales: nivel, tipo, usuario, rango de fechas ({@code from} inclusive, {@code to} exclusive, ISO-8601)
+     * y texto en los mensajes. La página siguiente se obtiene enviando el {@code nextCursor} de la respuesta.
+     * </p>
+     *
+     * @param filter Filtros de la búsqueda.
+     * @param cursor Cursor de la página anterior (opcional).
+     * @param size Cantidad de logs por página (opcional).
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>:logs recuperados  exitosamente.</li>
+     *         <li><b>400 Bad Request</b>: Cursor inválido.</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Buscar logs", description = "Búsqueda filtrada de logs del sistema con paginación por cursor.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Logs recuperados exitosamente."),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @GetMapping("/logs/search")
+    @OnlyAccessSystemRead
+    public ResponseEntity<Response<CursorPageDTO<SystemLogSearchResponseDTO>>> searchLogs(SystemLogFilterDTO filter,
+                                                                                        @RequestParam (required = false) String cursor,
+                                                                                        @RequestParam (required = false) Integer size
+                                                                                        ){
+        int sizeValue = (size != null) ? size : defaultSize;
+
+        Response<CursorPageDTO<SystemLogSearchResponseDTO>> response = configService.searchLogs(filter, cursor, sizeValue);
+        return new ResponseEntity<>(response,HttpStatus.OK);
+    }
+
+
+    /**
+     * Exporta los logs del sistema que cumplen los filtros.
+     * <p>
+     * Requiere PERMISO_SYSTEM_READ
+     * </p>
+     * <p>
+     * Los logs se escriben en la respuesta a medida que se leen, por bloques, sin armar la lista completa en memoria.
+     * </p>
+     *
+     * @param filter Filtros de la búsqueda (los mismos de {@code /logs/search}).
+     * @param format Formato: {@code ndjson} (por defecto) o {@code csv}.
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>:logs exportados.</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Exportar logs", description = "Exporta los logs del sistema filtrados en NDJSON o CSV.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Logs exportados."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @GetMapping("/logs/export")
+    @OnlyAccessSystemRead
+    public ResponseEntity<StreamingResponseBody> exportLogs(SystemLogFilterDTO filter,
+                                                            @RequestParam (required = false, defaultValue = "NDJSON") LogExportFormat format
+                                                            ){
+        MediaType mediaType = (format == LogExportFormat.CSV) ?
+                new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        String fileName = "system-logs." + format.name().toLowerCase();
+
+        StreamingResponseBody body = outputStream -> systemLogService.export(filter, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+
+    /**
+     * Convierte la tabla de logs en una tabla particionada por mes.
+     * <p>
+     * Requiere PERMISO_SYSTEM_UPDATE
+     * </p>
+     * <p>
+     * Paso de mantenimiento: reconstruye {@code system_logs} bloqueándola, por lo que debe ejecutarse en una ventana de
+     * mantenimiento. Luego se habilita {@code system-log.partitioning.enabled} para que la retención elimine particiones.
+     * Si la tabla ya está particionada no hace cambios.
+     * </p>
+     *
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>: Tabla particionada (nombres de las particiones).</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Particionar logs", description = "Convierte la tabla de logs en una tabla particionada por mes (mantenimiento).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tabla particionada."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @PostMapping("/logs/partition")
+    @OnlyAccessSystemUpdate
+    public ResponseEntity<Response<List<String>>> partitionLogs() {
+        Response<List<String>> response = configService.partitionLogs();
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+
 
 }
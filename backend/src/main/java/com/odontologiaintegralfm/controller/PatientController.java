@@ -1,10 +1,14 @@
 package com.odontologiaintegralfm.controller;
 
 import com.odontologiaintegralfm.configuration.securityConfig.annotations.*;
+import com.odontologiaintegralfm.dto.CursorPageDTO;
 import com.odontologiaintegralfm.dto.PatientCreateRequestDTO;
 import com.odontologiaintegralfm.dto.PatientUpdateRequestDTO;
 import com.odontologiaintegralfm.dto.PatientResponseDTO;
+import com.odontologiaintegralfm.dto.PatientSearchResponseDTO;
 import com.odontologiaintegralfm.dto.Response;
+import com.odontologiaintegralfm.enums.PatientExportFormat;
+import com.odontologiaintegralfm.service.interfaces.IPatientImportService;
 import com.odontologiaintegralfm.service.interfaces.IPatientService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,9 +17,17 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 
 @RestController
@@ -25,6 +37,9 @@ public class PatientController {
     @Autowired
     private IPatientService patientService;
 
+    @Autowired
+    private IPatientImportService patientImportService;
+
     @Value("${pagination.default-page}")
     private int defaultPage;
 
@@ -37,6 +52,9 @@ public class PatientController {
     @Value("${pagination.default-direction}")
     private String defaultDirection;
 
+    @Value("${patient-search.max-results:20}")
+    private int searchMaxResults;
+
     /**
      * Crea un nuevo paciente en el sistema.
      * <p>
@@ -68,6 +86,45 @@ public class PatientController {
     }
 
 
+    /**
+     * Importa pacientes desde un archivo CSV.
+     * <p>
+     * Requiere el rol <b>AdmistratorAndSecretary</b> para acceder.
+     * </p>
+     * <p>
+     * El archivo se procesa por filas y se persiste por bloques; las filas con errores no detienen la importación.
+     * La respuesta es NDJSON y se escribe a medida que avanza: un evento por fila rechazada, el avance después
+     * de cada bloque y un resumen final.
+     * </p>
+     *
+     * @param file Archivo CSV (UTF-8, separado por comas, con encabezado).
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>:Importación procesada (el detalle figura en los eventos).</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Importar Pacientes", description = "Importa pacientes desde un archivo CSV e informa el avance en NDJSON.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Importación procesada."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso.")
+    })
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @OnlyAccessPatientsCreate
+    public ResponseEntity<StreamingResponseBody> importCsv(@RequestParam("file") MultipartFile file) {
+        StreamingResponseBody body = outputStream -> {
+            try (InputStream inputStream = file.getInputStream()) {
+                patientImportService.importCsv(inputStream, outputStream);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+
 
     /**
      * Actualiza un paciente en el sistema.
@@ -136,6 +193,114 @@ public class PatientController {
     }
 
 
+    /**
+     * Exporta los pacientes habilitados, ordenados por apellido e ID.
+     * <p>
+     * Requiere estár autenticado para acceder.
+     * </p>
+     * <p>
+     * Los pacientes se escriben en la respuesta a medida que se leen, por bloques, sin armar la lista completa en memoria.
+     * </p>
+     *
+     * @param format Formato: {@code ndjson} (por defecto) o {@code csv}.
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>:Pacientes exportados.</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Exportar Pacientes", description = "Exporta los Pacientes habilitados en NDJSON o CSV.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Pacientes exportados."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @GetMapping("/export")
+    @OnlyAccessPatientsRead
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam (required = false, defaultValue = "NDJSON") PatientExportFormat format) {
+        MediaType mediaType = (format == PatientExportFormat.CSV) ?
+                new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        String fileName = "patients." + format.name().toLowerCase();
+
+        StreamingResponseBody body = outputStream -> patientService.export(format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+
+    /**
+     * Obtiene la lista de pacientes habilitados paginada por cursor, ordenada por apellido e ID.
+     * <p>
+     * A diferencia de {@code /all}, no calcula el total de pacientes ni recorre las páginas anteriores:
+     * cada respuesta incluye un cursor opaco para pedir la página siguiente ({@code null} en la última página).
+     * Requiere estár autenticado para acceder.
+     * </p>
+     *
+     * @param cursor Cursor de la página anterior (se omite para la primera página).
+     * @param size Cantidad de pacientes por página.
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>:Lista recuperada  exitosamente.</li>
+     *         <li><b>400 Bad Request</b>: Cursor inválido.</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Listar Pacientes por cursor", description = "Listar los Paciente habilitados paginados por cursor (sin total).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lista recuperada exitosamente."),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @GetMapping("/all/cursor")
+    @OnlyAccessPatientsRead
+    public ResponseEntity<Response<CursorPageDTO<PatientResponseDTO>>> getAllByCursor(@RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(required = false) Integer size) {
+        int sizeValue = (size != null) ? size : defaultSize;
+
+        Response<CursorPageDTO<PatientResponseDTO>> response = patientService.getAllByCursor(cursor, sizeValue);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+
+    /**
+     * Busca pacientes habilitados por apellido, nombre, DNI o n.° de afiliado, completos o parciales (typeahead).
+     * <p>
+     * No distingue mayúsculas ni acentos; con varias palabras deben coincidir todas (Ej: "gonz mar").
+     * Requiere estár autenticado para acceder.
+     * </p>
+     *
+     * @param q Texto a buscar.
+     * @param limit Máximo de resultados.
+     * @return ResponseEntity con:
+     *         <ul>
+     *         <li><b>200 Ok</b>:Pacientes encontrados (lista vacía si no hay coincidencias).</li>
+     *         <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *         <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     *         </ul>
+     */
+    @Operation(summary = "Buscar Pacientes", description = "Busca Pacientes habilitados por apellido, nombre, DNI o n.° de afiliado.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Búsqueda realizada exitosamente."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @GetMapping("/search")
+    @OnlyAccessPatientsRead
+    public ResponseEntity<Response<List<PatientSearchResponseDTO>>> search(@RequestParam String q,
+                                                                          @RequestParam(required = false) Integer limit) {
+        int limitValue = (limit != null) ? limit : searchMaxResults;
+
+        Response<List<PatientSearchResponseDTO>> response = patientService.search(q, limitValue);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+
     /**
      /**
      * Obtiene paciente con estado habilitado por su ID.
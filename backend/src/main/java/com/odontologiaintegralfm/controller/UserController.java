@@ -27,6 +27,7 @@ import org.springframework.web.bind.annotation.*;
  * Los métodos disponibles son:
  * <ul>
  *   <li><b>GET /api/user/all</b>: Obtiene el listado completo de usuarios.</li>
+ *   <li><b>GET /api/user/all/cursor</b>: Obtiene el listado de usuarios paginado por cursor.</li>
  *   <li><b>GET /api/user/{id}</b>: Obtiene un usuario específico por su ID.</li>
  *   <li><b>POST /api/user/</b>: Crea un nuevo usuario en el sistema.</li>
  *   <li><b>PATCH /api/user/</b>: Actualiza un usuario en el sistema.</li>
@@ -87,6 +88,40 @@ public class UserController {
     }
 
 
+    /**
+     * Lista los usuarios Excluyendo a los Desarrolladores, paginados por cursor y ordenados por username e ID.
+     * <p>
+     * A diferencia de {@code /all}, no calcula el total de usuarios ni recorre las páginas anteriores:
+     * cada respuesta incluye un cursor opaco para pedir la página siguiente ({@code null} en la última página).
+     * </p>
+     * @param cursor Cursor de la página anterior (se omite para la primera página).
+     * @param size Cantidad de usuarios por página.
+     * @return ResponseEntity con:
+     * <ul>
+     *     <li><b>200 OK</b> Lista de usuarios recuperada exitosamente.</li>
+     *     <li><b>400 Bad Request</b>: Cursor inválido.</li>
+     *     <li><b>401 Unauthorized</b>: No autenticado.</li>
+     *     <li><b>403 Forbidden</b>: No autorizado para acceder a este recurso.</li>
+     * </ul>
+     */
+    @Operation(summary = "Obtener listado de usuarios por cursor", description = "Lista los usuarios paginados por cursor (sin total).")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Usuarios Encontrados."),
+            @ApiResponse(responseCode = "400", description = "Cursor inválido."),
+            @ApiResponse(responseCode = "401", description = "No autenticado."),
+            @ApiResponse(responseCode = "403", description = "No autorizado para acceder a este recurso."),
+    })
+    @GetMapping("/all/cursor")
+    @OnlyAccessConfigurationRead
+    public ResponseEntity<Response<CursorPageDTO<UserSecResponseDTO>>> getAllByCursor(@RequestParam(required = false) String cursor,
+                                                                                     @RequestParam(required = false) Integer size){
+        int sizeValue = (size != null) ? size : defaultSize;
+
+        Response<CursorPageDTO<UserSecResponseDTO>> response = userService.getAllByCursor(cursor, sizeValue);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+
 
     /**
      /**
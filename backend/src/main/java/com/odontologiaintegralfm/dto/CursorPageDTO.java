@@ -0,0 +1,15 @@
+package com.odontologiaintegralfm.dto;
+
+import java.util.List;
+
+/**
+ * Página de resultados con paginación por cursor (keyset).
+ *
+ * @param content    Elementos de la página.
+ * @param nextCursor Cursor para obtener la página siguiente, o {@code null} si no hay más resultados.
+ */
+public record CursorPageDTO<T>(
+        List<T> content,
+        String nextCursor
+) {
+}
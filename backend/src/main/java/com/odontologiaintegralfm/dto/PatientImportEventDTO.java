@@ -0,0 +1,40 @@
+package com.odontologiaintegralfm.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.odontologiaintegralfm.enums.PatientImportEventType;
+
+/**
+ * Evento de la importación de pacientes, escrito como una línea NDJSON a medida que avanza la importación.
+ * Cada tipo informa solo sus campos (los demás se omiten).
+ *
+ * @param type Tipo de evento.
+ * @param line Línea del archivo (solo {@code ERROR}).
+ * @param message Motivo del rechazo (solo {@code ERROR}).
+ * @param processed Filas procesadas hasta el momento.
+ * @param imported Pacientes creados hasta el momento.
+ * @param failed Filas rechazadas hasta el momento.
+ * @param durationSeconds Duración total (solo {@code SUMMARY}).
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientImportEventDTO(
+        PatientImportEventType type,
+        Integer line,
+        String message,
+        Integer processed,
+        Integer imported,
+        Integer failed,
+        Double durationSeconds
+) {
+
+    public static PatientImportEventDTO error(int line, String message) {
+        return new PatientImportEventDTO(PatientImportEventType.ERROR, line, message, null, null, null, null);
+    }
+
+    public static PatientImportEventDTO progress(int processed, int imported, int failed) {
+        return new PatientImportEventDTO(PatientImportEventType.PROGRESS, null, null, processed, imported, failed, null);
+    }
+
+    public static PatientImportEventDTO summary(int processed, int imported, int failed, double durationSeconds) {
+        return new PatientImportEventDTO(PatientImportEventType.SUMMARY, null, null, processed, imported, failed, durationSeconds);
+    }
+}
@@ -0,0 +1,19 @@
+package com.odontologiaintegralfm.dto;
+
+/**
+ * Resultado de la búsqueda de pacientes (typeahead): datos mínimos para identificar al paciente.
+ *
+ * @param id ID del paciente.
+ * @param firstName Nombre.
+ * @param lastName Apellido.
+ * @param dni Número de documento.
+ * @param affiliateNumber N.° de afiliado al plan de salud.
+ */
+public record PatientSearchResponseDTO(
+        Long id,
+        String firstName,
+        String lastName,
+        String dni,
+        String affiliateNumber
+) {
+}
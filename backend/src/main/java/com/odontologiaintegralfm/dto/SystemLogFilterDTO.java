@@ -0,0 +1,27 @@
+package com.odontologiaintegralfm.dto;
+
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.enums.LogType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros de la búsqueda de logs del sistema. Todos son opcionales.
+ *
+ * @param level    Nivel del log.
+ * @param type     Tipo del log.
+ * @param username Usuario (coincidencia exacta).
+ * @param from     Fecha desde (inclusive).
+ * @param to       Fecha hasta (exclusive).
+ * @param text     Texto contenido en el mensaje para el usuario o en el mensaje técnico.
+ */
+public record SystemLogFilterDTO(
+        LogLevel level,
+        LogType type,
+        String username,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+        String text
+) {
+}
@@ -0,0 +1,28 @@
+package com.odontologiaintegralfm.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.enums.LogType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Log del sistema en la búsqueda y la exportación.
+ * <p>
+ * La metadata se devuelve tal como está guardada (JSON) sin convertirla a un mapa, y el stack trace solo por su
+ * fingerprint: el detalle se consulta en el listado de logs.
+ * </p>
+ */
+public record SystemLogSearchResponseDTO(
+        Long id,
+        LocalDateTime timestamp,
+        LogLevel level,
+        LogType type,
+        String userMessage,
+        String technicalMessage,
+        String name,
+        String username,
+        @JsonRawValue String metadata,
+        String stackTraceFingerprint
+) {
+}
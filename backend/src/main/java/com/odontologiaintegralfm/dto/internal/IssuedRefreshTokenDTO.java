@@ -0,0 +1,15 @@
+package com.odontologiaintegralfm.dto.internal;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh token recién emitido.
+ * <p>
+ * {@code token} es el valor en claro que se entrega al cliente; en la base solo se guarda su hash.
+ * </p>
+ */
+public record IssuedRefreshTokenDTO(
+        String token,
+        LocalDateTime expirationDate
+) {
+}
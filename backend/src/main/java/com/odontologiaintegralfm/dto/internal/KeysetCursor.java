@@ -0,0 +1,50 @@
+package com.odontologiaintegralfm.dto.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posición de un listado paginado por cursor (keyset): valor de la clave de orden e ID del último elemento devuelto.
+ * <p>
+ * Para el cliente el cursor es opaco: Base64 (URL) de {@code clave|id}. La clave puede contener {@code |},
+ * por eso el ID se separa por la última ocurrencia. Una clave nula se codifica solo con el ID (sin separador), para
+ * distinguirla de la clave vacía.
+ * </p>
+ *
+ * @param key Valor de la clave de orden del último elemento (Ej: apellido), puede ser null.
+ * @param id ID del último elemento, desempata elementos con la misma clave.
+ */
+public record KeysetCursor(
+        String key,
+        Long id
+) {
+
+    /**
+     * Codifica el cursor para devolverlo al cliente.
+     */
+    public String encode() {
+        String value = key != null ? key + "|" + id : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Decodifica el cursor recibido del cliente.
+     *
+     * @param cursor Cursor opaco, o {@code null}/vacío para la primera página.
+     * @return Posición decodificada, o {@code null} para la primera página.
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = value.lastIndexOf('|');
+        if (separator < 0) {
+            return new KeysetCursor(null, Long.valueOf(value));
+        }
+        return new KeysetCursor(value.substring(0, separator), Long.valueOf(value.substring(separator + 1)));
+    }
+}
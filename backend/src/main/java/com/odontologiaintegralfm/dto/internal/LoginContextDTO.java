@@ -0,0 +1,23 @@
+package com.odontologiaintegralfm.dto.internal;
+
+import com.odontologiaintegralfm.model.UserSec;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Contexto de un inicio de sesión.
+ * <p>
+ * Se carga una única vez por login (usuario con roles y persona en una sola consulta, autoridades desde
+ * la instantánea de roles en memoria) y se pasa a cada paso del flujo: autenticación, control de intentos,
+ * generación de tokens y auditoría, evitando volver a consultar al usuario.
+ * </p>
+ *
+ * @param user Usuario cargado con sus roles y datos personales.
+ * @param authorities Autoridades (ROLE_x y PERMISO_x_y) del usuario.
+ */
+public record LoginContextDTO(
+        UserSec user,
+        List<GrantedAuthority> authorities
+) {
+}
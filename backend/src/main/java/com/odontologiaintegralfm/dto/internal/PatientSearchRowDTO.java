@@ -0,0 +1,19 @@
+package com.odontologiaintegralfm.dto.internal;
+
+/**
+ * Datos de un paciente habilitado indexados para la búsqueda (proyección de una sola consulta).
+ *
+ * @param id ID del paciente (el mismo que el de la persona).
+ * @param firstName Nombre.
+ * @param lastName Apellido.
+ * @param dni Número de documento.
+ * @param affiliateNumber N.° de afiliado al plan de salud (puede ser null).
+ */
+public record PatientSearchRowDTO(
+        Long id,
+        String firstName,
+        String lastName,
+        String dni,
+        String affiliateNumber
+) {
+}
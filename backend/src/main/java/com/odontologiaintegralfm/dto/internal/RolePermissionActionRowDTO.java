@@ -0,0 +1,21 @@
+package com.odontologiaintegralfm.dto.internal;
+
+/**
+ * Fila plana del grafo Rol → Permiso → Acción.
+ * <p>
+ * Se utiliza para construir la instantánea en memoria de roles y permisos con una única consulta.
+ * Los datos de permiso y acción son nulos cuando el rol no tiene relaciones asignadas.
+ * </p>
+ */
+public record RolePermissionActionRowDTO(
+        Long roleId,
+        String roleName,
+        String roleLabel,
+        Long permissionId,
+        String permissionName,
+        String permissionLabel,
+        Long actionId,
+        String actionName,
+        String actionLabel
+) {
+}
@@ -0,0 +1,33 @@
+package com.odontologiaintegralfm.dto.internal;
+
+import com.odontologiaintegralfm.enums.SystemParameterKey;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Instantánea inmutable de los parámetros del sistema, con los valores ya convertidos a su tipo.
+ *
+ * @param values Valores originales por clave.
+ * @param failedLoginAttempts Intentos de login fallidos permitidos antes de bloquear la cuenta.
+ * @param jwtExpiration Vigencia del JWT (parámetro en minutos).
+ * @param refreshTokenExpiration Vigencia del refresh token (parámetro en días).
+ * @param attachmentMinDays Días de retención de los archivos adjuntos deshabilitados.
+ * @param logsMinDays Días de retención de los logs del sistema.
+ * @param imageExtensions Extensiones de imagen permitidas (minúsculas, sin punto).
+ * @param documentExtensions Extensiones de documento permitidas (minúsculas, sin punto).
+ * @param maxFileSizeBytes Tamaño máximo de archivo (parámetro en MB).
+ */
+public record SystemParameterSnapshot(
+        Map<SystemParameterKey, String> values,
+        int failedLoginAttempts,
+        Duration jwtExpiration,
+        Duration refreshTokenExpiration,
+        int attachmentMinDays,
+        int logsMinDays,
+        Set<String> imageExtensions,
+        Set<String> documentExtensions,
+        long maxFileSizeBytes
+) {
+}
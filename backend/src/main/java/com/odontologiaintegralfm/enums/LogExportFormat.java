@@ -0,0 +1,12 @@
+package com.odontologiaintegralfm.enums;
+
+/**
+ * Formatos de exportación de los logs del sistema.
+ * <ul>
+ *   <li>{@code NDJSON}: un objeto JSON por línea.</li>
+ *   <li>{@code CSV}: valores separados por coma con encabezado.</li>
+ * </ul>
+ */
+public enum LogExportFormat {
+    NDJSON, CSV
+}
@@ -0,0 +1,13 @@
+package com.odontologiaintegralfm.enums;
+
+/**
+ * Comportamiento del escritor de logs del sistema cuando su buffer está lleno.
+ * <ul>
+ *   <li>{@code DROP_OLDEST}: descarta el log más antiguo pendiente para aceptar el nuevo.</li>
+ *   <li>{@code BLOCK}: espera hasta un tiempo máximo a que haya lugar; si no lo hay, descarta el nuevo.</li>
+ *   <li>{@code SAMPLE}: con el buffer casi lleno acepta solo uno de cada N logs; lleno, descarta el nuevo.</li>
+ * </ul>
+ */
+public enum LogOverflowPolicy {
+    DROP_OLDEST, BLOCK, SAMPLE
+}
@@ -0,0 +1,12 @@
+package com.odontologiaintegralfm.enums;
+
+/**
+ * Formatos de exportación de pacientes.
+ * <ul>
+ *   <li>{@code NDJSON}: un paciente (JSON) por línea, con la misma estructura del listado.</li>
+ *   <li>{@code CSV}: una fila por paciente con encabezado; emails, teléfonos y riesgos médicos separados por {@code ;}.</li>
+ * </ul>
+ */
+public enum PatientExportFormat {
+    NDJSON, CSV
+}
@@ -0,0 +1,13 @@
+package com.odontologiaintegralfm.enums;
+
+/**
+ * Tipos de evento que informa la importación de pacientes.
+ */
+public enum PatientImportEventType {
+    /** Fila rechazada (el resto del archivo se sigue procesando). */
+    ERROR,
+    /** Avance después de cada bloque confirmado. */
+    PROGRESS,
+    /** Resultado final de la importación. */
+    SUMMARY
+}
@@ -8,5 +8,7 @@ public enum ScheduledTaskKey {
     CLEAN_ORPHAN_EMAIL,
     CLEAN_ORPHAN_PHONE,
     CLEAN_ATTACHED_FILE_DISABLED,
-    CLEAN_LOGS
+    CLEAN_LOGS,
+    CLEAN_EXPIRED_REFRESH_TOKENS,
+    CLEAN_REVOKED_TOKENS
 }
@@ -24,5 +24,18 @@ public abstract class AppException extends RuntimeException {
     this.logLevel = logLevel;
   }
 
+  /**
+   * Permite omitir la captura del stack trace en rechazos esperados y frecuentes (Ej: JWT inválido),
+   * donde la pila no aporta información y su costo se multiplica ante una ráfaga de solicitudes.
+   */
+  protected AppException(String userMessageKey, Object[] userArgs, String logMessageKey, Object[] logArgs, LogLevel logLevel, boolean writableStackTrace) {
+    super(null, null, false, writableStackTrace);
+    this.userMessageKey = userMessageKey;
+    this.userArgs = userArgs;
+    this.logMessageKey = logMessageKey;
+    this.logArgs = logArgs;
+    this.logLevel = logLevel;
+  }
+
   public abstract HttpStatus getStatus();
 }
\ No newline at end of file
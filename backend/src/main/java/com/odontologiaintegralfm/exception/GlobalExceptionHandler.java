@@ -31,6 +31,11 @@ import java.util.Map;
  * para el usuario con códigos de estado HTTP apropiados. Se utiliza la anotación {@link ControllerAdvice} para manejar
  * las excepciones globalmente en toda la aplicación.
  * </p>
+ * <p>
+ * Los logs en base de datos se registran con límite de frecuencia por clave de mensaje, nivel y usuario o IP
+ * ({@link com.odontologiaintegralfm.service.LogRateLimiter}): ante una caída de la base o un cliente que repite
+ * el mismo error, se persiste una cantidad acotada de registros y un resumen periódico de los omitidos.
+ * </p>
  *
  * Las excepciones manejadas incluyen:
  * - {@link AppException}: Maneja excepciones personalizadas.
@@ -96,10 +101,10 @@ public class GlobalExceptionHandler {
                     userMessage,                         // userMessage
                     logMessage,                          // technicalMessage
                     e.getClass().getSimpleName(),        // name
-                    authenticatedUserService.getAuthenticatedUser().getUsername(),// username
+                    authenticatedUserService.getAuthenticatedUsername(),// username
                     null,                                //Argumentos están dentro del mensaje técnico.
                     systemLogService.getStackTraceAsString(e)           // stacktrace como texto
-            ));
+            ), e.getLogMessageKey());
 
         }
         //Construir respuesta y enviar.
@@ -156,7 +161,7 @@ public class GlobalExceptionHandler {
                     username,
                     null,
                     null
-            ));
+            ), "exception.validation.log");
         });
 
         //Genera el objeto response.
@@ -207,8 +212,8 @@ public class GlobalExceptionHandler {
                 LogType.EXCEPTION,
                 userMessage,
                 logMessage,
-                authenticatedUserService.getAuthenticatedUser().getUsername(),
                 this.getClass().getSimpleName(),
+                authenticatedUserService.getAuthenticatedUsername(),
                 Map.of(
                         "clase", ex.getClase(),
                         "entityId", ex.getEntityId(),
@@ -216,7 +221,7 @@ public class GlobalExceptionHandler {
                         "method", ex.getMethod(),
                         "rootCause", ex.getRootCause()
                 ), systemLogService.getStackTraceAsString(ex)           // stacktrace como texto
-        ));
+        ), "exception.database.log");
 
         // Respuesta a usuario.
         Response<Void> response = new Response<>(false, userMessage, null);
@@ -250,10 +255,10 @@ public class GlobalExceptionHandler {
                 null,
                 ex.getMessage(),
                 ex.getClass().getSimpleName(),
-                authenticatedUserService.getAuthenticatedUser().getUsername(),
+                authenticatedUserService.getAuthenticatedUsername(),
                 null,
                 systemLogService.getStackTraceAsString(ex)           // stacktrace como texto
-        ));
+        ), ex.getClass().getSimpleName());
 
         Response<Void> response = new Response<>(false, messageUser, null);
         return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
@@ -298,11 +303,11 @@ public class GlobalExceptionHandler {
                 LogType.EXCEPTION,
                 messageService.getMessage("exception.accessDenied.user", null, LocaleContextHolder.getLocale()),
                 logMessage,
-                username,
                 this.getClass().getSimpleName(),
+                username,
                 Map.of("requestedUrl", requestedUrl),
                 systemLogService.getStackTraceAsString(ex)           // stacktrace como texto
-        ));
+        ), "exception.accessDenied.log");
 
 
         // Mensaje para el usuario final
@@ -344,10 +349,10 @@ public class GlobalExceptionHandler {
                 messageUser,
                 e.getMessage(),
                 e.getClass().getSimpleName(),
-                authenticatedUserService.getAuthenticatedUser().getUsername(),
+                authenticatedUserService.getAuthenticatedUsername(),
                 null,
                 systemLogService.getStackTraceAsString(e)           // stacktrace como texto
-        ));
+        ), e.getClass().getName());
 
         Response<Void> response = new Response<>(false, messageUser, null);
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,167 @@
+package com.odontologiaintegralfm.exception;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Formato compacto de stack traces para persistir en los logs del sistema.
+ * <p>
+ * A diferencia de {@code printStackTrace}, limita la cantidad de frames y de causas, y resume los frames de
+ * frameworks (Spring, Tomcat, Hibernate, proxies y reflexión) consecutivos en una sola línea. El primer frame
+ * de cada excepción se conserva siempre, porque indica dónde se originó.
+ * </p>
+ * <p>
+ * El fingerprint es el hash SHA-256 del texto formateado sin los mensajes de las excepciones, de modo que
+ * la misma falla con distintos datos (Ej: otro ID en el mensaje) comparte el fingerprint.
+ * </p>
+ */
+public final class StackTraceFormatter {
+
+    private static final String FRAME_PREFIX = "  at ";
+
+    private static final String OMITTED_PREFIX = "  ... ";
+
+    private static final String CAUSE_PREFIX = "Caused by: ";
+
+    private static final String[] FRAMEWORK_PACKAGES = {
+            "org.springframework.",
+            "org.apache.catalina.",
+            "org.apache.coyote.",
+            "org.apache.tomcat.",
+            "jakarta.servlet.",
+            "org.hibernate.",
+            "org.aspectj.",
+            "java.lang.reflect.",
+            "java.lang.Thread",
+            "java.util.concurrent.",
+            "jdk.internal.",
+            "jdk.proxy",
+            "sun.reflect.",
+            "com.sun.proxy.",
+            "net.bytebuddy."
+    };
+
+    private StackTraceFormatter() {
+    }
+
+
+    /**
+     * Formatea la excepción y sus causas.
+     *
+     * @param throwable Excepción a formatear.
+     * @param maxFrames Máximo de frames conservados por excepción.
+     * @param maxCauses Máximo de causas encadenadas.
+     * @return Stack trace compacto.
+     */
+    public static String format(Throwable throwable, int maxFrames, int maxCauses) {
+        StringBuilder builder = new StringBuilder(1024);
+        Set<Throwable> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        Throwable current = throwable;
+        int causes = 0;
+        while (current != null && visited.add(current)) {
+            if (causes > 0) {
+                builder.append(CAUSE_PREFIX);
+            }
+            builder.append(current.getClass().getName());
+            if (current.getMessage() != null) {
+                builder.append(": ").append(current.getMessage().replace('\n', ' '));
+            }
+            builder.append('\n');
+            appendFrames(builder, current.getStackTrace(), maxFrames);
+
+            if (++causes > maxCauses) {
+                break;
+            }
+            current = current.getCause();
+        }
+        return builder.toString();
+    }
+
+
+    /**
+     * Calcula el fingerprint de un stack trace formateado con {@link #format}.
+     *
+     * @param formatted Stack trace compacto.
+     * @return Hash SHA-256 en hexadecimal (64 caracteres) de los frames y las clases de excepción.
+     */
+    public static String fingerprint(String formatted) {
+        StringBuilder normalized = new StringBuilder(formatted.length());
+        for (String line : formatted.split("\n")) {
+            if (line.startsWith(FRAME_PREFIX) || line.startsWith(OMITTED_PREFIX)) {
+                normalized.append(line);
+            } else {
+                //Encabezado de excepción: se descarta el mensaje.
+                int start = line.startsWith(CAUSE_PREFIX) ? CAUSE_PREFIX.length() : 0;
+                int separator = line.indexOf(": ", start);
+                normalized.append(separator >= 0 ? line.substring(0, separator) : line);
+            }
+            normalized.append('\n');
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+
+    /**
+     * Obtiene la clase de la excepción principal (primera línea del stack trace formateado).
+     *
+     * @param formatted Stack trace compacto.
+     * @return Nombre completo de la clase.
+     */
+    public static String exceptionClass(String formatted) {
+        int end = formatted.indexOf('\n');
+        String header = end >= 0 ? formatted.substring(0, end) : formatted;
+        int separator = header.indexOf(": ");
+        return separator >= 0 ? header.substring(0, separator) : header;
+    }
+
+
+    private static void appendFrames(StringBuilder builder, StackTraceElement[] frames, int maxFrames) {
+        int kept = 0;
+        int omitted = 0;
+
+        for (int i = 0; i < frames.length; i++) {
+            if (kept >= maxFrames) {
+                omitted += frames.length - i;
+                break;
+            }
+            if (i > 0 && isFramework(frames[i].getClassName())) {
+                omitted++;
+                continue;
+            }
+            appendOmitted(builder, omitted);
+            omitted = 0;
+            builder.append(FRAME_PREFIX).append(frames[i]).append('\n');
+            kept++;
+        }
+        appendOmitted(builder, omitted);
+    }
+
+
+    private static void appendOmitted(StringBuilder builder, int omitted) {
+        if (omitted > 0) {
+            builder.append(OMITTED_PREFIX).append(omitted).append(" omitidos\n");
+        }
+    }
+
+
+    private static boolean isFramework(String className) {
+        for (String frameworkPackage : FRAMEWORK_PACKAGES) {
+            if (className.startsWith(frameworkPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+package com.odontologiaintegralfm.exception;
+
+import com.odontologiaintegralfm.enums.LogLevel;
+import org.springframework.http.HttpStatus;
+
+
+public class TooManyRequestsException extends AppException {
+    public TooManyRequestsException(String userMessageKey, Object[] userArgs, String logMessageKey,Object[] logArgs, LogLevel logLevel) {
+        super(userMessageKey,userArgs,logMessageKey,logArgs, logLevel);
+    }
+
+
+    @Override
+    public HttpStatus getStatus() {
+        return HttpStatus.TOO_MANY_REQUESTS;
+    }
+}
@@ -10,6 +10,10 @@ public class UnauthorizedException extends AppException {
     super(userMessageKey,userArgs,logMessageKey,logArgs, logLevel);
   }
 
+  public UnauthorizedException(String userMessageKey, Object[] userArgs, String logMessageKey,Object[] logArgs, LogLevel logLevel, boolean writableStackTrace) {
+    super(userMessageKey,userArgs,logMessageKey,logArgs, logLevel, writableStackTrace);
+  }
+
   @Override
   public HttpStatus getStatus() {
     return HttpStatus.UNAUTHORIZED;
@@ -1,6 +1,7 @@
 package com.odontologiaintegralfm.model;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.MappedSuperclass;
@@ -16,13 +17,13 @@ public abstract class Auditable {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(nullable = false, name = "created_by_id")
     private UserSec createdBy;
 
     private LocalDateTime updatedAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updated_by_id")
     private UserSec updatedBy;
 
@@ -32,7 +33,7 @@ public abstract class Auditable {
     @Column(name = "disabled_at")
     private LocalDateTime disabledAt;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "disabled_by_id")
     private UserSec disabledBy;
 }
@@ -1,5 +1,6 @@
 package com.odontologiaintegralfm.model;
 
+import com.odontologiaintegralfm.service.PatientSearchIndexListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -16,6 +17,7 @@ import java.time.LocalDateTime;
  */
 @Audited
 @Entity
+@EntityListeners(PatientSearchIndexListener.class)
 @Getter
 @Setter
 @Table(name="patients", uniqueConstraints = {
@@ -23,6 +23,8 @@ import java.util.Set;
 @Audited
 @Table(name = "persons", uniqueConstraints = {
         @UniqueConstraint(columnNames = {"dni_type_id", "dni"})
+}, indexes = {
+        @Index(name = "idx_persons_last_name_id", columnList = "lastName, id")
 })
 public class Person extends Auditable {
 
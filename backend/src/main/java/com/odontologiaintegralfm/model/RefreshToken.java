@@ -1,7 +1,6 @@
 package com.odontologiaintegralfm.model;
 
 import jakarta.persistence.*;
-import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
@@ -10,12 +9,22 @@ import java.time.LocalDateTime;
 
 /**
  * Entidad que representa el Refresh token.
+ * <p>
+ * Se guarda un único registro por usuario que se rota en el lugar. El token en claro nunca se persiste:
+ * se almacena su hash SHA-256 en hexadecimal (64 caracteres) con índice único.
+ * </p>
+ * <p>
+ * Las bases existentes se migran con {@code db/maintenance/refresh_tokens_one_per_user.sql} antes del despliegue:
+ * {@code ddl-auto=update} no elimina los tokens duplicados por usuario y omite el índice único si los hay.
+ * </p>
  */
 @Entity
 @Getter
 @Setter
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_user", columnNames = "id_user"),
+        indexes = @Index(name = "idx_refresh_tokens_expiration", columnList = "expiration_date"))
 public class RefreshToken {
 
     @Id
@@ -23,14 +32,15 @@ public class RefreshToken {
     @EqualsAndHashCode.Include
     private Long id;
 
-    @Column(nullable = false, unique = true)
-    private String refreshToken;
+    @Column(name = "refresh_token", nullable = false, unique = true, length = 64)
+    private String tokenHash;
 
 
     @OneToOne(fetch = FetchType.LAZY, targetEntity = UserSec.class)
     @JoinColumn(name = "id_user", nullable = false)
     private UserSec user;
 
+    @Column(name = "expiration_date")
     private LocalDateTime expirationDate;
 
     private LocalDateTime createdDate;
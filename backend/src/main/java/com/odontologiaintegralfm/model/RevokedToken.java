@@ -0,0 +1,41 @@
+package com.odontologiaintegralfm.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un JWT revocado antes de su expiración (Ej: logout).
+ * <p>
+ * Se identifica por el claim {@code jti}. El registro solo es necesario hasta la expiración del token:
+ * luego lo elimina la tarea programada de limpieza.
+ * </p>
+ */
+@Entity
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_expiration", columnList = "expires_at"),
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+
+}
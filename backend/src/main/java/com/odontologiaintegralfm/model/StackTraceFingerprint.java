@@ -0,0 +1,48 @@
+package com.odontologiaintegralfm.model;
+
+import jakarta.persistence.*;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entidad que representa un stack trace distinto registrado en los logs del sistema.
+ * <p>
+ * Cada stack trace se guarda una sola vez, identificado por su fingerprint (hash de sus frames), con la cantidad
+ * de ocurrencias y las fechas de la primera y la última. Los logs lo referencian por el fingerprint, sin clave
+ * foránea ({@code system_logs} está particionada).
+ * </p>
+ */
+@Entity
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "stack_trace_fingerprints")
+public class StackTraceFingerprint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    /** Hash SHA-256 en hexadecimal del stack trace normalizado. */
+    @Column(nullable = false, unique = true, length = 64)
+    private String fingerprint;
+
+    /** Clase de la excepción principal. */
+    private String exceptionClass;
+
+    /** Stack trace compacto de la primera ocurrencia. */
+    @Column(columnDefinition = "TEXT")
+    private String stackTrace;
+
+    @Column(nullable = false)
+    private long occurrences;
+
+    private LocalDateTime firstSeen;
+
+    private LocalDateTime lastSeen;
+
+}
@@ -13,18 +13,28 @@ import java.time.LocalDateTime;
  * Entidad para representar en una vista:
  * - Logs
  * - Exceptions
+ * <p>
+ * Los índices terminan en {@code (timestamp, id)} para que la búsqueda filtrada con paginación por keyset
+ * recorra el índice en orden sin ordenar en memoria.
+ * </p>
  */
 @Getter
 @Setter
 @Entity
-@Table(name = "system_logs")
+@Table(name = "system_logs", indexes = {
+        @Index(name = "idx_system_logs_timestamp", columnList = "timestamp, id"),
+        @Index(name = "idx_system_logs_level_timestamp", columnList = "level, timestamp, id"),
+        @Index(name = "idx_system_logs_type_timestamp", columnList = "type, timestamp, id"),
+        @Index(name = "idx_system_logs_username_timestamp", columnList = "username, timestamp, id")
+})
 public class SystemLog {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    /** Fecha de log */
+    /** Fecha de log (columna de particionado de la tabla, forma parte de la clave primaria en la base) */
+    @Column(nullable = false)
     private LocalDateTime timestamp;
 
     /** Nivel de Log ( INFO, WARN, ERROR, etc.) */
@@ -52,8 +62,15 @@ public class SystemLog {
     @Column(columnDefinition = "TEXT")
     private String metadata;
 
-    /** Detalle del stackTrace (Opcional - Solo para exception */
+    /**
+     * Detalle del stackTrace (Opcional - Solo para exception).
+     * Los logs nuevos no lo persisten en esta columna: se guarda una sola vez en {@link StackTraceFingerprint}.
+     */
     @Column(columnDefinition = "TEXT")
     private String stackTrace;
 
+    /** Fingerprint del stack trace en {@code stack_trace_fingerprints} (sin clave foránea). */
+    @Column(name = "stack_trace_fingerprint", length = 64)
+    private String stackTraceFingerprint;
+
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,6 +44,13 @@ public interface IAddressRepository extends JpaRepository<Address, Long> {
     List<Long> findOrphan();
 
 
+    /**
+     * Obtiene en una única consulta los domicilios candidatos de un bloque de importación
+     * (la coincidencia exacta de número, piso y departamento se resuelve en memoria).
+     */
+    List<Address> findByLocalityIdInAndStreetIn(Collection<Long> localityIds, Collection<String> streets);
+
+
     @Modifying
     @Query("""
     DELETE FROM Address  a
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +15,8 @@ public interface IContactEmailRepository extends JpaRepository<ContactEmail, Lon
 
     Optional<ContactEmail> findByEmail(String email);
 
+    List<ContactEmail> findByEmailIn(Collection<String> emails);
+
 
     @Query("""
     SELECT ce
@@ -5,6 +5,7 @@ import com.odontologiaintegralfm.model.ContactPhone;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,8 @@ public interface IContactPhoneRepository extends JpaRepository<ContactPhone, Lon
 
     Optional<ContactPhone> findByNumber(String phone);
 
+    List<ContactPhone> findByNumberIn(Collection<String> phones);
+
     @Query("""
     SELECT cp 
     FROM ContactPhone cp
@@ -2,8 +2,11 @@ package com.odontologiaintegralfm.repository;
 
 import com.odontologiaintegralfm.model.Dentist;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -14,4 +17,14 @@ public interface IDentistRepository extends JpaRepository<Dentist, Long> {
     Optional<Dentist> findByLicenseNumberAndEnabledTrue(String licenseNumber);
 
     Set<Dentist> findAllByEnabledTrue();
+
+
+    /**
+     * Obtiene en una única consulta los odontólogos (con su especialidad) de las personas indicadas.
+     */
+    @Query("""
+           SELECT d FROM Dentist d
+           LEFT JOIN FETCH d.dentistSpecialty
+           WHERE d.id IN :ids""")
+    List<Dentist> findWithSpecialtyByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -7,5 +7,4 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface IMessageRepository extends JpaRepository<MessageConfig, Long> {
 
-    MessageConfig findByKeyAndLocale(String clave, String locale);
 }
@@ -1,9 +1,12 @@
 package com.odontologiaintegralfm.repository;
 
 import com.odontologiaintegralfm.model.PatientMedicalRisk;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -16,4 +19,10 @@ public interface IPatientMedicalRiskRepository extends JpaRepository<PatientMedi
 
     Set<PatientMedicalRisk> findByPatientId(Long idPatient);
 
+    /**
+     * Obtiene en una única consulta los riesgos médicos habilitados (con el riesgo médico) de varios pacientes.
+     */
+    @EntityGraph(attributePaths = "medicalRisk")
+    List<PatientMedicalRisk> findByPatientIdInAndEnabledTrue(Collection<Long> patientIds);
+
 }
@@ -1,10 +1,17 @@
 package com.odontologiaintegralfm.repository;
 
+import com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO;
 import com.odontologiaintegralfm.model.Patient;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,8 +22,134 @@ public interface IPatientRepository extends JpaRepository<Patient, Long> {
 
     Optional<Patient> findByAffiliateNumberAndEnabledTrue(String affiliateNumber);
 
+    /**
+     * Obtiene una página de pacientes habilitados junto con la persona, sus asociaciones simples (tipo de documento,
+     * género, nacionalidad y domicilio completo) y el plan de salud, en una única consulta.
+     * Los emails y teléfonos no se incluyen: al ser colecciones, Hibernate paginaría el resultado en memoria.
+     */
+    @EntityGraph(attributePaths = {
+            "person.dniType",
+            "person.gender",
+            "person.nationality",
+            "person.address.locality.province.country",
+            "healthPlan"
+    })
     Page <Patient> findAllByEnabledTrue(Pageable pageable);
 
     Optional<Patient> findById(Long id);
 
+
+    /**
+     * Pacientes habilitados con la persona, sus asociaciones simples y el plan de salud, como {@link #findAllByEnabledTrue}.
+     * Base de las consultas por cursor, que agregan la condición y el orden {@code p.lastName, p.id}: el paciente
+     * comparte el ID con su persona ({@code @MapsId}), por lo que el orden y la búsqueda recorren
+     * {@code idx_persons_last_name_id} y se detienen al completar el límite, sin ordenar todos los pacientes.
+     */
+    String CURSOR_SELECT = """
+    SELECT pa
+    FROM Patient pa
+    JOIN FETCH pa.person p
+    LEFT JOIN FETCH p.dniType
+    LEFT JOIN FETCH p.gender
+    LEFT JOIN FETCH p.nationality
+    LEFT JOIN FETCH p.address a
+    LEFT JOIN FETCH a.locality l
+    LEFT JOIN FETCH l.province pr
+    LEFT JOIN FETCH pr.country
+    LEFT JOIN FETCH pa.healthPlan
+    WHERE pa.enabled = true
+    """;
+
+
+    /**
+     * Obtiene la primera página de pacientes habilitados ordenados por apellido e ID (paginación por cursor),
+     * sin OFFSET ni conteo. El tamaño se limita con el {@link Pageable}, que debe ser sin ordenamiento.
+     */
+    @Query(CURSOR_SELECT + "ORDER BY p.lastName ASC, p.id ASC")
+    List<Patient> findFirstByLastName(Pageable pageable);
+
+
+    /**
+     * Obtiene la página siguiente a la posición {@code (afterLastName, afterId)}, con una comparación de filas
+     * que se resuelve como un rango sobre el índice.
+     *
+     * @param afterLastName Apellido del último paciente de la página anterior.
+     * @param afterId ID del último paciente de la página anterior.
+     */
+    @Query(CURSOR_SELECT + "AND (p.lastName, p.id) > (:afterLastName, :afterId) ORDER BY p.lastName ASC, p.id ASC")
+    List<Patient> findNextByLastName(@Param("afterLastName") String afterLastName, @Param("afterId") Long afterId, Pageable pageable);
+
+
+    /**
+     * Obtiene los pacientes sin apellido siguientes al ID indicado (se ordenan antes que los que tienen apellido).
+     *
+     * @param afterId ID del último paciente de la página anterior.
+     */
+    @Query(CURSOR_SELECT + "AND p.lastName IS NULL AND p.id > :afterId ORDER BY p.id ASC")
+    List<Patient> findNextWithoutLastName(@Param("afterId") Long afterId, Pageable pageable);
+
+
+    /**
+     * Obtiene la primera página de pacientes con apellido, a continuación de los pacientes sin apellido.
+     */
+    @Query(CURSOR_SELECT + "AND p.lastName IS NOT NULL ORDER BY p.lastName ASC, p.id ASC")
+    List<Patient> findFirstWithLastName(Pageable pageable);
+
+
+    /**
+     * Obtiene en una única consulta los datos de búsqueda de todos los pacientes habilitados.
+     */
+    @Query("""
+    SELECT new com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO(pa.id, p.firstName, p.lastName, p.dni, pa.affiliateNumber)
+    FROM Patient pa
+    JOIN pa.person p
+    WHERE pa.enabled = true
+    """)
+    List<PatientSearchRowDTO> findAllSearchRows();
+
+
+    /**
+     * Obtiene los datos de búsqueda de los pacientes habilitados dados de alta o modificados (paciente o persona)
+     * desde la fecha indicada, incluidos los escritos por otras instancias de la aplicación.
+     */
+    @Query("""
+    SELECT new com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO(pa.id, p.firstName, p.lastName, p.dni, pa.affiliateNumber)
+    FROM Patient pa
+    JOIN pa.person p
+    WHERE pa.enabled = true
+    AND (pa.createdAt >= :since OR pa.updatedAt >= :since OR p.updatedAt >= :since)
+    """)
+    List<PatientSearchRowDTO> findSearchRowsChangedSince(@Param("since") LocalDateTime since);
+
+
+    /**
+     * Obtiene los IDs de los pacientes deshabilitados desde la fecha indicada.
+     */
+    @Query("SELECT pa.id FROM Patient pa WHERE pa.enabled = false AND pa.disabledAt >= :since")
+    List<Long> findIdsDisabledSince(@Param("since") LocalDateTime since);
+
+
+    /**
+     * Búsqueda en la base de pacientes habilitados cuyo apellido, nombre, DNI o n.° de afiliado comienza con el prefijo.
+     * Solo se usa mientras el índice en memoria no está disponible.
+     *
+     * @param prefix Prefijo seguido de {@code %} (Ej: "gonz%").
+     */
+    @Query("""
+    SELECT new com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO(pa.id, p.firstName, p.lastName, p.dni, pa.affiliateNumber)
+    FROM Patient pa
+    JOIN pa.person p
+    WHERE pa.enabled = true
+    AND (p.lastName LIKE :prefix OR p.firstName LIKE :prefix OR p.dni LIKE :prefix OR pa.affiliateNumber LIKE :prefix)
+    ORDER BY p.lastName ASC, p.id ASC
+    """)
+    List<PatientSearchRowDTO> findSearchRowsByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+
+    /**
+     * Obtiene cuáles de los n.° de afiliado indicados ya están registrados.
+     */
+    @Query("SELECT pa.affiliateNumber FROM Patient pa WHERE pa.affiliateNumber IN :affiliateNumbers")
+    List<String> findExistingAffiliateNumbers(@Param("affiliateNumbers") Collection<String> affiliateNumbers);
+
 }
@@ -7,6 +7,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -19,4 +21,49 @@ public interface IPersonRepository extends JpaRepository<Person, Long> {
     Optional<Person> findByDniTypeIdAndDni (@Param("dniTypeId") Long dniTypeId, @Param("dni") String dni);
 
     long countByAddress_Id(Long addressId);
+
+
+    /**
+     * Obtiene en una única consulta las personas con alguno de los números de documento indicados
+     * (el tipo de documento se compara en memoria).
+     */
+    List<Person> findByDniIn(Collection<String> dnis);
+
+
+    /**
+     * Obtiene en una única consulta las personas indicadas con sus asociaciones simples
+     * (tipo de documento, género, nacionalidad y domicilio completo).
+     */
+    @Query("""
+           SELECT p FROM Person p
+           LEFT JOIN FETCH p.dniType
+           LEFT JOIN FETCH p.gender
+           LEFT JOIN FETCH p.nationality
+           LEFT JOIN FETCH p.address a
+           LEFT JOIN FETCH a.locality l
+           LEFT JOIN FETCH l.province pr
+           LEFT JOIN FETCH pr.country
+           WHERE p.id IN :ids""")
+    List<Person> findWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+
+    /**
+     * Inicializa los emails de las personas indicadas en una única consulta.
+     */
+    @Query("""
+           SELECT DISTINCT p FROM Person p
+           LEFT JOIN FETCH p.contactEmails
+           WHERE p.id IN :ids""")
+    List<Person> findWithContactEmailsByIdIn(@Param("ids") Collection<Long> ids);
+
+
+    /**
+     * Inicializa los teléfonos (con su tipo) de las personas indicadas en una única consulta.
+     */
+    @Query("""
+           SELECT DISTINCT p FROM Person p
+           LEFT JOIN FETCH p.contactPhones cp
+           LEFT JOIN FETCH cp.phoneType
+           WHERE p.id IN :ids""")
+    List<Person> findWithContactPhonesByIdIn(@Param("ids") Collection<Long> ids);
 }
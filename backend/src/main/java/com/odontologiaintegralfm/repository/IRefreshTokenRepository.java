@@ -6,17 +6,68 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.time.LocalDateTime;
 
 @Repository
 public interface IRefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    Optional<RefreshToken> findByRefreshToken(String token);
-
-    Optional<RefreshToken> findByUser_Id(Long id);
-
     @Modifying
     @Query("DELETE RefreshToken t WHERE t.user.id =:userId")
     void deleteByUserId(@Param("userId") Long userId);
+
+
+    @Transactional
+    @Modifying
+    @Query("DELETE RefreshToken t WHERE t.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+
+    /**
+     * Reemplaza el token vigente del usuario (login).
+     * @return Cantidad de registros actualizados (0 si el usuario aún no tiene token).
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE RefreshToken t
+    SET t.tokenHash = :tokenHash, t.createdDate = :now, t.expirationDate = :expirationDate
+    WHERE t.user.id = :userId
+    """)
+    int reissueForUser(@Param("userId") Long userId,
+                       @Param("tokenHash") String tokenHash,
+                       @Param("now") LocalDateTime now,
+                       @Param("expirationDate") LocalDateTime expirationDate);
+
+
+    /**
+     * Rota el token en una única sentencia: solo actualiza si el hash recibido coincide, pertenece al usuario
+     * indicado y no está vencido.
+     * @return 1 si el token fue rotado, 0 si es inválido o está vencido.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE RefreshToken t
+    SET t.tokenHash = :newTokenHash, t.createdDate = :now, t.expirationDate = :expirationDate
+    WHERE t.tokenHash = :tokenHash
+    AND t.expirationDate > :now
+    AND t.user.id IN (SELECT u.id FROM UserSec u WHERE u.id = :userId AND u.username = :username)
+    """)
+    int rotate(@Param("tokenHash") String tokenHash,
+               @Param("userId") Long userId,
+               @Param("username") String username,
+               @Param("newTokenHash") String newTokenHash,
+               @Param("now") LocalDateTime now,
+               @Param("expirationDate") LocalDateTime expirationDate);
+
+
+    /**
+     * Elimina un lote de tokens vencidos. Se limita la cantidad por sentencia para no bloquear la tabla.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE expiration_date < :now LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
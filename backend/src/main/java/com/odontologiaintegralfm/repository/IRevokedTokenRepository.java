@@ -0,0 +1,33 @@
+package com.odontologiaintegralfm.repository;
+
+import com.odontologiaintegralfm.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IRevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findAllByExpiresAtAfter(LocalDateTime now);
+
+
+    /**
+     * Revocaciones registradas después de la fecha indicada (consulta incremental de la lista en memoria).
+     */
+    List<RevokedToken> findAllByRevokedAtAfter(LocalDateTime since);
+
+
+    /**
+     * Elimina un lote de revocaciones cuyo token ya expiró.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM revoked_tokens WHERE expires_at < :now LIMIT :batchSize", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+}
@@ -1,12 +1,14 @@
 package com.odontologiaintegralfm.repository;
 
 
+import com.odontologiaintegralfm.dto.internal.RolePermissionActionRowDTO;
 import com.odontologiaintegralfm.model.Role;
 import com.odontologiaintegralfm.model.RolePermissionAction;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.List;
 import java.util.Set;
 
 
@@ -23,4 +25,19 @@ public interface IRolePermissionActionRepository extends JpaRepository<RolePermi
     Set<RolePermissionAction> findAllByRoleId(@Param("roleId") Long roleId);
 
    void deleteAllByRoleId(Long roleId);
+
+
+   /**
+    * Obtiene en una única consulta el grafo completo Rol → Permiso → Acción.
+    * Los roles sin permisos asignados se devuelven con los datos de permiso y acción en nulo.
+    */
+   @Query("""
+    SELECT new com.odontologiaintegralfm.dto.internal.RolePermissionActionRowDTO(
+        r.id, r.name, r.label, p.id, p.name, p.label, a.id, a.name, a.label)
+    FROM Role r
+    LEFT JOIN RolePermissionAction rpa ON rpa.role = r
+    LEFT JOIN rpa.permission p
+    LEFT JOIN rpa.action a
+    """)
+   List<RolePermissionActionRowDTO> findAllRolePermissionActionRows();
 }
@@ -0,0 +1,14 @@
+package com.odontologiaintegralfm.repository;
+
+import com.odontologiaintegralfm.model.StackTraceFingerprint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface IStackTraceFingerprintRepository extends JpaRepository<StackTraceFingerprint, Long> {
+
+    List<StackTraceFingerprint> findAllByFingerprintIn(Collection<String> fingerprints);
+}
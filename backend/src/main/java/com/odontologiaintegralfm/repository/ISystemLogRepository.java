@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
@@ -15,7 +16,7 @@ import java.time.LocalDateTime;
  * @author [Facundo Palmieri]
  */
 @Repository
-public interface ISystemLogRepository extends JpaRepository<SystemLog, Long> {
+public interface ISystemLogRepository extends JpaRepository<SystemLog, Long>, ISystemLogSearchRepository {
 
     Page<SystemLog> findAll(Pageable pageable);
 
@@ -23,11 +24,11 @@ public interface ISystemLogRepository extends JpaRepository<SystemLog, Long> {
 
 
 
+    /**
+     * Elimina un lote de logs anteriores a la fecha límite. Se limita la cantidad por sentencia para no bloquear la tabla.
+     */
+    @Transactional
     @Modifying
-    @Query("""
-    DELETE 
-    FROM SystemLog sl
-    WHERE sl.timestamp < :deadline
-    """)
-    int deleteBeforeDeadline(@Param("deadline") LocalDateTime deadline);
+    @Query(value = "DELETE FROM system_logs WHERE timestamp < :deadline LIMIT :batchSize", nativeQuery = true)
+    int deleteBeforeDeadlineBatch(@Param("deadline") LocalDateTime deadline, @Param("batchSize") int batchSize);
 }
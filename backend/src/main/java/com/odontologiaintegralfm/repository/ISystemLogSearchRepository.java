@@ -0,0 +1,24 @@
+package com.odontologiaintegralfm.repository;
+
+import com.odontologiaintegralfm.dto.SystemLogFilterDTO;
+import com.odontologiaintegralfm.dto.SystemLogSearchResponseDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Búsqueda filtrada de logs del sistema con paginación por keyset sobre {@code (timestamp, id)}.
+ */
+public interface ISystemLogSearchRepository {
+
+    /**
+     * Obtiene los logs que cumplen los filtros, ordenados del más reciente al más antiguo.
+     *
+     * @param filter         Filtros (los nulos no se aplican).
+     * @param afterTimestamp Fecha del último log de la página anterior, o {@code null} para la primera página.
+     * @param afterId        ID del último log de la página anterior, o {@code null} para la primera página.
+     * @param limit          Cantidad máxima de logs.
+     * @return Logs proyectados directamente al DTO (sin cargar entidades).
+     */
+    List<SystemLogSearchResponseDTO> search(SystemLogFilterDTO filter, LocalDateTime afterTimestamp, Long afterId, int limit);
+}
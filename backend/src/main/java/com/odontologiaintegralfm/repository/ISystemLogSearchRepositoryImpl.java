@@ -0,0 +1,82 @@
+package com.odontologiaintegralfm.repository;
+
+import com.odontologiaintegralfm.dto.SystemLogFilterDTO;
+import com.odontologiaintegralfm.dto.SystemLogSearchResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de {@link ISystemLogSearchRepository} con JPQL dinámico.
+ * <p>
+ * Solo se agregan al query los filtros informados, de modo que MySQL pueda usar el índice compuesto que
+ * corresponde (nivel, tipo o usuario seguido de {@code timestamp, id}). En lugar de {@code OFFSET}, la página
+ * siguiente continúa a partir del último {@code (timestamp, id)} leído, por lo que el costo no crece con el
+ * número de página.
+ * </p>
+ */
+public class ISystemLogSearchRepositoryImpl implements ISystemLogSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+
+    @Override
+    public List<SystemLogSearchResponseDTO> search(SystemLogFilterDTO filter, LocalDateTime afterTimestamp, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder("""
+                SELECT new com.odontologiaintegralfm.dto.SystemLogSearchResponseDTO(
+                    l.id, l.timestamp, l.level, l.type, l.userMessage, l.technicalMessage,
+                    l.name, l.username, l.metadata, l.stackTraceFingerprint)
+                FROM SystemLog l
+                WHERE 1 = 1
+                """);
+        Map<String, Object> params = new HashMap<>();
+
+        if (filter.level() != null) {
+            jpql.append(" AND l.level = :level");
+            params.put("level", filter.level());
+        }
+        if (filter.type() != null) {
+            jpql.append(" AND l.type = :type");
+            params.put("type", filter.type());
+        }
+        if (filter.username() != null && !filter.username().isBlank()) {
+            jpql.append(" AND l.username = :username");
+            params.put("username", filter.username().trim());
+        }
+        if (filter.from() != null) {
+            jpql.append(" AND l.timestamp >= :from");
+            params.put("from", filter.from());
+        }
+        if (filter.to() != null) {
+            jpql.append(" AND l.timestamp < :to");
+            params.put("to", filter.to());
+        }
+        if (filter.text() != null && !filter.text().isBlank()) {
+            //El texto no usa índice: se evalúa sobre las filas que ya acotaron los demás filtros.
+            jpql.append(" AND (l.userMessage LIKE :text ESCAPE '!' OR l.technicalMessage LIKE :text ESCAPE '!')");
+            params.put("text", "%" + escapeLike(filter.text().trim()) + "%");
+        }
+        if (afterTimestamp != null && afterId != null) {
+            jpql.append(" AND (l.timestamp < :afterTimestamp OR (l.timestamp = :afterTimestamp AND l.id < :afterId))");
+            params.put("afterTimestamp", afterTimestamp);
+            params.put("afterId", afterId);
+        }
+        jpql.append(" ORDER BY l.timestamp DESC, l.id DESC");
+
+        TypedQuery<SystemLogSearchResponseDTO> query = entityManager.createQuery(jpql.toString(), SystemLogSearchResponseDTO.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+
+    //Se usa '!' como caracter de escape: la barra invertida tiene significado propio en MySQL.
+    private String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -4,10 +4,15 @@ import com.odontologiaintegralfm.model.UserSec;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -23,6 +28,42 @@ public interface IUserRepository extends JpaRepository<UserSec, Long> {
     Integer findFailedLoginAttemptsByUsername(@Param("username") String username);
 
 
+    /**
+     * Obtiene en una única consulta el usuario con todo lo necesario para el login:
+     * roles y persona con sus datos de contacto y domicilio.
+     */
+    @Query("""
+    SELECT DISTINCT u
+    FROM UserSec u
+    LEFT JOIN FETCH u.rolesList
+    LEFT JOIN FETCH u.person p
+    LEFT JOIN FETCH p.dniType
+    LEFT JOIN FETCH p.gender
+    LEFT JOIN FETCH p.nationality
+    LEFT JOIN FETCH p.address a
+    LEFT JOIN FETCH a.locality l
+    LEFT JOIN FETCH l.province pr
+    LEFT JOIN FETCH pr.country
+    LEFT JOIN FETCH p.contactEmails
+    LEFT JOIN FETCH p.contactPhones cp
+    LEFT JOIN FETCH cp.phoneType
+    WHERE u.username = :username
+    """)
+    Optional<UserSec> findLoginUserByUsername(@Param("username") String username);
+
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserSec u SET u.failedLoginAttempts = 0, u.updatedAt = :now WHERE u.id = :id")
+    int resetFailedLoginAttempts(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE UserSec u SET u.accountNotLocked = false, u.locktime = :now, u.updatedAt = :now WHERE u.id = :id")
+    int lockAccount(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+
     @Query("""
     SELECT u
     FROM UserSec u
@@ -32,4 +73,39 @@ public interface IUserRepository extends JpaRepository<UserSec, Long> {
     """)
     Page<UserSec> findAllExcludingDevelopers (@Param("idRoleDev") Long idRoleDev ,Pageable pageable);
 
+
+    /**
+     * Obtiene los IDs de la página siguiente de usuarios (excluyendo desarrolladores) ordenados por username e ID
+     * (paginación por cursor), sin OFFSET ni conteo. El tamaño se limita con el {@link Pageable}, que debe ser sin ordenamiento.
+     * Los usuarios se cargan luego con {@link #findListByIdIn}: los roles son EAGER y no se pueden traer en un
+     * JOIN FETCH junto con el límite.
+     *
+     * @param afterUsername Username del último usuario de la página anterior, o null para la primera página.
+     * @param afterId ID del último usuario de la página anterior.
+     */
+    @Query("""
+    SELECT u.id
+    FROM UserSec u
+    WHERE NOT EXISTS (
+    SELECT r FROM u.rolesList r WHERE r.id = :idRoleDev
+    )
+    AND (:afterUsername IS NULL
+         OR u.username > :afterUsername
+         OR (u.username = :afterUsername AND u.id > :afterId))
+    ORDER BY u.username ASC, u.id ASC
+    """)
+    List<Long> findNextIdsExcludingDevelopers(@Param("idRoleDev") Long idRoleDev, @Param("afterUsername") String afterUsername, @Param("afterId") Long afterId, Pageable pageable);
+
+
+    /**
+     * Obtiene en una única consulta los usuarios indicados con sus roles, para el listado por cursor (sin orden).
+     */
+    @Query("""
+    SELECT DISTINCT u
+    FROM UserSec u
+    LEFT JOIN FETCH u.rolesList
+    WHERE u.id IN :ids
+    """)
+    List<UserSec> findListByIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -15,6 +15,8 @@ import org.springframework.transaction.annotation.Transactional;
  * - Contacto Telefónico.
  * - Contacto Email.
  * - Archivos adjuntos.
+ * - Refresh tokens vencidos.
+ * - JWT revocados ya expirados.
  * Esta tarea ya no tiene una expresión cron fija.
  * Su ejecución es programada dinámicamente desde SchedulerInitializerConfig.
  */
@@ -36,6 +38,12 @@ public class CleanupService {
     @Autowired
     private ISystemLogService systemLogService;
 
+    @Autowired
+    private IRefreshTokenService refreshTokenService;
+
+    @Autowired
+    private ITokenRevocationService tokenRevocationService;
+
 
     /**
      * Método que se ejecuta cuando es programado por Spring.
@@ -79,4 +87,22 @@ public class CleanupService {
         systemLogService.delete();
     }
 
+
+    /**
+     * Método que se ejecuta cuando es programado por Spring.
+     * Elimina por lotes los refresh tokens vencidos.
+     */
+    public void cleanExpiredRefreshTokens(){
+        refreshTokenService.deleteExpired();
+    }
+
+
+    /**
+     * Método que se ejecuta cuando es programado por Spring.
+     * Elimina las revocaciones de JWT ya expirados y reconstruye la lista en memoria.
+     */
+    public void cleanRevokedTokens(){
+        tokenRevocationService.deleteExpired();
+    }
+
 }
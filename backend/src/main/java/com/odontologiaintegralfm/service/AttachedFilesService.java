@@ -8,7 +8,6 @@ import com.odontologiaintegralfm.dto.Response;
 import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.enums.LogType;
-import com.odontologiaintegralfm.enums.SystemParameterKey;
 import com.odontologiaintegralfm.exception.*;
 import com.odontologiaintegralfm.model.AttachedFile;
 import com.odontologiaintegralfm.model.Patient;
@@ -23,7 +22,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.core.io.UrlResource;
 import org.springframework.dao.DataAccessException;
-import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.access.PermissionEvaluator;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
@@ -35,6 +34,7 @@ import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 
@@ -77,6 +77,9 @@ public class AttachedFilesService implements IAttachedFilesService {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PermissionEvaluator permissionEvaluator;
+
 
 
     /**
@@ -133,7 +136,7 @@ public class AttachedFilesService implements IAttachedFilesService {
             attachedFile.setFileType(file.getContentType());
             attachedFile.setPerson(person);
             attachedFile.setCreatedAt(LocalDateTime.now());
-            attachedFile.setCreatedBy(authenticatedUserService.getAuthenticatedUser());
+            attachedFile.setCreatedBy(authenticatedUserService.getAuthenticatedUserReference());
             attachedFile.setEnabled(true);
 
             attachedFile = attachedFilesRepository.save(attachedFile);
@@ -206,7 +209,7 @@ public class AttachedFilesService implements IAttachedFilesService {
         attachedFile.setFileType(file.getContentType());
         attachedFile.setPerson(person);
         attachedFile.setCreatedAt(LocalDateTime.now());
-        attachedFile.setCreatedBy(authenticatedUserService.getAuthenticatedUser());
+        attachedFile.setCreatedBy(authenticatedUserService.getAuthenticatedUserReference());
         attachedFile.setEnabled(true);
 
         attachedFile = attachedFilesRepository.save(attachedFile);
@@ -238,10 +241,8 @@ public class AttachedFilesService implements IAttachedFilesService {
 
 
             //Control de acceso a la descarga de archivo.
-            UserSec userSec =  userService.getByIdInternal(authenticatedUserService.getAuthenticatedUser().getId());
-            boolean havePermission = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .anyMatch(auth -> auth.equals("PERMISO_CONFIGURATION_UPLOAD"));
+            UserSec userSec =  userService.getByIdInternal(authenticatedUserService.getAuthenticatedUserId());
+            boolean havePermission = permissionEvaluator.hasPermission(SecurityContextHolder.getContext().getAuthentication(), "CONFIGURATION", "UPLOAD");
 
             //Control de acceso para Desarrolladores que no tiene ID de persona.
             if(userSec.getId() == 1 || userSec.getId() == 2){
@@ -297,7 +298,7 @@ public class AttachedFilesService implements IAttachedFilesService {
                 return fileStorageService.getDocument(file);
 
             }else{
-                throw new ForbiddenException("exception.accessDenied.user", null, "exception.accessDenied.log", new Object[]{authenticatedUserService.getAuthenticatedUser().getId(),"user/{documentId}/download", "AttachedFilesService", "getByIdDocumentResource"},LogLevel.ERROR);
+                throw new ForbiddenException("exception.accessDenied.user", null, "exception.accessDenied.log", new Object[]{authenticatedUserService.getAuthenticatedUserId(),"user/{documentId}/download", "AttachedFilesService", "getByIdDocumentResource"},LogLevel.ERROR);
             }
         }catch (DataAccessException | CannotCreateTransactionException e) {
             throw new DataBaseException(e, "AttachedFileService", documentId,"<-  Id del documento", "getByIdDocumentResource");
@@ -389,10 +390,8 @@ public class AttachedFilesService implements IAttachedFilesService {
 
 
             //Control de acceso a la eliminación de archivo.
-            UserSec userSec =  userService.getByIdInternal(authenticatedUserService.getAuthenticatedUser().getId());
-            boolean havePermission = SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority)
-                    .anyMatch(auth -> auth.equals("PERMISO_CONFIGURATION_UPLOAD"));
+            UserSec userSec =  userService.getByIdInternal(authenticatedUserService.getAuthenticatedUserId());
+            boolean havePermission = permissionEvaluator.hasPermission(SecurityContextHolder.getContext().getAuthentication(), "CONFIGURATION", "UPLOAD");
 
             if(userSec.getPerson() != null){
                 if (!havePermission) {
@@ -407,7 +406,7 @@ public class AttachedFilesService implements IAttachedFilesService {
             //Realiza la baja lógica.
             file.setEnabled(false);
             file.setDisabledAt(LocalDateTime.now());
-            file.setDisabledBy(authenticatedUserService.getAuthenticatedUser());
+            file.setDisabledBy(authenticatedUserService.getAuthenticatedUserReference());
             attachedFilesRepository.save(file);
 
             String messageUser = messageService.getMessage("attachedFileService.disabledDocument.ok.user",null,LocaleContextHolder.getLocale());
@@ -453,7 +452,7 @@ public class AttachedFilesService implements IAttachedFilesService {
                 //Realiza la baja lógica.
                 file.setEnabled(false);
                 file.setDisabledAt(LocalDateTime.now());
-                file.setDisabledBy(authenticatedUserService.getAuthenticatedUser());
+                file.setDisabledBy(authenticatedUserService.getAuthenticatedUserReference());
                 attachedFilesRepository.save(file);
 
                 String messageUser = messageService.getMessage("attachedFileService.disabledDocument.ok.user",null,LocaleContextHolder.getLocale());
@@ -462,7 +461,7 @@ public class AttachedFilesService implements IAttachedFilesService {
 
 
             }else{
-                throw new ForbiddenException("exception.accessDenied.user", null, "exception.accessDenied.log", new Object[]{authenticatedUserService.getAuthenticatedUser().getId(),"patient/{documentId}", "AttachedFilesService", "disabledByIdDocumentPatient"},LogLevel.ERROR);
+                throw new ForbiddenException("exception.accessDenied.user", null, "exception.accessDenied.log", new Object[]{authenticatedUserService.getAuthenticatedUserId(),"patient/{documentId}", "AttachedFilesService", "disabledByIdDocumentPatient"},LogLevel.ERROR);
             }
         }catch (DataAccessException | CannotCreateTransactionException e) {
             throw new DataBaseException(e, "AttachedFileService", documentId,"<-  Id del documento", "disabledByIdDocumentPatient");
@@ -494,7 +493,7 @@ public class AttachedFilesService implements IAttachedFilesService {
         try{
 
             //Obtiene el parámetro de días.
-            int days = Integer.parseInt(systemParameterService.getByKey(SystemParameterKey.ATTACHMENT_MIN_DAYS));
+            int days = systemParameterService.getSnapshot().attachmentMinDays();
 
             //Establece fecha límite.
             LocalDateTime deadline = LocalDate.now().minusDays(days).atStartOfDay();
@@ -612,12 +611,9 @@ public class AttachedFilesService implements IAttachedFilesService {
             throw new ConflictException("exception.file.conflictExtensionDocument.user", null,"exception.file.conflictExtensionDocument.log", new Object[]{filename, "FileStorageService","saveDocument"}, LogLevel.ERROR);
 
         }
-        //Obtener extensiones desde la base de datos.
-        String extensionSystemParameter = systemParameterService.getByKey(SystemParameterKey.EXTENSION_DOCUMENTS);
-
-        //Comparar extensión del archivo recibido vs. base de datos.
+        //Comparar extensión del archivo recibido vs. extensiones parametrizadas.
         String extensionDocument =  filename.substring(filename.lastIndexOf('.') + 1);
-        if (!extensionSystemParameter.contains(extensionDocument.toLowerCase())) {
+        if (!systemParameterService.getSnapshot().documentExtensions().contains(extensionDocument.toLowerCase(Locale.ROOT))) {
             throw new ConflictException("exception.file.conflictExtensionDocument.user", null,"exception.file.conflictExtensionDocument.log", new Object[]{filename, "FileStorageService","saveDocument"}, LogLevel.ERROR);
         }
 
@@ -629,9 +625,8 @@ public class AttachedFilesService implements IAttachedFilesService {
      * @param file
      */
     private void sizeVerification(MultipartFile file) {
-        //Obtiene tamaño máximo parametrizado de la BD
-        long maxSizeMb = Long.parseLong(systemParameterService.getByKey(SystemParameterKey.SIZE_FILE));
-        long maxSizeBytes = maxSizeMb * 1024 * 1024;
+        //Obtiene tamaño máximo parametrizado
+        long maxSizeBytes = systemParameterService.getSnapshot().maxFileSizeBytes();
 
         if (file.getSize() > maxSizeBytes) {
             throw new ConflictException("exception.file.tooLarge.user", null, "exception.file.tooLarge.log",
@@ -1,7 +1,6 @@
 package com.odontologiaintegralfm.service;
 
 import com.odontologiaintegralfm.enums.LogLevel;
-import com.odontologiaintegralfm.enums.SystemParameterKey;
 import com.odontologiaintegralfm.exception.ConflictException;
 import com.odontologiaintegralfm.exception.NotFoundException;
 import com.odontologiaintegralfm.model.Person;
@@ -17,6 +16,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Locale;
 
 /**
  * Servicio encargado de gestionar las operaciones relacionadas con el avatar (imagen de perfil) de una persona.
@@ -154,12 +154,9 @@ public class AvatarService implements IAvatarService {
             throw new ConflictException("exception.file.conflictExtensionImage.user", null,"exception.file.conflictExtensionImage.log", new Object[]{filename, "FileStorageService","saveAvatar"}, LogLevel.ERROR);
 
         }
-        //Obtener extensiones desde la base de datos.
-        String extensionSystemParameter = systemParameterService.getByKey(SystemParameterKey.EXTENSION_IMAGE);
-
-        //Comparar extensión del archivo recibido vs. base de datos.
+        //Comparar extensión del archivo recibido vs. extensiones parametrizadas.
         String extensionImage =  filename.substring(filename.lastIndexOf('.') + 1);
-        if (!extensionSystemParameter.contains(extensionImage.toLowerCase())) {
+        if (!systemParameterService.getSnapshot().imageExtensions().contains(extensionImage.toLowerCase(Locale.ROOT))) {
             throw new ConflictException("exception.file.conflictExtensionImage.user", null,"exception.file.conflictExtensionImage.log", new Object[]{filename, "FileStorageService","saveAvatar"}, LogLevel.ERROR);
         }
 
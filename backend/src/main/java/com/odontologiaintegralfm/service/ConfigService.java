@@ -52,6 +52,9 @@ public class ConfigService implements IConfigService {
     @Autowired
     private SystemLogService systemLogService;
 
+    @Autowired
+    private ISystemLogPartitionService systemLogPartitionService;
+
 
     /**
      * Obtiene un listado de configuraciones de mensajes.
@@ -265,4 +268,47 @@ public class ConfigService implements IConfigService {
     }
 
 
+    /**
+     * Se comunica con el servicio de {@link SystemLogService} para la búsqueda filtrada de logs.
+     *
+     * @param filter
+     * @param cursor
+     * @param size
+     * @return
+     */
+    @Override
+    public Response<CursorPageDTO<SystemLogSearchResponseDTO>> searchLogs(SystemLogFilterDTO filter, String cursor, int size) {
+        try{
+            return new Response<>(true, null, systemLogService.search(filter, cursor, size));
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "configService", null, null, "searchLogs");
+        }
+    }
+
+
+
+
+    /**
+     * Convierte la tabla de logs en una tabla particionada por mes (paso de mantenimiento).
+     * <p>
+     * Reconstruye {@code system_logs} bloqueándola: debe ejecutarse en una ventana de mantenimiento. Si la tabla ya
+     * está particionada no hace cambios.
+     * </p>
+     *
+     * @return Nombres de las particiones de la tabla.
+     */
+    @Override
+    @LogAction(
+            value = "config.systemLogService.partitionLogs",
+            args = {"#result.data().size()"},
+            type = LogType.SYSTEM,
+            level = LogLevel.INFO
+    )
+    public Response<List<String>> partitionLogs() {
+        List<String> partitions = systemLogPartitionService.ensurePartitioned();
+        String userMessage = messageService.getMessage("config.partitionLogs.ok", new Object[]{partitions.size()}, LocaleContextHolder.getLocale());
+        return new Response<>(true, userMessage, partitions);
+    }
+
+
 }
@@ -0,0 +1,121 @@
+package com.odontologiaintegralfm.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector incremental de CSV (RFC 4180): devuelve un registro por vez, sin cargar el archivo en memoria.
+ * <p>
+ * Admite campos entre comillas con separadores, saltos de línea y comillas dobles escapadas ({@code ""}).
+ * Acepta fin de línea {@code \n} o {@code \r\n} e ignora las líneas vacías.
+ * </p>
+ */
+public final class CsvReader {
+
+    private final Reader reader;
+
+    private final char separator;
+
+    private int lineNumber = 0;
+
+    private int recordLine = 0;
+
+    private int pending = -2;
+
+
+    /**
+     * @param reader Origen (conviene que sea un {@link java.io.BufferedReader}).
+     * @param separator Separador de campos (Ej: {@code ','}).
+     */
+    public CsvReader(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+
+    /**
+     * Lee el siguiente registro.
+     *
+     * @return Campos del registro, o null al final del archivo.
+     * @throws IOException si falla la lectura o una comilla queda sin cerrar.
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        //Saltea las líneas vacías.
+        while (c == '\r' || c == '\n') {
+            if (c == '\n') {
+                lineNumber++;
+            }
+            c = read();
+        }
+        if (c == -1) {
+            return null;
+        }
+        recordLine = lineNumber + 1;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Comilla sin cerrar en el registro de la línea " + recordLine);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pending = next;
+                    }
+                }
+                lineNumber++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+
+    /**
+     * Número de línea del archivo (desde 1) donde comienza el último registro leído.
+     */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
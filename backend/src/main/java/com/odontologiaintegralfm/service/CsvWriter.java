@@ -0,0 +1,69 @@
+package com.odontologiaintegralfm.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escritor de CSV (RFC 4180) para las exportaciones: un registro por línea, terminada en {@code \n}.
+ * <p>
+ * Los valores con separadores, comillas o saltos de línea se escriben entre comillas. Para evitar la inyección de
+ * fórmulas al abrir el archivo en una planilla de cálculo, los valores que comienzan con {@code =}, {@code +},
+ * {@code -}, {@code @}, tabulación o retorno de carro se escriben precedidos de {@code '}. Los valores nulos se
+ * escriben vacíos.
+ * </p>
+ */
+public final class CsvWriter {
+
+    private final Writer writer;
+
+    private final char separator;
+
+
+    /**
+     * @param writer Destino (conviene que sea un {@link java.io.BufferedWriter}).
+     * @param separator Separador de campos (Ej: {@code ','}).
+     */
+    public CsvWriter(Writer writer, char separator) {
+        this.writer = writer;
+        this.separator = separator;
+    }
+
+
+    /**
+     * Escribe un registro.
+     *
+     * @param values Valores del registro (pueden ser null).
+     * @throws IOException si falla la escritura.
+     */
+    public void writeRecord(String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            writeValue(values[i]);
+        }
+        writer.write('\n');
+    }
+
+
+    private void writeValue(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        if (isFormulaPrefix(value.charAt(0))) {
+            value = "'" + value;
+        }
+        if (value.indexOf(separator) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+
+    private static boolean isFormulaPrefix(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
@@ -16,8 +16,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -64,7 +67,7 @@ public class DentistService implements IDentistService {
             dentist.setLicenseNumber(dentistCreateRequestDTO.licenseNumber());
             dentist.setDentistSpecialty(dentistSpecialtyService.getById(dentistCreateRequestDTO.dentistSpecialtyId()));
             dentist.setCreatedAt(LocalDateTime.now());
-            dentist.setCreatedBy(authenticatedUserService.getAuthenticatedUser());
+            dentist.setCreatedBy(authenticatedUserService.getAuthenticatedUserReference());
             dentist.setEnabled(true);
             return dentistRepository.save(dentist);
 
@@ -91,7 +94,7 @@ public class DentistService implements IDentistService {
             dentist.setDentistSpecialty(dentistSpecialtyService.getById(dentistUpdateRequestDTO.dentistSpecialtyId()));
 
             dentist.setUpdatedAt(LocalDateTime.now());
-            dentist.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
+            dentist.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
             return dentistRepository.save(dentist);
 
         }catch (DataAccessException | CannotCreateTransactionException e) {
@@ -135,6 +138,24 @@ public class DentistService implements IDentistService {
         }
     }
 
+    /**
+     * Método para obtener en una única consulta los dentistas (con su especialidad) de varias personas.
+     * @param ids IDs de las personas.
+     * @return Dentistas por ID.
+     */
+    @Override
+    public Map<Long, Dentist> getByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try{
+            return dentistRepository.findWithSpecialtyByIdIn(ids).stream()
+                    .collect(Collectors.toMap(Dentist::getId, Function.identity()));
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "DentistService",null,null, "getByIds");
+        }
+    }
+
     /**
      * Valida que la licencia médica no exista para otro dentista.
      * @param licenseNumber : Licencia médica del dentista
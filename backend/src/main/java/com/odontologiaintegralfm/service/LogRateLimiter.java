@@ -0,0 +1,220 @@
+package com.odontologiaintegralfm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.enums.LogType;
+import com.odontologiaintegralfm.model.SystemLog;
+import com.odontologiaintegralfm.service.interfaces.IMessageService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita la cantidad de logs del sistema que se persisten por clave ante ráfagas de errores.
+ * <p>
+ * Cada clave {@code (clave del log, nivel, usuario o IP)} tiene un token bucket: admite una ráfaga de
+ * {@code capacity} logs y luego {@code refill-per-second} logs por segundo. Los logs sin token no se persisten,
+ * solo se cuentan; periódicamente se escribe un log resumen por clave con la cantidad de eventos similares omitidos.
+ * De este modo, una caída de la base o un cliente que repite un token inválido generan una cantidad acotada
+ * de registros en lugar de uno por solicitud.
+ * </p>
+ * <p>
+ * Las claves sin eventos recientes se eliminan con el resumen. Si se alcanza el máximo de claves, las nuevas
+ * se agrupan por clave del log y nivel (sin usuario ni IP), para que el mapa no crezca con valores arbitrarios.
+ * </p>
+ */
+@Slf4j
+@Component
+public class LogRateLimiter {
+
+    private static final String UNAUTHENTICATED = "No autenticado";
+
+    private static final String ANY_SUBJECT = "*";
+
+    @Autowired
+    private SystemLogWriter systemLogWriter;
+
+    @Autowired
+    private IMessageService messageService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${system-log.rate-limit.capacity:20}")
+    private int capacity;
+
+    @Value("${system-log.rate-limit.refill-per-second:1}")
+    private double refillPerSecond;
+
+    @Value("${system-log.rate-limit.max-keys:10000}")
+    private int maxKeys;
+
+    @Value("${system-log.rate-limit.idle-ms:300000}")
+    private long idleMillis;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private Counter suppressedCounter;
+
+
+    @PostConstruct
+    public void init() {
+        suppressedCounter = Counter.builder("system.log.rate-limit.suppressed")
+                .description("Logs del sistema omitidos por límite de frecuencia")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Token bucket de una clave. Los tokens se reponen en función del tiempo transcurrido al consumir.
+     */
+    private static final class TokenBucket {
+        private final String logKey;
+        private final LogLevel level;
+        private final String subject;
+        private final AtomicLong suppressed = new AtomicLong();
+        private double tokens;
+        private long lastRefillNanos;
+        private volatile long lastSeenMillis;
+
+        private TokenBucket(String logKey, LogLevel level, String subject, int capacity) {
+            this.logKey = logKey;
+            this.level = level;
+            this.subject = subject;
+            this.tokens = capacity;
+            this.lastRefillNanos = System.nanoTime();
+            this.lastSeenMillis = System.currentTimeMillis();
+        }
+
+        private synchronized boolean tryConsume(int capacity, double refillPerSecond) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * refillPerSecond);
+            lastRefillNanos = now;
+            lastSeenMillis = System.currentTimeMillis();
+            if (tokens >= 1) {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+
+
+    /**
+     * Indica si se debe persistir un log de la clave indicada. Si no, lo cuenta para el próximo resumen.
+     *
+     * @param logKey  Clave del log (Ej: clave del mensaje técnico).
+     * @param level   Nivel del log.
+     * @param subject Usuario o IP que origina el evento (ver {@link #resolveSubject}).
+     * @return {@code true} si hay token disponible y el log se debe persistir.
+     */
+    public boolean tryAcquire(String logKey, LogLevel level, String subject) {
+        String key = logKey + '|' + level + '|' + subject;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                subject = ANY_SUBJECT;
+                key = logKey + '|' + level + '|' + ANY_SUBJECT;
+            }
+            String bucketSubject = subject;
+            bucket = buckets.computeIfAbsent(key, k -> new TokenBucket(logKey, level, bucketSubject, capacity));
+        }
+
+        if (bucket.tryConsume(capacity, refillPerSecond)) {
+            return true;
+        }
+        bucket.suppressed.incrementAndGet();
+        suppressedCounter.increment();
+        return false;
+    }
+
+
+    /**
+     * Obtiene el sujeto del límite: el usuario autenticado o, si no lo hay, la IP de la solicitud en curso.
+     *
+     * @param username Usuario del log (puede ser null).
+     * @return Usuario, IP del cliente o {@code "*"} si no hay usuario ni solicitud.
+     */
+    public String resolveSubject(String username) {
+        if (username != null && !username.isBlank() && !UNAUTHENTICATED.equals(username)) {
+            return username;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletRequestAttributes) {
+            HttpServletRequest request = servletRequestAttributes.getRequest();
+            return request.getRemoteAddr();
+        }
+        return ANY_SUBJECT;
+    }
+
+
+    /**
+     * Escribe un log resumen por cada clave con eventos omitidos desde el resumen anterior y elimina las claves inactivas.
+     */
+    @Scheduled(fixedDelayString = "${system-log.rate-limit.summary-interval-ms:60000}")
+    public void flushSummaries() {
+        long now = System.currentTimeMillis();
+
+        buckets.entrySet().removeIf(entry -> {
+            TokenBucket bucket = entry.getValue();
+            long suppressed = bucket.suppressed.getAndSet(0);
+            if (suppressed > 0) {
+                systemLogWriter.enqueue(buildSummary(bucket, suppressed));
+            }
+            return suppressed == 0 && now - bucket.lastSeenMillis >= idleMillis;
+        });
+    }
+
+
+    //El resumen se encola directamente en el escritor: no pasa por el límite.
+    private SystemLog buildSummary(TokenBucket bucket, long suppressed) {
+        String message = messageService.getMessage(
+                "systemLog.rateLimit.suppressed",
+                new Object[]{suppressed, bucket.logKey, bucket.level, bucket.subject},
+                Locale.getDefault());
+        log.warn(message);
+
+        SystemLog summary = new SystemLog();
+        summary.setTimestamp(LocalDateTime.now());
+        summary.setLevel(LogLevel.WARN);
+        summary.setType(LogType.SYSTEM);
+        summary.setUserMessage(message);
+        summary.setTechnicalMessage(message);
+        summary.setName("LogRateLimiter");
+        summary.setUsername(bucket.subject);
+        summary.setMetadata(toJson(Map.of(
+                "logKey", String.valueOf(bucket.logKey),
+                "level", String.valueOf(bucket.level),
+                "subject", bucket.subject,
+                "suppressed", suppressed)));
+        return summary;
+    }
+
+
+    private String toJson(Map<String, Object> metadata) {
+        try {
+            return objectMapper.writeValueAsString(metadata);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
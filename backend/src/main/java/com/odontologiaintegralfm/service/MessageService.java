@@ -6,13 +6,20 @@ import com.odontologiaintegralfm.exception.NotFoundException;
 import com.odontologiaintegralfm.model.MessageConfig;
 import com.odontologiaintegralfm.repository.IMessageRepository;
 import com.odontologiaintegralfm.service.interfaces.IMessageService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 /**
@@ -26,19 +33,43 @@ import java.util.Locale;
  * la actualización de mensajes y la recuperación de todos los mensajes almacenados. En caso de errores de acceso
  * a la base de datos, se manejan excepciones específicas como {@link DataBaseException} y {@link NotFoundException}.
  * </p>
+ * <p>
+ * Los mensajes se consultan desde un catálogo inmutable en memoria con toda la tabla {@code message_config},
+ * cargado en el primer uso y reemplazado de forma atómica cuando se confirma una actualización. Cada mensaje guarda
+ * su {@link MessageFormat} ya parseado, del que se usa una copia por llamada (no es seguro entre hilos).
+ * </p>
  */
 
+@Slf4j
 @Service
 public class MessageService implements IMessageService {
 
+    private static final String NOT_FOUND = "Mensaje no encontrado";
+
     @Autowired
     private IMessageRepository messageRepository;
 
+    @Value("${messages.default-locale:es_AR}")
+    private String defaultLocale;
+
+    private final AtomicReference<Map<String, Map<String, CompiledMessage>>> catalog = new AtomicReference<>();
+
+
     /**
-     * Obtiene el mensaje desde la base de datos según la clave y el idioma.
+     * Mensaje del catálogo: valor original y su formateador ya parseado.
+     */
+    private record CompiledMessage(String value, MessageFormat formatter) {
+
+        private String format(Object[] args) {
+            return formatter == null ? value : ((MessageFormat) formatter.clone()).format(args);
+        }
+    }
+
+    /**
+     * Obtiene el mensaje desde el catálogo en memoria según la clave y el idioma.
      * <p>
-     * Este método consulta el repositorio {@link IMessageRepository} para recuperar un mensaje
-     * basado en una clave específica y un idioma.
+     * Se busca el mensaje para el idioma completo (Ej: {@code es_AR}), luego para el lenguaje ({@code es}),
+     * luego para el idioma por defecto ({@code messages.default-locale}) y por último en cualquier idioma disponible.
      * </p>
      *
      * @param clave   La clave del mensaje que se desea obtener.
@@ -47,26 +78,92 @@ public class MessageService implements IMessageService {
      * @return        El mensaje encontrado; en caso contrario, devuelve "Mensaje no encontrado".
      */
     public String getMessage(String clave,Object[] args, Locale locale) {
-        MessageConfig message = messageRepository.findByKeyAndLocale(clave, "es_AR");
-        if (message != null) {
-            return args == null ? message.getValue() : formatMessage(message.getValue(), args);        }
-        return "Mensaje no encontrado";
+        Map<String, CompiledMessage> byLocale = getCatalog().get(clave);
+        if (byLocale == null) {
+            return NOT_FOUND;
+        }
+
+        CompiledMessage message = resolve(byLocale, locale);
+        if (message == null) {
+            return NOT_FOUND;
+        }
+        return args == null ? message.value() : message.format(args);
     }
 
 
     /**
-     * Formatea un mensaje reemplazando los marcadores de posición con los valores proporcionados.
-     * <p>
-     * Este método utiliza {@link MessageFormat} para insertar dinámicamente los valores de los
-     * argumentos en el mensaje dado.
-     * </p>
-     *
-     * @param message El mensaje base que contiene marcadores de posición.
-     * @param args    Los valores que reemplazarán los marcadores de posición en el mensaje.
-     * @return        El mensaje formateado con los valores proporcionados.
+     * Reconstruye el catálogo con el contenido actual de la base de datos y lo reemplaza de forma atómica.
      */
-    private String formatMessage(String message,Object[] args) {
-        return MessageFormat.format(message,args);
+    public synchronized void reload() {
+        try {
+            Map<String, Map<String, CompiledMessage>> messages = new HashMap<>();
+            for (MessageConfig messageConfig : messageRepository.findAll()) {
+                String locale = messageConfig.getLocale() != null ? messageConfig.getLocale() : defaultLocale;
+                messages.computeIfAbsent(messageConfig.getKey(), k -> new HashMap<>())
+                        .put(locale, compile(messageConfig.getValue()));
+            }
+
+            messages.replaceAll((key, byLocale) -> Map.copyOf(byLocale));
+            catalog.set(Map.copyOf(messages));
+            log.info("Catálogo de mensajes actualizado [Mensajes: {}]", messages.size());
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "MessageService", 0L, "", "reload");
+        }
+    }
+
+
+    //Recorre la cadena de idiomas: completo, lenguaje, idioma por defecto y cualquiera disponible.
+    private CompiledMessage resolve(Map<String, CompiledMessage> byLocale, Locale locale) {
+        if (locale != null) {
+            CompiledMessage message = byLocale.get(locale.toString());
+            if (message == null && !locale.getCountry().isEmpty()) {
+                message = byLocale.get(locale.getLanguage());
+            }
+            if (message != null) {
+                return message;
+            }
+        }
+
+        CompiledMessage message = byLocale.get(defaultLocale);
+        if (message == null) {
+            int separator = defaultLocale.indexOf('_');
+            message = separator > 0 ? byLocale.get(defaultLocale.substring(0, separator)) : null;
+        }
+        if (message == null && !byLocale.isEmpty()) {
+            message = byLocale.values().iterator().next();
+        }
+        return message;
+    }
+
+
+    //Parsea el patrón una sola vez. Un patrón inválido se conserva sin formateador y se devuelve tal cual.
+    private CompiledMessage compile(String value) {
+        if (value == null) {
+            return new CompiledMessage(null, null);
+        }
+        try {
+            return new CompiledMessage(value, new MessageFormat(value));
+        } catch (IllegalArgumentException e) {
+            log.warn("Mensaje con formato inválido, se usará sin parámetros: {}", value);
+            return new CompiledMessage(value, null);
+        }
+    }
+
+
+    //Obtiene el catálogo vigente, cargándolo la primera vez que se utiliza.
+    private Map<String, Map<String, CompiledMessage>> getCatalog() {
+        Map<String, Map<String, CompiledMessage>> messages = catalog.get();
+        if (messages == null) {
+            synchronized (this) {
+                messages = catalog.get();
+                if (messages == null) {
+                    reload();
+                    messages = catalog.get();
+                }
+            }
+        }
+        return messages;
     }
 
 
@@ -120,7 +217,8 @@ public class MessageService implements IMessageService {
     /**
      * Actualiza un mensaje en la base de datos.
      * <p>
-     * Este método actualiza la información del mensaje en la base de datos.
+     * Este método actualiza la información del mensaje en la base de datos. El catálogo en memoria se recarga
+     * cuando la transacción confirma (o de inmediato si no hay una transacción activa).
      * </p>
      *
      * @param message El objeto {@link MessageConfig} con los datos actualizados del mensaje.
@@ -129,7 +227,19 @@ public class MessageService implements IMessageService {
 
     @Override
     public MessageConfig updateMessage(MessageConfig message) {
-        return messageRepository.save(message);
+        MessageConfig saved = messageRepository.save(message);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+        return saved;
     }
 
 
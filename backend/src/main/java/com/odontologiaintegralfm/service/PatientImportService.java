@@ -0,0 +1,671 @@
+package com.odontologiaintegralfm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
+import com.odontologiaintegralfm.dto.PatientImportEventDTO;
+import com.odontologiaintegralfm.exception.DataBaseException;
+import com.odontologiaintegralfm.model.*;
+import com.odontologiaintegralfm.repository.*;
+import com.odontologiaintegralfm.service.interfaces.IMessageService;
+import com.odontologiaintegralfm.service.interfaces.IPatientImportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de pacientes desde CSV.
+ * <p>
+ * A diferencia del alta individual ({@link PatientService#create}), que valida y busca cada dato con una consulta,
+ * la importación:
+ * </p>
+ * <ul>
+ *   <li>Lee el archivo de a una fila ({@link CsvReader}), sin cargarlo en memoria.</li>
+ *   <li>Valida los IDs de tipo de DNI, género, nacionalidad, localidad, plan de salud, tipo de teléfono y riesgo
+ *   médico contra los catálogos cargados una sola vez al comenzar.</li>
+ *   <li>Detecta los pacientes repetidos dentro del archivo (tipo + n.° de DNI y n.° de afiliado) en memoria, y
+ *   contra la base de datos con una consulta por bloque ({@code IN}).</li>
+ *   <li>Persiste cada bloque de {@code patient-import.chunk-size} filas en su propia transacción, reutilizando
+ *   emails, teléfonos y domicilios existentes (también buscados por bloque). Los INSERT se agrupan en lotes JDBC
+ *   ({@code hibernate.jdbc.batch_size}).</li>
+ *   <li>Si un bloque falla en la base de datos, sus filas se reintentan de a una, cada una en su propia transacción:
+ *   solo se rechazan las que vuelven a fallar.</li>
+ *   <li>Las filas rechazadas no interrumpen la importación.</li>
+ * </ul>
+ * <p>
+ * La salida es NDJSON: un evento {@code ERROR} por fila rechazada, un {@code PROGRESS} después de cada bloque
+ * y un {@code SUMMARY} al finalizar.
+ * </p>
+ */
+@Slf4j
+@Service
+public class PatientImportService implements IPatientImportService {
+
+    private static final String LAST_NAME = "lastName";
+    private static final String FIRST_NAME = "firstName";
+    private static final String DNI_TYPE_ID = "dniTypeId";
+    private static final String DNI = "dni";
+    private static final String BIRTH_DATE = "birthDate";
+    private static final String GENDER_ID = "genderId";
+    private static final String NATIONALITY_ID = "nationalityId";
+    private static final String EMAILS = "emails";
+    private static final String PHONES = "phones";
+    private static final String LOCALITY_ID = "localityId";
+    private static final String STREET = "street";
+    private static final String NUMBER = "number";
+    private static final String FLOOR = "floor";
+    private static final String APARTMENT = "apartment";
+    private static final String HEALTH_PLAN_ID = "healthPlanId";
+    private static final String AFFILIATE_NUMBER = "affiliateNumber";
+    private static final String MEDICAL_RISK_IDS = "medicalRiskIds";
+
+    private static final List<String> REQUIRED_COLUMNS = List.of(
+            LAST_NAME, FIRST_NAME, DNI_TYPE_ID, DNI, BIRTH_DATE, GENDER_ID, NATIONALITY_ID, LOCALITY_ID, STREET, NUMBER);
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    //Separador de los valores múltiples de una celda (emails, teléfonos y riesgos médicos).
+    private static final String LIST_SEPARATOR = ";";
+
+    @Autowired
+    private IPersonRepository personRepository;
+
+    @Autowired
+    private IPatientRepository patientRepository;
+
+    @Autowired
+    private IContactEmailRepository contactEmailRepository;
+
+    @Autowired
+    private IContactPhoneRepository contactPhoneRepository;
+
+    @Autowired
+    private IAddressRepository addressRepository;
+
+    @Autowired
+    private IDniTypeRepository dniTypeRepository;
+
+    @Autowired
+    private IGenderRepository genderRepository;
+
+    @Autowired
+    private INationalityRepository nationalityRepository;
+
+    @Autowired
+    private ILocalityRepository localityRepository;
+
+    @Autowired
+    private IHealthPlanRepository healthPlanRepository;
+
+    @Autowired
+    private IPhoneTypeRepository phoneTypeRepository;
+
+    @Autowired
+    private IMedicalRiskRepository medicalRiskRepository;
+
+    @Autowired
+    private IUserRepository userRepository;
+
+    @Autowired
+    private AuthenticatedUserService authenticatedUserService;
+
+    @Autowired
+    private IMessageService messageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${patient-import.chunk-size:500}")
+    private int chunkSize;
+
+
+    /**
+     * Fila válida del archivo, lista para persistir.
+     */
+    private record ImportRow(int line, String lastName, String firstName, Long dniTypeId, String dni,
+                             LocalDate birthDate, Long genderId, Long nationalityId, Set<String> emails,
+                             Map<String, Long> phones, Long localityId, String street, Integer number,
+                             String floor, String apartment, Long healthPlanId, String affiliateNumber,
+                             Set<Long> medicalRiskIds) {
+
+        String personKey() {
+            return dniTypeId + "|" + dni;
+        }
+
+        String addressKey() {
+            return addressKey(street, number, floor, apartment, localityId);
+        }
+
+        static String addressKey(String street, Integer number, String floor, String apartment, Long localityId) {
+            return street + "|" + number + "|" + floor + "|" + apartment + "|" + localityId;
+        }
+    }
+
+
+    /**
+     * IDs válidos de cada catálogo.
+     */
+    private record References(Set<Long> dniTypes, Set<Long> genders, Set<Long> nationalities, Set<Long> localities,
+                              Set<Long> healthPlans, Set<Long> phoneTypes, Set<Long> medicalRisks) {
+    }
+
+
+    /**
+     * Contadores de la importación.
+     */
+    private static final class Progress {
+        private int processed;
+        private int imported;
+        private int failed;
+    }
+
+
+    /**
+     * Fila rechazada por la validación, con el motivo ya traducido.
+     */
+    private static final class InvalidRowException extends Exception {
+        private InvalidRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+
+    /**
+     * Importa pacientes desde un archivo CSV, leyéndolo por filas y persistiéndolo por bloques.
+     * <p>
+     * El archivo debe tener encabezado; el orden de las columnas es libre. Los valores múltiples se separan con
+     * {@code ;} (Ej: {@code emails}: {@code a@b.com;c@d.com}, {@code phones}: {@code 1:2214567890;2:2215551234}
+     * como tipo de teléfono y número, {@code medicalRiskIds}: {@code 1;4}). La fecha de nacimiento es {@code yyyy-MM-dd}.
+     * </p>
+     *
+     * @param inputStream Archivo CSV (UTF-8, separado por comas, con encabezado).
+     * @param outputStream Salida (cuerpo de la respuesta).
+     */
+    @Override
+    public void importCsv(InputStream inputStream, OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), ',');
+        Progress progress = new Progress();
+
+        Map<String, Integer> columns = readHeader(csv, writer);
+        if (columns != null) {
+            Long userId = authenticatedUserService.getAuthenticatedUserId();
+            References references = loadReferences();
+
+            //Primera línea de cada paciente y n.° de afiliado del archivo.
+            Map<String, Integer> personLines = new HashMap<>();
+            Set<String> affiliateNumbers = new HashSet<>();
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                progress.processed++;
+                int line = csv.getRecordLine();
+                try {
+                    ImportRow row = parseRow(record, columns, line, references);
+
+                    Integer firstLine = personLines.putIfAbsent(row.personKey(), line);
+                    if (firstLine != null) {
+                        throw new InvalidRowException(message("patientImport.error.duplicateInFile", firstLine));
+                    }
+                    if (row.affiliateNumber() != null && !affiliateNumbers.add(row.affiliateNumber())) {
+                        throw new InvalidRowException(message("patientImport.error.affiliateDuplicateInFile", row.affiliateNumber()));
+                    }
+                    chunk.add(row);
+
+                } catch (InvalidRowException e) {
+                    reject(writer, progress, line, e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, userId, writer, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, userId, writer, progress);
+            }
+        }
+
+        double duration = (System.nanoTime() - start) / 1_000_000_000.0;
+        write(writer, PatientImportEventDTO.summary(progress.processed, progress.imported, progress.failed, duration));
+        writer.flush();
+        log.info("Importación de pacientes finalizada [Procesadas: {}] - [Importadas: {}] - [Rechazadas: {}] - [Duración: {} s]",
+                progress.processed, progress.imported, progress.failed, duration);
+    }
+
+
+    /**
+     * Lee el encabezado y ubica cada columna.
+     *
+     * @return Posición de cada columna, o null si el archivo está vacío o faltan columnas obligatorias (informado en la salida).
+     */
+    private Map<String, Integer> readHeader(CsvReader csv, Writer writer) throws IOException {
+        List<String> header = csv.next();
+        Map<String, Integer> columns = new HashMap<>();
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                //Quita el BOM que agregan algunas planillas al inicio del archivo.
+                String name = (i == 0) ? header.get(i).replace("\uFEFF", "") : header.get(i);
+                columns.putIfAbsent(name.trim(), i);
+            }
+        }
+
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            write(writer, PatientImportEventDTO.error(Math.max(csv.getRecordLine(), 1),
+                    message("patientImport.error.header", String.join(", ", missing))));
+            return null;
+        }
+        return columns;
+    }
+
+
+    /**
+     * Carga los IDs de los catálogos que referencian las filas, una consulta por catálogo.
+     */
+    private References loadReferences() {
+        try {
+            return new References(
+                    ids(dniTypeRepository.findAll(), DniType::getId),
+                    ids(genderRepository.findAll(), Gender::getId),
+                    ids(nationalityRepository.findAll(), Nationality::getId),
+                    ids(localityRepository.findAll(), Locality::getId),
+                    ids(healthPlanRepository.findAll(), HealthPlan::getId),
+                    ids(phoneTypeRepository.findAll(), PhoneType::getId),
+                    ids(medicalRiskRepository.findAll(), MedicalRisk::getId));
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PatientImportService", null, null, "loadReferences");
+        }
+    }
+
+
+    /**
+     * Valida una fila y la convierte.
+     *
+     * @throws InvalidRowException con el primer error encontrado.
+     */
+    private ImportRow parseRow(List<String> record, Map<String, Integer> columns, int line, References references) throws InvalidRowException {
+        int expected = Collections.max(columns.values()) + 1;
+        if (record.size() < expected) {
+            throw new InvalidRowException(message("patientImport.error.columns", record.size(), expected));
+        }
+
+        String lastName = text(record, columns, LAST_NAME, true, 30);
+        String firstName = text(record, columns, FIRST_NAME, true, 30);
+        Long dniTypeId = reference(record, columns, DNI_TYPE_ID, true, references.dniTypes());
+        String dni = text(record, columns, DNI, true, 15);
+        LocalDate birthDate = date(record, columns, BIRTH_DATE);
+        Long genderId = reference(record, columns, GENDER_ID, true, references.genders());
+        Long nationalityId = reference(record, columns, NATIONALITY_ID, true, references.nationalities());
+
+        Set<String> emails = new LinkedHashSet<>();
+        for (String email : list(text(record, columns, EMAILS, false, Integer.MAX_VALUE))) {
+            if (email.length() > 50) {
+                throw new InvalidRowException(message("patientImport.error.length", EMAILS, 50));
+            }
+            if (!EMAIL.matcher(email).matches()) {
+                throw new InvalidRowException(message("patientImport.error.format", EMAILS, email));
+            }
+            emails.add(email);
+        }
+
+        Map<String, Long> phones = new LinkedHashMap<>();
+        for (String phone : list(text(record, columns, PHONES, false, Integer.MAX_VALUE))) {
+            int separator = phone.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidRowException(message("patientImport.error.format", PHONES, phone));
+            }
+            Long phoneTypeId = toReference(PHONES, phone.substring(0, separator).trim(), references.phoneTypes());
+            String number = phone.substring(separator + 1).trim();
+            if (number.isEmpty() || number.length() > 20) {
+                throw new InvalidRowException(message("patientImport.error.format", PHONES, phone));
+            }
+            phones.putIfAbsent(number, phoneTypeId);
+        }
+
+        Long localityId = reference(record, columns, LOCALITY_ID, true, references.localities());
+        String street = text(record, columns, STREET, true, 30);
+        Integer number = integer(record, columns, NUMBER);
+        String floor = text(record, columns, FLOOR, false, 2);
+        String apartment = text(record, columns, APARTMENT, false, 2);
+
+        //Como en el alta individual, el n.° de afiliado se guarda solo junto con el plan de salud.
+        Long healthPlanId = reference(record, columns, HEALTH_PLAN_ID, false, references.healthPlans());
+        String affiliateNumber = (healthPlanId == null) ? null : text(record, columns, AFFILIATE_NUMBER, false, 20);
+
+        Set<Long> medicalRiskIds = new LinkedHashSet<>();
+        for (String medicalRiskId : list(text(record, columns, MEDICAL_RISK_IDS, false, Integer.MAX_VALUE))) {
+            medicalRiskIds.add(toReference(MEDICAL_RISK_IDS, medicalRiskId, references.medicalRisks()));
+        }
+
+        return new ImportRow(line, lastName, firstName, dniTypeId, dni, birthDate, genderId, nationalityId, emails,
+                phones, localityId, street, number, floor, apartment, healthPlanId, affiliateNumber, medicalRiskIds);
+    }
+
+
+    /**
+     * Persiste un bloque de filas en una transacción: descarta las que ya existen en la base de datos y crea el resto.
+     * Si la transacción falla, el bloque se revierte y sus filas se reintentan de a una ({@link #importRow}), para que
+     * una fila con error no impida importar las demás. Si no se puede obtener una conexión, se rechaza el bloque.
+     */
+    private void importChunk(List<ImportRow> chunk, Long userId, Writer writer, Progress progress) throws IOException {
+        Map<Integer, String> rejected = new TreeMap<>();
+
+        try {
+            progress.imported += persistInTransaction(chunk, userId, rejected);
+
+        } catch (CannotCreateTransactionException e) {
+            log.warn("Falló la importación del bloque de pacientes [Líneas: {} a {}] - [Detalle: {}]",
+                    chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+            String message = message("patientImport.error.database");
+            rejected.clear();
+            for (ImportRow row : chunk) {
+                rejected.put(row.line(), message);
+            }
+
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Falló la importación del bloque de pacientes, se reintenta por fila [Líneas: {} a {}] - [Detalle: {}]",
+                    chunk.get(0).line(), chunk.get(chunk.size() - 1).line(), e.getMessage());
+            //Los rechazos del intento se revirtieron con el bloque: se vuelven a evaluar en cada fila.
+            rejected.clear();
+            for (ImportRow row : chunk) {
+                progress.imported += importRow(row, userId, rejected);
+            }
+        }
+
+        for (Map.Entry<Integer, String> entry : rejected.entrySet()) {
+            reject(writer, progress, entry.getKey(), entry.getValue());
+        }
+        write(writer, PatientImportEventDTO.progress(progress.processed, progress.imported, progress.failed));
+        writer.flush();
+    }
+
+
+    /**
+     * Reintenta una fila de un bloque fallido en su propia transacción.
+     *
+     * @return 1 si se importó, 0 si se rechazó (el motivo queda en {@code rejected}).
+     */
+    private int importRow(ImportRow row, Long userId, Map<Integer, String> rejected) {
+        try {
+            return persistInTransaction(List.of(row), userId, rejected);
+
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Falló la importación del paciente [Línea: {}] - [Detalle: {}]", row.line(), e.getMessage());
+            rejected.put(row.line(), message("patientImport.error.database"));
+            return 0;
+        }
+    }
+
+
+    /**
+     * Descarta las filas que ya existen y crea el resto en una transacción.
+     * Antes de confirmar se vacía el contexto de persistencia, para que la memoria no crezca con las filas importadas.
+     *
+     * @return Cantidad de filas importadas.
+     */
+    private int persistInTransaction(List<ImportRow> rows, Long userId, Map<Integer, String> rejected) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<ImportRow> accepted = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            rejectExisting(rows, rejected, accepted);
+            if (!accepted.isEmpty()) {
+                persist(accepted, userId);
+                entityManager.flush();
+            }
+            entityManager.clear();
+        });
+        return accepted.size();
+    }
+
+
+    /**
+     * Separa las filas cuyo paciente o n.° de afiliado ya existe en la base de datos, con una consulta para cada caso.
+     */
+    private void rejectExisting(List<ImportRow> chunk, Map<Integer, String> rejected, List<ImportRow> accepted) {
+        Set<String> existingPersons = personRepository.findByDniIn(chunk.stream().map(ImportRow::dni).collect(Collectors.toSet()))
+                .stream()
+                .map(person -> person.getDniType().getId() + "|" + person.getDni())
+                .collect(Collectors.toSet());
+
+        Set<String> affiliateNumbers = chunk.stream()
+                .map(ImportRow::affiliateNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> existingAffiliates = affiliateNumbers.isEmpty() ? Set.of()
+                : new HashSet<>(patientRepository.findExistingAffiliateNumbers(affiliateNumbers));
+
+        for (ImportRow row : chunk) {
+            if (existingPersons.contains(row.personKey())) {
+                rejected.put(row.line(), message("patientImport.error.personExists"));
+            } else if (row.affiliateNumber() != null && existingAffiliates.contains(row.affiliateNumber())) {
+                rejected.put(row.line(), message("patientImport.error.affiliateExists", row.affiliateNumber()));
+            } else {
+                accepted.add(row);
+            }
+        }
+    }
+
+
+    /**
+     * Crea las personas, pacientes y riesgos médicos del bloque. Emails, teléfonos y domicilios se reutilizan si ya
+     * existen (en la base de datos o en otra fila del bloque); se buscan con una consulta por tipo de dato.
+     */
+    private void persist(List<ImportRow> rows, Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        UserSec createdBy = (userId == null) ? null : userRepository.getReferenceById(userId);
+
+        Map<String, ContactEmail> emails = contactEmailRepository.findByEmailIn(
+                        rows.stream().flatMap(row -> row.emails().stream()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ContactEmail::getEmail, Function.identity(), (a, b) -> a));
+
+        Map<String, ContactPhone> phones = contactPhoneRepository.findByNumberIn(
+                        rows.stream().flatMap(row -> row.phones().keySet().stream()).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(ContactPhone::getNumber, Function.identity(), (a, b) -> a));
+
+        Map<String, Address> addresses = addressRepository.findByLocalityIdInAndStreetIn(
+                        rows.stream().map(ImportRow::localityId).collect(Collectors.toSet()),
+                        rows.stream().map(ImportRow::street).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(address -> ImportRow.addressKey(address.getStreet(), address.getNumber(),
+                                address.getFloor(), address.getApartment(), address.getLocality().getId()),
+                        Function.identity(), (a, b) -> a));
+
+        for (ImportRow row : rows) {
+            Person person = new Person();
+            person.setFirstName(row.firstName());
+            person.setLastName(row.lastName());
+            person.setDniType(dniTypeRepository.getReferenceById(row.dniTypeId()));
+            person.setDni(row.dni());
+            person.setBirthDate(row.birthDate());
+            person.setGender(genderRepository.getReferenceById(row.genderId()));
+            person.setNationality(nationalityRepository.getReferenceById(row.nationalityId()));
+
+            for (String email : row.emails()) {
+                person.getContactEmails().add(emails.computeIfAbsent(email, this::newEmail));
+            }
+            for (Map.Entry<String, Long> phone : row.phones().entrySet()) {
+                person.getContactPhones().add(phones.computeIfAbsent(phone.getKey(), number -> newPhone(number, phone.getValue())));
+            }
+            person.setAddress(addresses.computeIfAbsent(row.addressKey(), key -> newAddress(row)));
+
+            person.setCreatedAt(now);
+            person.setCreatedBy(createdBy);
+            person.setEnabled(true);
+            entityManager.persist(person);
+
+            Patient patient = new Patient();
+            patient.setPerson(person);
+            if (row.healthPlanId() != null) {
+                patient.setHealthPlan(healthPlanRepository.getReferenceById(row.healthPlanId()));
+                patient.setAffiliateNumber(row.affiliateNumber());
+            }
+            patient.setCreatedAt(now);
+            patient.setCreatedBy(createdBy);
+            patient.setEnabled(true);
+            entityManager.persist(patient);
+
+            for (Long medicalRiskId : row.medicalRiskIds()) {
+                PatientMedicalRisk risk = new PatientMedicalRisk();
+                risk.setPatient(patient);
+                risk.setMedicalRisk(medicalRiskRepository.getReferenceById(medicalRiskId));
+                risk.setCreatedAt(now);
+                risk.setCreatedBy(createdBy);
+                risk.setEnabled(true);
+                entityManager.persist(risk);
+            }
+        }
+    }
+
+
+    private ContactEmail newEmail(String email) {
+        ContactEmail contactEmail = new ContactEmail();
+        contactEmail.setEmail(email);
+        entityManager.persist(contactEmail);
+        return contactEmail;
+    }
+
+
+    private ContactPhone newPhone(String number, Long phoneTypeId) {
+        ContactPhone contactPhone = new ContactPhone();
+        contactPhone.setNumber(number);
+        contactPhone.setPhoneType(phoneTypeRepository.getReferenceById(phoneTypeId));
+        entityManager.persist(contactPhone);
+        return contactPhone;
+    }
+
+
+    private Address newAddress(ImportRow row) {
+        Address address = new Address();
+        address.setStreet(row.street());
+        address.setNumber(row.number());
+        address.setFloor(row.floor());
+        address.setApartment(row.apartment());
+        address.setLocality(localityRepository.getReferenceById(row.localityId()));
+        entityManager.persist(address);
+        return address;
+    }
+
+
+    //Valor de una celda sin espacios alrededor; null si la columna no está en el archivo o la celda está vacía.
+    private String text(List<String> record, Map<String, Integer> columns, String column, boolean required, int maxLength) throws InvalidRowException {
+        Integer index = columns.get(column);
+        String value = (index == null) ? null : record.get(index).trim();
+        if (value == null || value.isEmpty()) {
+            if (required) {
+                throw new InvalidRowException(message("patientImport.error.required", column));
+            }
+            return null;
+        }
+        if (value.length() > maxLength) {
+            throw new InvalidRowException(message("patientImport.error.length", column, maxLength));
+        }
+        return value;
+    }
+
+
+    private Integer integer(List<String> record, Map<String, Integer> columns, String column) throws InvalidRowException {
+        String value = text(record, columns, column, true, Integer.MAX_VALUE);
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException(message("patientImport.error.format", column, value));
+        }
+    }
+
+
+    private LocalDate date(List<String> record, Map<String, Integer> columns, String column) throws InvalidRowException {
+        String value = text(record, columns, column, true, Integer.MAX_VALUE);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRowException(message("patientImport.error.format", column, value));
+        }
+    }
+
+
+    private Long reference(List<String> record, Map<String, Integer> columns, String column, boolean required, Set<Long> ids) throws InvalidRowException {
+        String value = text(record, columns, column, required, Integer.MAX_VALUE);
+        return (value == null) ? null : toReference(column, value, ids);
+    }
+
+
+    //Convierte el ID y verifica que exista en el catálogo.
+    private Long toReference(String column, String value, Set<Long> ids) throws InvalidRowException {
+        Long id;
+        try {
+            id = Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRowException(message("patientImport.error.format", column, value));
+        }
+        if (!ids.contains(id)) {
+            throw new InvalidRowException(message("patientImport.error.reference", column, value));
+        }
+        return id;
+    }
+
+
+    //Valores no vacíos de una celda con varios valores.
+    private static List<String> list(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(LIST_SEPARATOR))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+
+
+    private static <T> Set<Long> ids(List<T> entities, Function<T, Long> id) {
+        return entities.stream().map(id).collect(Collectors.toSet());
+    }
+
+
+    private void reject(Writer writer, Progress progress, int line, String message) throws IOException {
+        progress.failed++;
+        write(writer, PatientImportEventDTO.error(line, message));
+    }
+
+
+    private void write(Writer writer, PatientImportEventDTO event) throws IOException {
+        writer.write(objectMapper.writeValueAsString(event));
+        writer.write('\n');
+    }
+
+
+    private String message(String key, Object... args) {
+        return messageService.getMessage(key, args, LocaleContextHolder.getLocale());
+    }
+}
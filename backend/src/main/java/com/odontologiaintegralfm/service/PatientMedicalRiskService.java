@@ -17,8 +17,10 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -50,7 +52,7 @@ public class PatientMedicalRiskService implements IPatientMedicalRiskService {
         medicalHistoryRisk.setMedicalRisk(medicalRiskService.getById(IdMedicalRisk));
         medicalHistoryRisk.setObservation(observation);
         medicalHistoryRisk.setCreatedAt(LocalDateTime.now());
-        medicalHistoryRisk.setCreatedBy(authenticatedUserService.getAuthenticatedUser());
+        medicalHistoryRisk.setCreatedBy(authenticatedUserService.getAuthenticatedUserReference());
         medicalHistoryRisk.setEnabled(true);
         return  medicalHistoryRisk;
     }
@@ -72,6 +74,27 @@ public class PatientMedicalRiskService implements IPatientMedicalRiskService {
     }
 
 
+    /**
+     * Método para obtener en una única consulta ({@code patient_id IN (...)}) los riesgos clínicos "Habilitados"
+     * de varios pacientes, junto con el riesgo médico.
+     * @param patientIds IDs de los pacientes.
+     * @return Riesgos agrupados por ID de paciente (los pacientes sin riesgos no figuran en el mapa).
+     */
+    @Override
+    public Map<Long, Set<PatientMedicalRisk>> getByPatientIdsAndEnabledTrue(Collection<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try{
+            return patientMedicalRiskRepository.findByPatientIdInAndEnabledTrue(patientIds).stream()
+                    .collect(Collectors.groupingBy(risk -> risk.getPatient().getId(), Collectors.toSet()));
+
+        }catch (DataAccessException | CannotCreateTransactionException e){
+            throw new DataBaseException(e, "PatientMedicalRiskService", null, null, "getByPatientIdsAndEnabledTrue");
+        }
+    }
+
+
     private Set<PatientMedicalRisk> getByPatientId(Long patientId) {
         try{
             return patientMedicalRiskRepository.findByPatientId(patientId);
@@ -116,8 +139,8 @@ public class PatientMedicalRiskService implements IPatientMedicalRiskService {
                     if (risk.isEnabled()) {
                         risk.setEnabled(false);
                         risk.setUpdatedAt(LocalDateTime.now());
-                        risk.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
-                        risk.setDisabledBy(authenticatedUserService.getAuthenticatedUser());
+                        risk.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
+                        risk.setDisabledBy(authenticatedUserService.getAuthenticatedUserReference());
                         risk.setDisabledAt(LocalDateTime.now());
                         patientMedicalRiskRepository.save(risk);
                     }
@@ -147,7 +170,7 @@ public class PatientMedicalRiskService implements IPatientMedicalRiskService {
                         if(currentRisk.isEnabled()) {
                             currentRisk.setObservation(dto.observation());
                             currentRisk.setUpdatedAt(LocalDateTime.now());
-                            currentRisk.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
+                            currentRisk.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
                             exists = true;
                             break;
                         }else{
@@ -183,8 +206,8 @@ public class PatientMedicalRiskService implements IPatientMedicalRiskService {
                 if (!exists) {
                     risk.setEnabled(false);
                     risk.setUpdatedAt(LocalDateTime.now());
-                    risk.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
-                    risk.setDisabledBy(authenticatedUserService.getAuthenticatedUser());
+                    risk.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
+                    risk.setDisabledBy(authenticatedUserService.getAuthenticatedUserReference());
                     risk.setDisabledAt(LocalDateTime.now());
                     patientMedicalRiskRepository.save(risk);
                 }
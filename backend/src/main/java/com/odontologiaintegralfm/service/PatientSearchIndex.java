@@ -0,0 +1,377 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.dto.PatientSearchResponseDTO;
+import com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO;
+import com.odontologiaintegralfm.exception.DataBaseException;
+import com.odontologiaintegralfm.repository.IPatientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria para la búsqueda de pacientes habilitados por prefijo (typeahead).
+ * <p>
+ * Indexa como términos normalizados (en minúsculas y sin acentos) cada palabra del apellido y del nombre,
+ * el DNI y el n.° de afiliado (estos dos sin puntos ni guiones). Los términos se guardan ordenados, por lo que
+ * los que comienzan con un prefijo son un rango contiguo del índice: la búsqueda no recorre la tabla de pacientes
+ * ni usa {@code LIKE '%x%'}.
+ * </p>
+ * <ul>
+ *   <li>Se construye al iniciar la aplicación con una única consulta. Si falla, el inicio continúa: la búsqueda
+ *   se resuelve en la base (por prefijo) y la construcción se reintenta en la actualización periódica.</li>
+ *   <li>Se actualiza por paciente desde {@link PatientSearchIndexListener}, después del commit de cada alta o
+ *   modificación hecha por esta instancia; los pacientes deshabilitados se quitan.</li>
+ *   <li>Cada {@code patient-search.refresh-ms} incorpora los pacientes dados de alta, modificados o deshabilitados
+ *   desde la última actualización, incluidos los escritos por otras instancias de la aplicación: con varias
+ *   instancias, el índice de cada una puede demorarse hasta ese intervalo.</li>
+ *   <li>Con varias palabras, todas deben ser prefijo de algún término del paciente (Ej: "gonz mar").</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class PatientSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[\\s\\-]+");
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    //Margen hacia atrás de cada actualización: cubre commits demorados y diferencias de reloj entre instancias.
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    @Autowired
+    private IPatientRepository patientRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${patient-search.min-length:2}")
+    private int minLength;
+
+    @Value("${patient-search.max-results:20}")
+    private int maxResults;
+
+    private volatile Index current = new Index();
+
+    //Momento de la última construcción o actualización desde la base (null si todavía no se construyó).
+    private volatile LocalDateTime lastRefreshAt;
+
+    //false mientras la construcción del índice falle: la búsqueda se resuelve en la base.
+    private volatile boolean available = true;
+
+
+    /**
+     * Paciente indexado, con los términos bajo los que figura (para quitarlos al actualizarlo).
+     */
+    private record IndexedPatient(PatientSearchResponseDTO patient, List<String> terms) {
+    }
+
+
+    /**
+     * Término → IDs de pacientes, y pacientes por ID.
+     */
+    private static final class Index {
+        private final ConcurrentSkipListMap<String, Set<Long>> terms = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<Long, IndexedPatient> patients = new ConcurrentHashMap<>();
+    }
+
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("patient.search.index.size", this, index -> index.current.patients.size())
+                .description("Pacientes en el índice de búsqueda")
+                .register(meterRegistry);
+    }
+
+
+    /**
+     * Construye el índice al iniciar la aplicación. Un error de la base no impide el inicio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuild();
+        } catch (DataBaseException e) {
+            available = false;
+            log.error("No se pudo construir el índice de búsqueda de pacientes; se busca en la base hasta el próximo intento: {}", e.getMessage());
+        }
+    }
+
+
+    /**
+     * Construye el índice completo a partir de la base de datos y reemplaza al vigente.
+     * Las actualizaciones por paciente esperan a que termine, para no perderse en el reemplazo.
+     */
+    public synchronized void rebuild() {
+        try {
+            long start = System.nanoTime();
+            LocalDateTime refreshAt = LocalDateTime.now();
+            List<PatientSearchRowDTO> rows = patientRepository.findAllSearchRows();
+
+            Index index = new Index();
+            for (PatientSearchRowDTO row : rows) {
+                add(index, row);
+            }
+            current = index;
+            lastRefreshAt = refreshAt;
+            available = true;
+            log.info("Índice de búsqueda de pacientes construido [Pacientes: {}] - [Términos: {}] - [Duración: {} ms]",
+                    index.patients.size(), index.terms.size(), (System.nanoTime() - start) / 1_000_000);
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PatientSearchIndex", null, null, "rebuild");
+        }
+    }
+
+
+    /**
+     * Incorpora los pacientes dados de alta, modificados o deshabilitados (por cualquier instancia) desde la última
+     * actualización. Si el índice todavía no se construyó, lo intenta. Un fallo de la base se registra y se reintenta
+     * en la próxima ejecución, sin alterar el índice vigente.
+     */
+    @Scheduled(initialDelayString = "${patient-search.refresh-ms:60000}", fixedDelayString = "${patient-search.refresh-ms:60000}")
+    public void refreshRecent() {
+        try {
+            if (lastRefreshAt == null) {
+                rebuild();
+                return;
+            }
+
+            LocalDateTime refreshAt = LocalDateTime.now();
+            LocalDateTime since = lastRefreshAt.minus(REFRESH_OVERLAP);
+            List<PatientSearchRowDTO> changed = patientRepository.findSearchRowsChangedSince(since);
+            List<Long> disabled = patientRepository.findIdsDisabledSince(since);
+
+            changed.forEach(this::put);
+            disabled.forEach(this::remove);
+            lastRefreshAt = refreshAt;
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            log.warn("No se pudo actualizar el índice de búsqueda de pacientes, se conserva el vigente: {}", e.getMessage());
+        } catch (DataBaseException e) {
+            log.warn("No se pudo construir el índice de búsqueda de pacientes, se reintentará: {}", e.getMessage());
+        }
+    }
+
+
+    /**
+     * Busca pacientes cuyos términos comiencen con cada palabra de la consulta.
+     * <p>
+     * Recorre el rango de términos de la palabra más larga (la más selectiva) y verifica las demás contra
+     * los términos de cada candidato, hasta completar el máximo de resultados.
+     * </p>
+     *
+     * @param query Texto ingresado (apellido, nombre, DNI o n.° de afiliado, completo o parcial).
+     * @param limit Máximo de resultados pedido (acotado por {@code patient-search.max-results}).
+     * @return Pacientes encontrados; vacío si la consulta es más corta que {@code patient-search.min-length}.
+     */
+    public List<PatientSearchResponseDTO> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        String driver = Collections.max(tokens, Comparator.comparingInt(String::length));
+        if (driver.length() < minLength) {
+            return List.of();
+        }
+        int max = Math.max(1, Math.min(limit, maxResults));
+        if (!available) {
+            return searchDatabase(driver, tokens, max);
+        }
+
+        Index index = current;
+        Map<Long, PatientSearchResponseDTO> results = new LinkedHashMap<>();
+        for (Set<Long> ids : index.terms.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+            for (Long id : ids) {
+                IndexedPatient candidate = index.patients.get(id);
+                if (candidate == null || results.containsKey(id) || !matchesAll(candidate.terms(), tokens)) {
+                    continue;
+                }
+                results.put(id, candidate.patient());
+                if (results.size() >= max) {
+                    return new ArrayList<>(results.values());
+                }
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+
+    /**
+     * Búsqueda en la base mientras el índice no está disponible: prefijo de la palabra más larga en apellido,
+     * nombre, DNI o n.° de afiliado, y las demás palabras verificadas sobre los términos de cada paciente.
+     */
+    private List<PatientSearchResponseDTO> searchDatabase(String driver, List<String> tokens, int max) {
+        try {
+            List<PatientSearchResponseDTO> results = new ArrayList<>();
+            for (PatientSearchRowDTO row : patientRepository.findSearchRowsByPrefix(driver + "%", PageRequest.ofSize(max * 5))) {
+                if (matchesAll(terms(row), tokens)) {
+                    results.add(toResponse(row));
+                    if (results.size() >= max) {
+                        break;
+                    }
+                }
+            }
+            return results;
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PatientSearchIndex", null, driver, "searchDatabase");
+        }
+    }
+
+
+    /**
+     * Agrega o reemplaza un paciente en el índice después del commit de la transacción en curso
+     * (de inmediato si no hay transacción).
+     */
+    public void putAfterCommit(PatientSearchRowDTO row) {
+        afterCommit(() -> put(row));
+    }
+
+
+    /**
+     * Quita un paciente del índice después del commit de la transacción en curso (de inmediato si no hay transacción).
+     */
+    public void removeAfterCommit(Long patientId) {
+        afterCommit(() -> remove(patientId));
+    }
+
+
+    public synchronized void put(PatientSearchRowDTO row) {
+        Index index = current;
+        removeFrom(index, row.id());
+        add(index, row);
+    }
+
+
+    public synchronized void remove(Long patientId) {
+        removeFrom(current, patientId);
+    }
+
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+
+    private static void add(Index index, PatientSearchRowDTO row) {
+        List<String> terms = terms(row);
+        index.patients.put(row.id(), new IndexedPatient(toResponse(row), terms));
+        for (String term : terms) {
+            index.terms.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(row.id());
+        }
+    }
+
+
+    //Términos normalizados de un paciente: palabras del apellido y del nombre, DNI y n.° de afiliado.
+    private static List<String> terms(PatientSearchRowDTO row) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.addAll(tokenize(row.lastName()));
+        terms.addAll(tokenize(row.firstName()));
+        addIdentifier(terms, row.dni());
+        addIdentifier(terms, row.affiliateNumber());
+        return List.copyOf(terms);
+    }
+
+
+    private static PatientSearchResponseDTO toResponse(PatientSearchRowDTO row) {
+        return new PatientSearchResponseDTO(row.id(), row.firstName(), row.lastName(), row.dni(), row.affiliateNumber());
+    }
+
+
+    private static void removeFrom(Index index, Long patientId) {
+        IndexedPatient previous = index.patients.remove(patientId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            index.terms.computeIfPresent(term, (key, ids) -> {
+                ids.remove(patientId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+
+    //Cada palabra de la consulta debe ser prefijo de algún término del paciente.
+    private static boolean matchesAll(List<String> terms, List<String> tokens) {
+        for (String token : tokens) {
+            boolean found = false;
+            for (String term : terms) {
+                if (term.startsWith(token)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    //DNI y n.° de afiliado: un término sin separadores (Ej: "30.123.456" → "30123456") y uno por cada parte
+    //separada por guiones o espacios, para encontrarlos también si se ingresan con esos separadores.
+    private static void addIdentifier(Set<String> terms, String value) {
+        if (value != null) {
+            String term = NON_ALPHANUMERIC.matcher(normalize(value)).replaceAll("");
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+            terms.addAll(tokenize(value));
+        }
+    }
+
+
+    //Separa en palabras por espacios y guiones, y quita de cada una los demás signos (Ej: "O'Brien" → "obrien").
+    private static List<String> tokenize(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(normalize(value))) {
+            String token = NON_ALPHANUMERIC.matcher(word).replaceAll("");
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+
+    //Minúsculas y sin acentos (Ej: "Núñez" → "nunez").
+    private static String normalize(String value) {
+        return DIACRITICS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
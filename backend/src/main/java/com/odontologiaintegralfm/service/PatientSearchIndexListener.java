@@ -0,0 +1,54 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO;
+import com.odontologiaintegralfm.model.Patient;
+import com.odontologiaintegralfm.model.Person;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de {@link Patient} que mantiene actualizado el {@link PatientSearchIndex}.
+ * <p>
+ * Toma los datos del paciente al momento de escribirlo y los aplica al índice después del commit, de modo que
+ * una transacción revertida no deja datos en el índice. El alta y la modificación desde {@link PatientService}
+ * siempre escriben el paciente (datos de auditoría), por lo que también se reflejan los cambios de la persona.
+ * </p>
+ * <p>
+ * Hibernate obtiene el listener desde el contexto de Spring; el índice se inyecta en forma diferida porque
+ * depende del repositorio, que a su vez necesita el EntityManagerFactory en construcción.
+ * </p>
+ */
+@Component
+public class PatientSearchIndexListener {
+
+    @Autowired
+    @Lazy
+    private PatientSearchIndex patientSearchIndex;
+
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Patient patient) {
+        if (!patient.isEnabled()) {
+            patientSearchIndex.removeAfterCommit(patient.getId());
+            return;
+        }
+        Person person = patient.getPerson();
+        patientSearchIndex.putAfterCommit(new PatientSearchRowDTO(
+                patient.getId(),
+                person.getFirstName(),
+                person.getLastName(),
+                person.getDni(),
+                patient.getAffiliateNumber()));
+    }
+
+
+    @PostRemove
+    public void onRemove(Patient patient) {
+        patientSearchIndex.removeAfterCommit(patient.getId());
+    }
+}
@@ -1,28 +1,50 @@
 package com.odontologiaintegralfm.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
 import com.odontologiaintegralfm.dto.*;
+import com.odontologiaintegralfm.dto.internal.KeysetCursor;
 import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.enums.PatientExportFormat;
+import com.odontologiaintegralfm.exception.BadRequestException;
 import com.odontologiaintegralfm.exception.ConflictException;
 import com.odontologiaintegralfm.exception.DataBaseException;
 import com.odontologiaintegralfm.exception.NotFoundException;
 import com.odontologiaintegralfm.model.*;
 import com.odontologiaintegralfm.repository.IPatientRepository;
 import com.odontologiaintegralfm.service.interfaces.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 
 
@@ -46,6 +68,34 @@ public class PatientService implements IPatientService {
     @Autowired
     private AuthenticatedUserService authenticatedUserService;
 
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${patient-export.chunk-size:500}")
+    private int exportChunkSize;
+
+    @Value("${pagination.cursor.max-size:100}")
+    private int cursorMaxSize;
+
+    private static final String CSV_HEADER = "id,lastName,firstName,dniType,dni,birthDate,gender,nationality,emails,phones," +
+            "country,province,locality,street,number,floor,apartment,healthPlan,affiliateNumber,medicalRisks";
+
+
+    /**
+     * Bloque de la exportación: pacientes convertidos y posición del último.
+     */
+    private record ExportChunk(List<PatientResponseDTO> patients, KeysetCursor last) {
+    }
+
 
     /**
      * Crea un nuevo paciente en el sistema junto a los riesgos médicos.
@@ -84,7 +134,7 @@ public class PatientService implements IPatientService {
             }
 
             patient.setCreatedAt(LocalDateTime.now());
-            patient.setCreatedBy(authenticatedUserService.getAuthenticatedUser());
+            patient.setCreatedBy(authenticatedUserService.getAuthenticatedUserReference());
             patient.setEnabled(true);
 
             //Persiste el paciente.
@@ -141,7 +191,7 @@ public class PatientService implements IPatientService {
 
             //Cambios para auditoria.
             patient.setUpdatedAt(LocalDateTime.now());
-            patient.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
+            patient.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
 
             patientRepository.save(patient);
 
@@ -160,10 +210,18 @@ public class PatientService implements IPatientService {
 
     /**
      * Método para obtener un listado de pacientes habilitados en el sistema.
+     * <p>
+     * La página se arma con una cantidad fija de consultas, independiente de su tamaño:
+     * <ol>
+     *     <li>Pacientes con la persona, sus asociaciones simples y el plan de salud (más el conteo de la página).</li>
+     *     <li>Emails y teléfonos de las personas de la página (una consulta por colección).</li>
+     *     <li>Riesgos médicos habilitados de los pacientes de la página ({@code patient_id IN (...)}).</li>
+     * </ol>
      *
      * @return Una respuesta que contiene una lista de objetos {@link PatientResponseDTO }
      */
     @Override
+    @Transactional(readOnly = true)
     public Response<Page<PatientResponseDTO>> getAll(int page, int size, String sortBy, String direction) {
         try{
 
@@ -177,12 +235,7 @@ public class PatientService implements IPatientService {
 
             Page <Patient> patients = patientRepository.findAllByEnabledTrue(pageable);
 
-            Page<PatientResponseDTO> patientResponseDTOS = patients
-                    .map(patient -> {
-                        Set<PatientMedicalRisk> risks = patientMedicalRiskService.getByPatientIdAndEnabledTrue(patient.getId());
-                        Set<PatientMedicalRiskResponseDTO> riskDTOs = patientMedicalRiskService.convertToDTO(risks);
-                       return buildResponseDTO(patient,riskDTOs);
-                    });
+            Page<PatientResponseDTO> patientResponseDTOS = new PageImpl<>(buildResponseDTOs(patients.getContent()), patients.getPageable(), patients.getTotalElements());
 
             return new Response<>(true,null, patientResponseDTOS);
         }catch (DataAccessException | CannotCreateTransactionException e) {
@@ -190,6 +243,107 @@ public class PatientService implements IPatientService {
         }
     }
 
+
+    /**
+     * Método para obtener un listado de pacientes habilitados paginado por cursor (keyset).
+     * <p>
+     * Los pacientes se ordenan por apellido e ID, el mismo orden por defecto del listado paginado. Cada página
+     * continúa desde el último paciente de la anterior, sin OFFSET ni conteo, por lo que su costo no depende
+     * de la profundidad de la página. Los contactos y riesgos médicos se cargan en bloque, como en {@link #getAll}.
+     * </p>
+     *
+     * @param cursor Cursor devuelto en la página anterior, o {@code null} para la primera página.
+     * @param size Cantidad de pacientes por página (acotada por {@code pagination.cursor.max-size}).
+     * @return Una respuesta que contiene la página y el cursor de la siguiente ({@code null} si no hay más pacientes).
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Response<CursorPageDTO<PatientResponseDTO>> getAllByCursor(String cursor, int size) {
+        KeysetCursor after = decodeCursor(cursor);
+        int limit = Math.max(1, Math.min(size, cursorMaxSize));
+        try{
+            //Se pide un paciente de más para saber si hay una página siguiente.
+            List<Patient> patients = findNextPatients(after, limit + 1);
+
+            String nextCursor = null;
+            if (patients.size() > limit) {
+                patients = patients.subList(0, limit);
+                Patient last = patients.get(limit - 1);
+                nextCursor = new KeysetCursor(last.getPerson().getLastName(), last.getId()).encode();
+            }
+
+            return new Response<>(true, null, new CursorPageDTO<>(buildResponseDTOs(patients), nextCursor));
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PatientService",null,null, "getAllByCursor");
+        }
+    }
+
+    /**
+     * Exporta los pacientes habilitados en NDJSON o CSV, ordenados por apellido e ID.
+     * <p>
+     * Recorre los pacientes por bloques con la misma consulta por keyset de {@link #getAllByCursor} (persona,
+     * domicilio y plan de salud en un JOIN FETCH; emails, teléfonos y riesgos médicos activos en bloque). Cada bloque
+     * se lee en su propia transacción de solo lectura, se convierte a DTO y se vacía el contexto de persistencia
+     * antes de escribirlo: la memoria usada depende del tamaño del bloque y no de la cantidad de pacientes, y la
+     * conexión no queda tomada mientras se escribe en la salida.
+     * </p>
+     *
+     * @param format Formato de exportación.
+     * @param outputStream Salida (cuerpo de la respuesta).
+     */
+    @Override
+    public void export(PatientExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CsvWriter csv = new CsvWriter(writer, ',');
+        if (format == PatientExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        try {
+            KeysetCursor after = null;
+            ExportChunk chunk;
+            do {
+                KeysetCursor position = after;
+                chunk = transactionTemplate.execute(status -> readExportChunk(position));
+
+                for (PatientResponseDTO patient : chunk.patients()) {
+                    if (format == PatientExportFormat.CSV) {
+                        writeCsv(csv, patient);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(patient));
+                        writer.write('\n');
+                    }
+                }
+                writer.flush();
+                after = chunk.last();
+            } while (chunk.patients().size() == exportChunkSize);
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PatientService", null, null, "export");
+        }
+    }
+
+
+    /**
+     * Método para buscar pacientes habilitados por apellido, nombre, DNI o n.° de afiliado (completos o parciales).
+     * <p>
+     * La búsqueda se resuelve en memoria con el {@link PatientSearchIndex}, sin consultar la base de datos.
+     * </p>
+     *
+     * @param query Texto ingresado (Ej: "gonz", "gonzalez mar", "30123").
+     * @param limit Máximo de resultados.
+     * @return Una respuesta que contiene los pacientes encontrados.
+     */
+    @Override
+    public Response<List<PatientSearchResponseDTO>> search(String query, int limit) {
+        return new Response<>(true, null, patientSearchIndex.search(query, limit));
+    }
+
+
     /**
      * Método para obtener un paciente habilitado por ID
      *
@@ -271,6 +425,121 @@ public class PatientService implements IPatientService {
 
 
 
+    /**
+     * Método privado para decodificar el cursor de un listado.
+     * Si no es válido arroja la exception {@link BadRequestException}.
+     */
+    private KeysetCursor decodeCursor(String cursor){
+        try{
+            return KeysetCursor.decode(cursor);
+        }catch (IllegalArgumentException e) {
+            throw new BadRequestException("exception.invalidCursor.user", null, "exception.invalidCursor.log", new Object[]{cursor, "PatientService", "getAllByCursor"}, LogLevel.WARN);
+        }
+    }
+
+
+    /**
+     * Obtiene los pacientes habilitados siguientes a la posición indicada, ordenados por apellido e ID.
+     * <p>
+     * La primera página y las siguientes usan consultas distintas para que la búsqueda sea un rango sobre el índice
+     * {@code (lastName, id)}. Los apellidos nulos se ordenan primero: después del último de ellos se continúa con
+     * los pacientes con apellido.
+     * </p>
+     *
+     * @param after Último paciente de la página anterior, o {@code null} para la primera página.
+     * @param limit Cantidad máxima de pacientes.
+     */
+    private List<Patient> findNextPatients(KeysetCursor after, int limit){
+        if (after == null) {
+            return patientRepository.findFirstByLastName(PageRequest.ofSize(limit));
+        }
+        if (after.key() != null) {
+            return patientRepository.findNextByLastName(after.key(), after.id(), PageRequest.ofSize(limit));
+        }
+
+        List<Patient> patients = new ArrayList<>(patientRepository.findNextWithoutLastName(after.id(), PageRequest.ofSize(limit)));
+        if (patients.size() < limit) {
+            patients.addAll(patientRepository.findFirstWithLastName(PageRequest.ofSize(limit - patients.size())));
+        }
+        return patients;
+    }
+
+
+    /**
+     * Lee y convierte el bloque de pacientes siguiente a la posición indicada, y vacía el contexto de persistencia.
+     *
+     * @param after Último paciente del bloque anterior, o {@code null} para el primero.
+     * @return Pacientes del bloque y posición del último.
+     */
+    private ExportChunk readExportChunk(KeysetCursor after){
+        List<Patient> patients = findNextPatients(after, exportChunkSize);
+
+        List<PatientResponseDTO> patientResponseDTOS = buildResponseDTOs(patients);
+        KeysetCursor last = patients.isEmpty() ? after
+                : new KeysetCursor(patients.get(patients.size() - 1).getPerson().getLastName(), patients.get(patients.size() - 1).getId());
+
+        //Los DTO ya tienen todos los datos: las entidades del bloque no se vuelven a usar.
+        entityManager.clear();
+        return new ExportChunk(patientResponseDTOS, last);
+    }
+
+
+    //Fila CSV de un paciente. Los valores múltiples se separan con ';' (teléfonos como tipo:número).
+    private void writeCsv(CsvWriter csv, PatientResponseDTO patient) throws IOException {
+        PersonResponseDTO person = patient.getPerson();
+        AddressResponseDTO address = person.address();
+
+        csv.writeRecord(
+                String.valueOf(person.id()),
+                person.lastName(),
+                person.firstName(),
+                person.dniType(),
+                person.dni(),
+                person.birthDate() != null ? person.birthDate().toString() : null,
+                person.gender(),
+                person.nationality(),
+                person.contactEmails() != null ? String.join(";", person.contactEmails()) : null,
+                person.contactPhone() != null ? person.contactPhone().stream()
+                        .map(phone -> phone.typePhone() + ":" + phone.phone())
+                        .collect(Collectors.joining(";")) : null,
+                address != null ? address.country() : null,
+                address != null ? address.province() : null,
+                address != null ? address.locality() : null,
+                address != null ? address.street() : null,
+                address != null && address.number() != null ? address.number().toString() : null,
+                address != null ? address.floor() : null,
+                address != null ? address.apartment() : null,
+                patient.getHealthPlans(),
+                patient.getAffiliateNumber(),
+                patient.getMedicalHistoryRisk() != null ? patient.getMedicalHistoryRisk().stream()
+                        .map(PatientMedicalRiskResponseDTO::name)
+                        .collect(Collectors.joining(";")) : null);
+    }
+
+
+    /**
+     * Construye los DTO de respuesta de una página de pacientes.
+     * Los emails, teléfonos y riesgos médicos de toda la página se cargan en bloque, con una consulta por colección.
+     *
+     * @param patients Pacientes de la página, con la persona y sus asociaciones simples ya cargadas.
+     * @return DTO de respuesta en el mismo orden.
+     */
+    private List<PatientResponseDTO> buildResponseDTOs(List<Patient> patients){
+        //El ID del paciente es el mismo que el de la persona.
+        List<Long> patientIds = patients.stream().map(Patient::getId).toList();
+        personService.loadContacts(patientIds);
+        Map<Long, Set<PatientMedicalRisk>> risksByPatient = patientMedicalRiskService.getByPatientIdsAndEnabledTrue(patientIds);
+
+        return patients.stream()
+                .map(patient -> {
+                    Set<PatientMedicalRisk> risks = risksByPatient.getOrDefault(patient.getId(), Collections.emptySet());
+                    Set<PatientMedicalRiskResponseDTO> riskDTOs = patientMedicalRiskService.convertToDTO(risks);
+                    return buildResponseDTO(patient,riskDTOs);
+                })
+                .toList();
+    }
+
+
     /**
      * Construye un DTO de respuesta con los datos del paciente creado, su dirección,
      * contactos y antecedentes médicos.
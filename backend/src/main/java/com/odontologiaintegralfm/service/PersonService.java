@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.Period;
+import java.util.Collection;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -97,7 +98,7 @@ public class PersonService implements IPersonService {
                 addressService.buildAddress(personDto.address())));
 
         //Cambios para auditoria.
-        person.setCreatedBy(authenticatedUserService.getAuthenticatedUser());
+        person.setCreatedBy(authenticatedUserService.getAuthenticatedUserReference());
         person.setEnabled(true);
 
         return personRepository.save(person);
@@ -128,7 +129,7 @@ public class PersonService implements IPersonService {
 
         //Cambios para auditoria.
         person.setUpdatedAt(LocalDateTime.now());
-        person.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
+        person.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
 
         return personRepository.save(person);
     }
@@ -215,6 +216,49 @@ public class PersonService implements IPersonService {
     }
 
 
+    /**
+     * Método para inicializar los emails y teléfonos de varias personas con una consulta por colección.
+     * <p>
+     * Las consultas devuelven las mismas instancias del contexto de persistencia, por lo que las colecciones de las
+     * personas ya cargadas quedan inicializadas. Se hacen por separado para no multiplicar emails por teléfonos.
+     * </p>
+     * @param personIds IDs de las personas.
+     */
+    @Override
+    public void loadContacts(Collection<Long> personIds) {
+        if (personIds.isEmpty()) {
+            return;
+        }
+        try {
+            personRepository.findWithContactEmailsByIdIn(personIds);
+            personRepository.findWithContactPhonesByIdIn(personIds);
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PersonService", null, null, "loadContacts");
+        }
+    }
+
+
+    /**
+     * Método para inicializar varias personas con sus asociaciones simples, emails y teléfonos (tres consultas en total).
+     *
+     * @param personIds IDs de las personas.
+     */
+    @Override
+    public void loadDetails(Collection<Long> personIds) {
+        if (personIds.isEmpty()) {
+            return;
+        }
+        try {
+            personRepository.findWithDetailsByIdIn(personIds);
+            loadContacts(personIds);
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "PersonService", null, null, "loadDetails");
+        }
+    }
+
+
     /**
      * Método para actualizar la imágen de perfil de la persona.
      *
@@ -1,27 +1,55 @@
 package com.odontologiaintegralfm.service;
 
+import com.odontologiaintegralfm.configuration.appConfig.annotations.LogAction;
 import com.odontologiaintegralfm.dto.RefreshTokenRequestDTO;
-import com.odontologiaintegralfm.enums.SystemParameterKey;
+import com.odontologiaintegralfm.dto.internal.IssuedRefreshTokenDTO;
+import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+import com.odontologiaintegralfm.enums.LogType;
 import com.odontologiaintegralfm.exception.DataBaseException;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.exception.UnauthorizedException;
 import com.odontologiaintegralfm.model.RefreshToken;
+import com.odontologiaintegralfm.model.UserSec;
 import com.odontologiaintegralfm.repository.IRefreshTokenRepository;
 import com.odontologiaintegralfm.service.interfaces.IRefreshTokenService;
 import com.odontologiaintegralfm.service.interfaces.ISystemParameterService;
 import com.odontologiaintegralfm.service.interfaces.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.util.Base64;
+import java.util.HexFormat;
 
+/**
+ * Servicio de refresh tokens.
+ * <p>
+ * Cada usuario tiene un único registro que se rota en el lugar:
+ * </p>
+ * <ul>
+ *   <li>El token en claro son 32 bytes aleatorios (Base64 URL) y solo se entrega al cliente.</li>
+ *   <li>En la base se guarda su hash SHA-256, de longitud fija y con índice único.</li>
+ *   <li>El login reemplaza el token del usuario con un UPDATE; solo inserta si el usuario aún no tiene uno.</li>
+ *   <li>El refresh valida y rota el token en un único UPDATE indexado.</li>
+ *   <li>Los tokens vencidos se eliminan por lotes desde una tarea programada.</li>
+ * </ul>
+ */
 @Service
 public class RefreshTokenService implements IRefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
     @Autowired
     private IRefreshTokenRepository refreshTokenRepository;
 
@@ -31,83 +59,122 @@ public class RefreshTokenService implements IRefreshTokenService {
     @Autowired
     private ISystemParameterService systemParameterService;
 
+    @Value("${security.refresh-token.purge.batch-size:1000}")
+    private int purgeBatchSize;
+
 
     /**
      * Crea un nuevo Refresh Token para el usuario especificado por su nombre de usuario.
      * <p>
-     * Este método genera un Refresh Token único, lo asocia con el usuario
-     * que se obtiene mediante el nombre de usuario, y establece las fechas de creación y expiración.
-     * Finalmente, guarda el Refresh Token en la base de datos.
+     * Este método obtiene el usuario mediante el nombre de usuario y delega en {@link #createRefreshToken(UserSec)}.
      * </p>
      *
      * @param username El nombre de usuario para el cual se genera el Refresh Token.
-     * @return El Refresh Token recién creado y guardado en la base de datos.
+     * @return El Refresh Token emitido (valor en claro y vencimiento).
      */
     @Override
-    public RefreshToken createRefreshToken(String username) {
-        RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setRefreshToken(UUID.randomUUID().toString());
-        refreshToken.setUser(userService.getByUsername(username));
-        refreshToken.setCreatedDate(LocalDateTime.now());
-        refreshToken.setExpirationDate(LocalDateTime.now()
-                .plusDays(Integer.parseInt(systemParameterService.getByKey(SystemParameterKey.REFRESH_TOKEN_EXPIRATION))));
-        return refreshTokenRepository.save(refreshToken);
+    public IssuedRefreshTokenDTO createRefreshToken(String username) {
+        return createRefreshToken(userService.getByUsername(username));
     }
 
 
+    /**
+     * Emite un nuevo Refresh Token para un usuario ya cargado (Ej: desde el contexto de login).
+     * <p>
+     * Reemplaza el token existente del usuario con un único UPDATE. Si el usuario aún no tiene registro se inserta;
+     * si otro login concurrente lo insertó primero, se vuelve a intentar la actualización.
+     * </p>
+     *
+     * @param user El usuario para el cual se genera el Refresh Token.
+     * @return El Refresh Token emitido (valor en claro y vencimiento).
+     */
+    @Override
+    public IssuedRefreshTokenDTO createRefreshToken(UserSec user) {
+        String token = generateToken();
+        String tokenHash = hash(token);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expirationDate = getExpirationDate(now);
+
+        try{
+            if (refreshTokenRepository.reissueForUser(user.getId(), tokenHash, now, expirationDate) == 0) {
+                try {
+                    RefreshToken refreshToken = new RefreshToken();
+                    refreshToken.setTokenHash(tokenHash);
+                    refreshToken.setUser(user);
+                    refreshToken.setCreatedDate(now);
+                    refreshToken.setExpirationDate(expirationDate);
+                    refreshTokenRepository.save(refreshToken);
+                } catch (DataIntegrityViolationException e) {
+                    //Un login concurrente del mismo usuario insertó el registro.
+                    refreshTokenRepository.reissueForUser(user.getId(), tokenHash, now, expirationDate);
+                }
+            }
+            return new IssuedRefreshTokenDTO(token, expirationDate);
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "RefreshTokenService", user.getId(), user.getUsername(), "createRefreshToken");
+        }
+    }
 
 
     /**
-     * Valída el Refresh Token recibido en el DTO comparándolo con el Refresh Token almacenado en la base de datos.
-     * También verifica si el Refresh Token ha expirado.
-     *
-     * @param refreshToken El objeto RefreshToken almacenado en la base de datos que se va a validar.
-     * @param refreshTokenRequestDTO El objeto RefreshTokenRequestDTO que contiene el Refresh Token enviado por el cliente.
-     * @throws UnauthorizedException  Si el código del Refresh Token no coincide con el almacenado o si el Refresh Token ha expirado.
+     * Valida y rota el Refresh Token recibido en una única sentencia.
      * <p>
-     * La excepción {@link UnauthorizedException } se lanza con los siguientes códigos de error:
-     * <ul>
-     *   <li><b>userDetailServiceImpl.refreshToken.invalidCode</b>: Si el código del Refresh Token es inválido.</li>
-     *   <li><b>userDetailServiceImpl.refreshToken.refreshTokenExpired</b>: Si el Refresh Token ha expirado.</li>
-     * </ul>
+     * La actualización solo se aplica si el hash del token coincide, pertenece al usuario indicado y no está vencido.
      * </p>
+     *
+     * @param refreshTokenRequestDTO El objeto RefreshTokenRequestDTO que contiene el Refresh Token enviado por el cliente.
+     * @return El nuevo Refresh Token emitido.
+     * @throws UnauthorizedException Si el token es inválido, no pertenece al usuario o está vencido.
      */
     @Override
-    public void validateRefreshToken(RefreshToken refreshToken, RefreshTokenRequestDTO refreshTokenRequestDTO) {
-        //Valída el código
-        if(!refreshTokenRequestDTO.getRefreshToken().equals(refreshToken.getRefreshToken())){
-            throw new UnauthorizedException("userDetailServiceImpl.refreshToken.invalidCode",null,"exception.refreshToken.log", new Object[]{ refreshTokenRequestDTO.getIdUser(),"RefreshTokenService", "validateRefreshToken"},LogLevel.ERROR);
-        }
+    public IssuedRefreshTokenDTO rotateRefreshToken(RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        String token = generateToken();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expirationDate = getExpirationDate(now);
 
-        //Valida la vigencia
-        if(refreshToken.getExpirationDate().isBefore(LocalDateTime.now())){
-            throw new UnauthorizedException("userDetailServiceImpl.refreshToken.refreshTokenExpired",null,"exception.refreshToken.log",new Object[]{refreshTokenRequestDTO.getIdUser(),"","RefreshTokenService", "validateRefreshToken"}, LogLevel.ERROR);
-        }
+        try{
+            int rotated = refreshTokenRepository.rotate(
+                    hash(refreshTokenRequestDTO.getRefreshToken()),
+                    refreshTokenRequestDTO.getIdUser(),
+                    refreshTokenRequestDTO.getUsername(),
+                    hash(token),
+                    now,
+                    expirationDate);
 
+            if (rotated == 0) {
+                throw new UnauthorizedException("userDetailServiceImpl.refreshToken.invalidCode",null,"exception.refreshToken.log", new Object[]{ refreshTokenRequestDTO.getIdUser(),"RefreshTokenService", "rotateRefreshToken"},LogLevel.ERROR);
+            }
+            return new IssuedRefreshTokenDTO(token, expirationDate);
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "RefreshTokenService", refreshTokenRequestDTO.getIdUser(), refreshTokenRequestDTO.getUsername(), "rotateRefreshToken");
+        }
     }
 
 
 
     /**
-     * Elimina el Refresh Token correspondiente al usuario y token proporcionado.
+     * Elimina el Refresh Token proporcionado.
      *
-     * Este método busca el Refresh Token en la base de datos usando el token proporcionado.
-     * Si el Refresh Token existe, lo elimina; en caso contrario, lanza una excepción {@link UnauthorizedException}.
+     * Este método elimina el Refresh Token por su hash con una única sentencia.
+     * Si no existe ningún registro con ese hash, lanza una excepción {@link UnauthorizedException}.
      * En caso de un error de acceso a la base de datos o problemas de transacción, lanza una {@link DataBaseException}.
      *
-     * @param refreshToken El Refresh Token que se va a eliminar.
+     * @param refreshToken El Refresh Token (en claro) que se va a eliminar.
      * @throws UnauthorizedException Si el Refresh Token no se encuentra en la base de datos.
      * @throws DataBaseException Si ocurre un error en la base de datos o en la transacción.
      */
     @Override
     public void deleteRefreshToken(String refreshToken) {
+        int deleted;
         try{
-            RefreshToken refreshTokenDB = refreshTokenRepository.findByRefreshToken(refreshToken).orElseThrow(()-> new UnauthorizedException("refreshTokenService.deleteRefreshToken",null,"exception.refreshToken.log",new Object[]{0L,"Refresh Token Service", "deleteRefreshToken"}, LogLevel.ERROR));
-            refreshTokenRepository.delete(refreshTokenDB);
-
+            deleted = refreshTokenRepository.deleteByTokenHash(hash(refreshToken));
         }catch (DataAccessException | CannotCreateTransactionException e) {
             throw new DataBaseException(e, "RefreshTokenService",0L, "", "deleteRefreshTokenByUsername");
         }
+
+        if (deleted == 0) {
+            throw new UnauthorizedException("refreshTokenService.deleteRefreshToken",null,"exception.refreshToken.log",new Object[]{0L,"Refresh Token Service", "deleteRefreshToken"}, LogLevel.ERROR);
+        }
     }
 
     /**
@@ -126,24 +193,69 @@ public class RefreshTokenService implements IRefreshTokenService {
     }
 
 
-
     /**
-     * Obtiene el Refresh Token correspondiente al ID proporcionado.
-     *
-     * Este método busca un Refresh Token en la base de datos utilizando el ID del usuario.
-     * Si el refresh token existe, lo retorna, en caso contrario, lanza una excpeción {@link UnauthorizedException}.
-     * En caso de un error de acceso a la base de datos o problemas de transacción, lanza una {@link DataBaseException}.
+     * Elimina los Refresh Tokens vencidos.
+     * <p>
+     * Se ejecuta por lotes de {@code security.refresh-token.purge.batch-size} registros, cada uno en su propia
+     * transacción, hasta que un lote elimina menos registros que el tamaño configurado.
+     * </p>
      *
-     * @param id El ID del usuario.
-     * @return El refresh token encontrado.
-     * @throws UnauthorizedException Si el Refresh Token no se encuentra en la base de datos.
-     * @throws DataBaseException Si ocurre un error en la base de datos o en la transacción.
+     * @return Resultado de la tarea programada.
      */
-    public RefreshToken getRefreshTokenByUserId(Long id) {
+    @Override
+    @LogAction(
+            value ="refreshTokenService.systemLogService.deleteExpired",
+            args =  {"#result.durationSeconds","#result.message","#result.countDeleted" },
+            type = LogType.SCHEDULED,
+            level = LogLevel.INFO
+    )
+    public SchedulerResultDTO deleteExpired() {
+        int countDeleted = 0;
+        long start = System.currentTimeMillis();
+
         try{
-           return refreshTokenRepository.findByUser_Id(id).orElseThrow(()-> new UnauthorizedException(null,null,"exception.refreshToken.log", new Object[]{id,"Refresh Token Service", "getRefreshTokenByUserId"},LogLevel.ERROR));
+            LocalDateTime now = LocalDateTime.now();
+            int deleted;
+            do {
+                deleted = refreshTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+                countDeleted += deleted;
+            } while (deleted == purgeBatchSize);
+
+            double durationSeconds = (System.currentTimeMillis() - start) / 1000.0;
+
+            return new SchedulerResultDTO(
+                    durationSeconds,
+                    "Registros eliminados correctamente",
+                    0,
+                    countDeleted);
+
         }catch (DataAccessException | CannotCreateTransactionException e) {
-            throw new DataBaseException(e, "RefreshTokenService",0L, "", "getRefreshTokenByUserId");
+            throw new DataBaseException(e, "RefreshTokenService", null, null, "deleteExpired");
+        }
+    }
+
+
+    //Calcula el vencimiento según el parámetro del sistema.
+    private LocalDateTime getExpirationDate(LocalDateTime now) {
+        return now.plus(systemParameterService.getSnapshot().refreshTokenExpiration());
+    }
+
+
+    //Genera el valor en claro del token.
+    private String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        SECURE_RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+
+    //Hash SHA-256 en hexadecimal (64 caracteres) del token.
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
-}
\ No newline at end of file
+}
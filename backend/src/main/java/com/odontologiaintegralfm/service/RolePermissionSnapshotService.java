@@ -0,0 +1,193 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.dto.ActionResponseDTO;
+import com.odontologiaintegralfm.dto.PermissionFullResponseDTO;
+import com.odontologiaintegralfm.dto.RoleFullResponseDTO;
+import com.odontologiaintegralfm.dto.internal.RolePermissionActionRowDTO;
+import com.odontologiaintegralfm.exception.DataBaseException;
+import com.odontologiaintegralfm.repository.IRolePermissionActionRepository;
+import com.odontologiaintegralfm.service.interfaces.IRolePermissionSnapshotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio que mantiene en memoria una instantánea inmutable y versionada del grafo Rol → Permiso → Acción.
+ * <p>
+ * La instantánea se construye con una única consulta ({@link IRolePermissionActionRepository#findAllRolePermissionActionRows()})
+ * y se reemplaza de forma atómica cuando {@link RoleService} confirma la creación o actualización de un rol.
+ * Sirve tanto para construir las autoridades del login como los {@link RoleFullResponseDTO} de respuesta,
+ * sin acceder a la base de datos.
+ * </p>
+ */
+@Slf4j
+@Service
+public class RolePermissionSnapshotService implements IRolePermissionSnapshotService {
+
+    @Autowired
+    private IRolePermissionActionRepository rolePermissionActionRepository;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    private long lastVersion = 0;
+
+
+    /**
+     * Instantánea inmutable: árbol de respuesta y autoridades por ID de rol.
+     */
+    private record Snapshot(long version,
+                            Map<Long, RoleFullResponseDTO> roles,
+                            Map<Long, List<GrantedAuthority>> authorities) {
+    }
+
+
+    /**
+     * Los DTO de respuesta son mutables: se devuelve una copia para que ningún llamador pueda modificar
+     * la instantánea compartida por todas las solicitudes.
+     */
+    @Override
+    public RoleFullResponseDTO getRole(Long roleId) {
+        RoleFullResponseDTO role = getSnapshot().roles().get(roleId);
+        return role != null ? copy(role) : null;
+    }
+
+
+    @Override
+    public List<GrantedAuthority> getAuthorities(Long roleId) {
+        return getSnapshot().authorities().get(roleId);
+    }
+
+
+    @Override
+    public long getVersion() {
+        return getSnapshot().version();
+    }
+
+
+    @Override
+    public synchronized void reload() {
+        try {
+            List<RolePermissionActionRowDTO> rows = rolePermissionActionRepository.findAllRolePermissionActionRows();
+            Snapshot snapshot = build(++lastVersion, rows);
+            current.set(snapshot);
+            log.info("Instantánea de roles y permisos actualizada [Versión: {}] - [Roles: {}]", snapshot.version(), snapshot.roles().size());
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "RolePermissionSnapshotService", 0L, "", "reload");
+        }
+    }
+
+
+    @Override
+    public void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+
+    //Obtiene la instantánea vigente, construyéndola la primera vez que se utiliza.
+    private Snapshot getSnapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    reload();
+                    snapshot = current.get();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+
+    //Copia profunda del árbol de un rol, respetando el orden de permisos y acciones.
+    private RoleFullResponseDTO copy(RoleFullResponseDTO role) {
+        RoleFullResponseDTO copy = new RoleFullResponseDTO();
+        copy.setId(role.getId());
+        copy.setName(role.getName());
+        copy.setLabel(role.getLabel());
+
+        Set<PermissionFullResponseDTO> permissions = new LinkedHashSet<>();
+        for (PermissionFullResponseDTO permission : role.getPermissionsList()) {
+            Set<ActionResponseDTO> actions = new TreeSet<>();
+            permission.getActions().forEach(action ->
+                    actions.add(new ActionResponseDTO(action.getId(), action.getName(), action.getLabel())));
+            permissions.add(new PermissionFullResponseDTO(permission.getId(), permission.getName(), permission.getLabel(), actions));
+        }
+        copy.setPermissionsList(permissions);
+        return copy;
+    }
+
+
+    /**
+     * Construye la instantánea a partir de las filas planas del grafo.
+     * Los permisos se ordenan por ID y las acciones por ID, igual que {@link RoleService#getFullByRoleId(Long)}.
+     */
+    private Snapshot build(long version, List<RolePermissionActionRowDTO> rows) {
+        Map<Long, RoleFullResponseDTO> roles = new HashMap<>();
+        Map<Long, Map<Long, PermissionFullResponseDTO>> permissionsByRole = new HashMap<>();
+
+        for (RolePermissionActionRowDTO row : rows) {
+            roles.computeIfAbsent(row.roleId(), id -> {
+                RoleFullResponseDTO role = new RoleFullResponseDTO();
+                role.setId(id);
+                role.setName(row.roleName());
+                role.setLabel(row.roleLabel());
+                return role;
+            });
+
+            Map<Long, PermissionFullResponseDTO> permissions = permissionsByRole.computeIfAbsent(row.roleId(), id -> new TreeMap<>());
+            if (row.permissionId() == null || row.actionId() == null) {
+                continue;
+            }
+
+            permissions.computeIfAbsent(row.permissionId(), id -> new PermissionFullResponseDTO(
+                            id,
+                            row.permissionName(),
+                            row.permissionLabel(),
+                            new TreeSet<>()))
+                    .getActions()
+                    .add(new ActionResponseDTO(row.actionId(), row.actionName(), row.actionLabel()));
+        }
+
+        Map<Long, List<GrantedAuthority>> authorities = new HashMap<>();
+
+        for (RoleFullResponseDTO role : roles.values()) {
+            List<GrantedAuthority> roleAuthorities = new ArrayList<>();
+            roleAuthorities.add(new SimpleGrantedAuthority("ROLE_" + role.getName()));
+
+            Set<PermissionFullResponseDTO> permissions = new LinkedHashSet<>();
+            for (PermissionFullResponseDTO permission : permissionsByRole.get(role.getId()).values()) {
+                String permissionName = permission.getName().toUpperCase();
+                permission.getActions().forEach(action ->
+                        roleAuthorities.add(new SimpleGrantedAuthority("PERMISO_" + permissionName + "_" + action.getName().toUpperCase())));
+
+                permission.setActions(Collections.unmodifiableSet(permission.getActions()));
+                permissions.add(permission);
+            }
+
+            role.setPermissionsList(Collections.unmodifiableSet(permissions));
+            authorities.put(role.getId(), List.copyOf(roleAuthorities));
+        }
+
+        return new Snapshot(version, Map.copyOf(roles), Map.copyOf(authorities));
+    }
+}
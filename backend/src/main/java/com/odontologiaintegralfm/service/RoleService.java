@@ -65,6 +65,9 @@ public class RoleService implements IRoleService {
     @Autowired
     private ActionService actionService;
 
+    @Autowired
+    private IRolePermissionSnapshotService rolePermissionSnapshotService;
+
 
     /**
      * Recupera todos los roles almacenados en la base de datos excpeto el rol DESARROLLADOR.
@@ -127,12 +130,32 @@ public class RoleService implements IRoleService {
      * </pre>
      *
      * No se arma el objeto Response aquí, porque este método es consumido también por el método loadUserByUsername de UserDetailServiceImpl.
+     * <p>
+     * El árbol se obtiene de la instantánea en memoria ({@link IRolePermissionSnapshotService}) y solo se consulta
+     * la base de datos si el rol no se encuentra en ella.
+     * </p>
      *
      * @param idRole
      * @return
      */
     @Override
     public RoleFullResponseDTO getFullByRoleId(Long idRole) {
+        RoleFullResponseDTO roleFullResponseDTO = rolePermissionSnapshotService.getRole(idRole);
+        if (roleFullResponseDTO != null) {
+            return roleFullResponseDTO;
+        }
+        return this.buildFullByRoleId(idRole);
+    }
+
+
+    /**
+     * Arma el árbol de permisos y acciones de un rol consultando la base de datos.
+     * Se utiliza dentro de create/update, donde la instantánea aún no refleja los cambios de la transacción en curso.
+     *
+     * @param idRole ID del rol.
+     * @return El árbol del rol como {@link RoleFullResponseDTO}.
+     */
+    private RoleFullResponseDTO buildFullByRoleId(Long idRole) {
 
         //Obtiene la entidad
         Role role = this.getByIdInternal(idRole);
@@ -254,7 +277,10 @@ public class RoleService implements IRoleService {
 
 
             // Arma el árbol de respuesta entre rol, permisos y acciones.
-            RoleFullResponseDTO roleFullResponseDTO = this.getFullByRoleId(savedRole.getId());
+            RoleFullResponseDTO roleFullResponseDTO = this.buildFullByRoleId(savedRole.getId());
+
+            //Actualiza la instantánea de roles una vez confirmada la transacción.
+            rolePermissionSnapshotService.reloadAfterCommit();
 
             String messageUser = messageService.getMessage("roleService.save.ok", null, LocaleContextHolder.getLocale());
             return new Response<>(true, messageUser, roleFullResponseDTO);
@@ -298,7 +324,10 @@ public class RoleService implements IRoleService {
             rolePermissionActionService.buildRelationByRole(role, roleRequestDto.getPermissionsList());
 
             // Arma el árbol de respuesta entre rol, permisos y acciones.
-            RoleFullResponseDTO roleFullResponseDTO = this.getFullByRoleId(role.getId());
+            RoleFullResponseDTO roleFullResponseDTO = this.buildFullByRoleId(role.getId());
+
+            //Actualiza la instantánea de roles una vez confirmada la transacción.
+            rolePermissionSnapshotService.reloadAfterCommit();
 
             String messageUser = messageService.getMessage("roleService.update.ok", null, LocaleContextHolder.getLocale());
             return new Response<>(true, messageUser, roleFullResponseDTO);
@@ -14,11 +14,13 @@ import com.odontologiaintegralfm.repository.IScheduleRepository;
 import com.odontologiaintegralfm.service.interfaces.IScheduleService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 /**
@@ -34,6 +36,8 @@ public class ScheduledService implements IScheduleService {
     private IMessageService messageService;
     @Autowired
     private SystemLogService systemLogService;
+    @Autowired
+    private Environment environment;
 
 
     /**
@@ -110,7 +114,7 @@ public class ScheduledService implements IScheduleService {
 
             //Si no se obtiene la expresión Cron desde la base, se devuelve una por defecto y se loguea.
             if(cron == null || cron.isBlank()){
-                cron = "0 0 21 1 * *";
+                cron = getDefaultCron(keyName);
 
                 String message = messageService.getMessage("scheduleService.getByKeyName.error",new Object[]{keyName, cron}, LocaleContextHolder.getLocale());
 
@@ -151,6 +155,20 @@ public class ScheduledService implements IScheduleService {
     }
 
 
+    /**
+     * Obtiene la expresión cron por defecto de la tarea: {@code scheduled-task.default-cron.<tarea>} si está
+     * configurada, o {@code scheduled-task.default-cron} para el resto.
+     *
+     * @param keyName
+     * @return expresión Cron
+     */
+    @Override
+    public String getDefaultCron(ScheduledTaskKey keyName) {
+        String property = "scheduled-task.default-cron." + keyName.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        return environment.getProperty(property, environment.getProperty("scheduled-task.default-cron", "0 0 21 1 * *"));
+    }
+
+
     /**
      * Actualiza la ejecución de la tarea programada.
      *
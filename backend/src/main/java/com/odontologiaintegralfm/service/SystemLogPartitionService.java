@@ -0,0 +1,206 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.exception.DataBaseException;
+import com.odontologiaintegralfm.service.interfaces.ISystemLogPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Administra el particionado mensual de {@code system_logs} (MySQL, {@code PARTITION BY RANGE (TO_DAYS(timestamp))}).
+ * <p>
+ * Cada mes tiene su partición {@code pAAAAMM} y la partición {@code p_future} recibe las fechas posteriores:
+ * </p>
+ * <ul>
+ *   <li>La conversión de la tabla ({@link #ensurePartitioned()}) es un paso de mantenimiento explícito
+ *   ({@code POST /api/config/logs/partition}) y nunca se ejecuta al iniciar: cambia la clave primaria a
+ *   {@code (id, timestamp)}, requisito de MySQL para particionar, y reconstruye la tabla bloqueándola. Debe ejecutarse
+ *   en una ventana de mantenimiento y recién después habilitar {@code system-log.partitioning.enabled}.</li>
+ *   <li>Las particiones de los próximos meses se crean por adelantado dividiendo {@code p_future}, que está vacía,
+ *   por lo que la operación no mueve registros. Sobre una tabla sin particionar no se hace nada.</li>
+ *   <li>La retención elimina particiones completas ({@code DROP PARTITION}), sin recorrer ni bloquear registros.</li>
+ * </ul>
+ * <p>
+ * La tabla no puede tener claves foráneas: las tablas particionadas de MySQL no las admiten.
+ * </p>
+ */
+@Slf4j
+@Service
+public class SystemLogPartitionService implements ISystemLogPartitionService {
+
+    private static final String TABLE = "system_logs";
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${system-log.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${system-log.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+
+    /**
+     * Crea las particiones de los próximos meses al iniciar la aplicación (si el particionado está habilitado).
+     * No convierte la tabla; un error se registra y no impide el inicio: la retención vuelve a intentarlo.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            createUpcomingPartitions();
+        } catch (DataBaseException e) {
+            log.error("No se pudieron crear las próximas particiones de {}.", TABLE, e);
+        }
+    }
+
+
+    @Override
+    public List<String> ensurePartitioned() {
+        try {
+            List<String> names = getPartitionNames();
+            if (!names.isEmpty()) {
+                return names;
+            }
+
+            LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM " + TABLE, LocalDateTime.class);
+            YearMonth from = oldest != null ? YearMonth.from(oldest) : YearMonth.now();
+            YearMonth to = YearMonth.now().plusMonths(monthsAhead);
+
+            StringJoiner partitions = new StringJoiner(", ");
+            for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+                partitions.add(partitionDefinition(month));
+            }
+            partitions.add("PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE");
+
+            log.warn("Convirtiendo {} en tabla particionada por mes ({} a {}).", TABLE, from, to);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " MODIFY timestamp DATETIME(6) NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (id, timestamp)");
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " PARTITION BY RANGE (TO_DAYS(timestamp)) (" + partitions + ")");
+            log.info("Tabla {} particionada por mes.", TABLE);
+            return getPartitionNames();
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "SystemLogPartitionService", null, null, "ensurePartitioned");
+        }
+    }
+
+
+    @Override
+    public void createUpcomingPartitions() {
+        try {
+            List<String> names = getPartitionNames();
+            if (names.isEmpty()) {
+                log.warn("La tabla {} no está particionada: no se crean particiones.", TABLE);
+                return;
+            }
+
+            YearMonth last = getLastMonthPartition(names);
+            YearMonth to = YearMonth.now().plusMonths(monthsAhead);
+
+            //Solo se puede dividir p_future: se agregan los meses posteriores a la última partición existente.
+            for (YearMonth month = last.plusMonths(1); !month.isAfter(to); month = month.plusMonths(1)) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                        partitionDefinition(month) + ", " +
+                        "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN MAXVALUE)");
+                log.info("Partición {} creada en {}.", month.format(PARTITION_NAME), TABLE);
+            }
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "SystemLogPartitionService", null, null, "createUpcomingPartitions");
+        }
+    }
+
+
+    @Override
+    public int dropPartitionsBefore(LocalDateTime deadline) {
+        int countDeleted = 0;
+        try {
+            LocalDate limit = deadline.toLocalDate();
+            for (Map<String, Object> partition : getPartitions()) {
+                String name = (String) partition.get("PARTITION_NAME");
+                if (FUTURE_PARTITION.equals(name)) {
+                    continue;
+                }
+                //La partición contiene registros anteriores al primer día del mes siguiente.
+                YearMonth month = YearMonth.parse(name, PARTITION_NAME);
+                if (month.plusMonths(1).atDay(1).isAfter(limit)) {
+                    continue;
+                }
+
+                //TABLE_ROWS es una estimación de las estadísticas: contar la partición la recorrería completa.
+                Number rows = (Number) partition.get("TABLE_ROWS");
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + name);
+                countDeleted += rows != null ? rows.intValue() : 0;
+                log.info("Partición {} eliminada de {} [Registros aprox.: {}].", name, TABLE, rows);
+            }
+            return countDeleted;
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "SystemLogPartitionService", null, null, "dropPartitionsBefore");
+        }
+    }
+
+
+    //Particiones de la tabla (nombre y registros estimados), en orden (lista vacía si no está particionada).
+    private List<Map<String, Object>> getPartitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT PARTITION_NAME, TABLE_ROWS
+                FROM information_schema.PARTITIONS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL
+                ORDER BY PARTITION_ORDINAL_POSITION
+                """, TABLE);
+    }
+
+
+    //Nombres de las particiones de la tabla, en orden (lista vacía si no está particionada).
+    private List<String> getPartitionNames() {
+        return getPartitions().stream()
+                .map(partition -> (String) partition.get("PARTITION_NAME"))
+                .toList();
+    }
+
+
+    //Último mes con partición propia (anterior a p_future).
+    private YearMonth getLastMonthPartition(List<String> names) {
+        YearMonth last = YearMonth.now().minusMonths(1);
+        for (String name : names) {
+            if (!FUTURE_PARTITION.equals(name)) {
+                last = YearMonth.parse(name, PARTITION_NAME);
+            }
+        }
+        return last;
+    }
+
+
+    private String partitionDefinition(YearMonth month) {
+        return "PARTITION " + month.format(PARTITION_NAME) +
+                " VALUES LESS THAN (TO_DAYS('" + month.plusMonths(1).atDay(1) + "'))";
+    }
+}
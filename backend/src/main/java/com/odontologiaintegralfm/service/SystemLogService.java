@@ -3,18 +3,27 @@ package com.odontologiaintegralfm.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odontologiaintegralfm.configuration.appConfig.annotations.LogAction;
+import com.odontologiaintegralfm.dto.CursorPageDTO;
+import com.odontologiaintegralfm.dto.SystemLogFilterDTO;
 import com.odontologiaintegralfm.dto.SystemLogResponseDTO;
+import com.odontologiaintegralfm.dto.SystemLogSearchResponseDTO;
 import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+import com.odontologiaintegralfm.enums.LogExportFormat;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.enums.LogType;
 import com.odontologiaintegralfm.enums.ScheduledTaskKey;
-import com.odontologiaintegralfm.enums.SystemParameterKey;
+import com.odontologiaintegralfm.exception.BadRequestException;
 import com.odontologiaintegralfm.exception.DataBaseException;
+import com.odontologiaintegralfm.exception.StackTraceFormatter;
+import com.odontologiaintegralfm.model.StackTraceFingerprint;
 import com.odontologiaintegralfm.model.SystemLog;
 import com.odontologiaintegralfm.model.SystemParameter;
+import com.odontologiaintegralfm.repository.IStackTraceFingerprintRepository;
 import com.odontologiaintegralfm.repository.ISystemLogRepository;
+import com.odontologiaintegralfm.service.interfaces.ISystemLogPartitionService;
 import com.odontologiaintegralfm.service.interfaces.ISystemLogService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -22,13 +31,23 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
-import java.io.PrintWriter;
-import java.io.StringWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 
 @Service
@@ -42,6 +61,45 @@ public class SystemLogService implements ISystemLogService {
      @Autowired
      private SystemParameterService systemParameterService;
 
+     @Autowired
+     private SystemLogWriter systemLogWriter;
+
+     @Autowired
+     private IStackTraceFingerprintRepository stackTraceFingerprintRepository;
+
+     @Autowired
+     private ISystemLogPartitionService systemLogPartitionService;
+
+     @Autowired
+     private LogRateLimiter logRateLimiter;
+
+     @Value("${system-log.purge.batch-size:5000}")
+     private int purgeBatchSize;
+
+     @Value("${system-log.stack-trace.max-frames:30}")
+     private int stackTraceMaxFrames;
+
+     @Value("${system-log.stack-trace.max-causes:5}")
+     private int stackTraceMaxCauses;
+
+     @Value("${system-log.search.max-size:100}")
+     private int searchMaxSize;
+
+     @Value("${system-log.export.chunk-size:1000}")
+     private int exportChunkSize;
+
+     private static final String CSV_HEADER = "id,timestamp,level,type,userMessage,technicalMessage,name,username,metadata,stackTraceFingerprint";
+
+    /**
+     * Registra un log del sistema.
+     * <p>
+     * El log se arma en el hilo del llamador (fecha, metadata serializada y fingerprint del stack trace) y se encola
+     * en {@link SystemLogWriter}, que lo persiste por lotes en segundo plano. No agrega una escritura a la base ni
+     * participa de la transacción del llamador.
+     * </p>
+     *
+     * @param dto Datos del log.
+     */
      @Override
      public void save(SystemLogResponseDTO dto) {
          SystemLog log = new SystemLog();
@@ -55,8 +113,29 @@ public class SystemLogService implements ISystemLogService {
          log.setUsername(dto.username());
          log.setMetadata(toJson(dto.metadata()));
          log.setStackTrace(dto.stackTrace());
+         if (dto.stackTrace() != null) {
+             log.setStackTraceFingerprint(StackTraceFormatter.fingerprint(dto.stackTrace()));
+         }
 
-         systemLogRepository.save(log);
+         systemLogWriter.enqueue(log);
+     }
+
+
+    /**
+     * Registra un log del sistema si no superó el límite de frecuencia de su clave ({@link LogRateLimiter}).
+     * Los omitidos se informan en un log resumen periódico.
+     *
+     * @param dto Datos del log.
+     * @param logKey Clave que agrupa los logs similares.
+     * @return {@code true} si el log se encoló.
+     */
+     @Override
+     public boolean save(SystemLogResponseDTO dto, String logKey) {
+         if (!logRateLimiter.tryAcquire(logKey, dto.level(), logRateLimiter.resolveSubject(dto.username()))) {
+             return false;
+         }
+         save(dto);
+         return true;
      }
 
 
@@ -79,6 +158,9 @@ public class SystemLogService implements ISystemLogService {
 
             Page<SystemLog> systemLog = systemLogRepository.findAll(pageable);
 
+            //Stack traces de la página, con una única consulta por fingerprint.
+            Map<String, String> stackTraces = getStackTraces(systemLog.getContent());
+
             Page<SystemLogResponseDTO> systemLogResponseDTOPage = systemLog
                     .map(log -> new SystemLogResponseDTO(
                             log.getLevel(),               // level
@@ -88,7 +170,7 @@ public class SystemLogService implements ISystemLogService {
                             log.getName(),
                             log.getUsername(),
                             fromJson(log.getMetadata()),
-                            log.getStackTrace()
+                            log.getStackTrace() != null ? log.getStackTrace() : stackTraces.get(log.getStackTraceFingerprint())
                     ));
 
            return systemLogResponseDTOPage;
@@ -100,6 +182,102 @@ public class SystemLogService implements ISystemLogService {
     }
 
 
+    /**
+     * Búsqueda filtrada de logs con paginación por keyset sobre {@code (timestamp, id)}.
+     * <p>
+     * Se pide un log más que el tamaño de página para saber si existe una página siguiente sin contar el total.
+     * El cursor es opaco para el cliente (Base64 de la fecha e ID del último log de la página).
+     * </p>
+     *
+     * @param filter Filtros de la búsqueda.
+     * @param cursor Cursor de la página anterior, o {@code null} para la primera página.
+     * @param size Cantidad de logs por página.
+     */
+    @Override
+    public CursorPageDTO<SystemLogSearchResponseDTO> search(SystemLogFilterDTO filter, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, searchMaxSize));
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                afterTimestamp = LocalDateTime.parse(parts[0]);
+                afterId = Long.valueOf(parts[1]);
+            } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+                throw new BadRequestException("exception.systemLogService.invalidCursor.user", null, "exception.systemLogService.invalidCursor.log", new Object[]{cursor, "SystemLogService", "search"}, LogLevel.WARN);
+            }
+        }
+
+        try {
+            List<SystemLogSearchResponseDTO> logs = systemLogRepository.search(filter, afterTimestamp, afterId, limit + 1);
+
+            String nextCursor = null;
+            if (logs.size() > limit) {
+                logs = logs.subList(0, limit);
+                SystemLogSearchResponseDTO last = logs.get(limit - 1);
+                nextCursor = Base64.getUrlEncoder().withoutPadding()
+                        .encodeToString((last.timestamp() + "|" + last.id()).getBytes(StandardCharsets.UTF_8));
+            }
+            return new CursorPageDTO<>(logs, nextCursor);
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "SystemLogService", null, null, "search");
+        }
+    }
+
+
+    /**
+     * Exporta los logs filtrados en NDJSON o CSV.
+     * <p>
+     * Recorre los resultados por bloques con la misma paginación por keyset de {@link #search} y escribe cada
+     * bloque en la salida antes de consultar el siguiente: la memoria usada depende del tamaño del bloque y no
+     * de la cantidad de logs exportados. Cada bloque es una consulta independiente, sin transacción abierta
+     * durante la exportación.
+     * </p>
+     *
+     * @param filter Filtros de la búsqueda.
+     * @param format Formato de exportación.
+     * @param outputStream Salida (cuerpo de la respuesta).
+     */
+    @Override
+    public void export(SystemLogFilterDTO filter, LogExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        CsvWriter csv = new CsvWriter(writer, ',');
+        if (format == LogExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try {
+            LocalDateTime afterTimestamp = null;
+            Long afterId = null;
+            List<SystemLogSearchResponseDTO> logs;
+            do {
+                logs = systemLogRepository.search(filter, afterTimestamp, afterId, exportChunkSize);
+                for (SystemLogSearchResponseDTO log : logs) {
+                    if (format == LogExportFormat.CSV) {
+                        writeCsv(csv, log);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(log));
+                        writer.write('\n');
+                    }
+                }
+                writer.flush();
+
+                if (!logs.isEmpty()) {
+                    SystemLogSearchResponseDTO last = logs.get(logs.size() - 1);
+                    afterTimestamp = last.timestamp();
+                    afterId = last.id();
+                }
+            } while (logs.size() == exportChunkSize);
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "SystemLogService", null, null, "export");
+        }
+    }
+
+
     /**
      * Convierte un string JSON a un {@code Map<String, Object>} .
      *
@@ -140,6 +318,11 @@ public class SystemLogService implements ISystemLogService {
      * Elimina logs con una antigüedad mayor a la parametrización de
      * Entidad: {@link SystemParameter}
      * Tarea:  {@link ScheduledTaskKey}
+     * <p>
+     * Con el particionado habilitado se eliminan las particiones mensuales completas anteriores a la fecha límite
+     * y se crean las particiones de los próximos meses. Los registros restantes anteriores a la fecha límite
+     * (del mes en curso de la retención) se eliminan por lotes.
+     * </p>
      */
     @Override
     @LogAction(
@@ -159,13 +342,23 @@ public class SystemLogService implements ISystemLogService {
 
         try{
             //Obtiene el parámetro de días.
-            int days = Integer.parseInt( systemParameterService.getByKey(SystemParameterKey.LOGS_MIN_DAYS));
+            int days = systemParameterService.getSnapshot().logsMinDays();
 
             //Establece fecha límite.
             LocalDateTime deadline = LocalDate.now().minusDays(days).atStartOfDay();
 
-            //Elimina logs
-            countDeleted = systemLogRepository.deleteBeforeDeadline(deadline);
+            //Elimina particiones completas y prepara las próximas
+            if (systemLogPartitionService.isEnabled()) {
+                countDeleted += systemLogPartitionService.dropPartitionsBefore(deadline);
+                systemLogPartitionService.createUpcomingPartitions();
+            }
+
+            //Elimina por lotes los logs restantes
+            int deleted;
+            do {
+                deleted = systemLogRepository.deleteBeforeDeadlineBatch(deadline, purgeBatchSize);
+                countDeleted += deleted;
+            } while (deleted == purgeBatchSize);
 
             //Finaliza tarea programada
             end = System.currentTimeMillis();
@@ -207,14 +400,50 @@ public class SystemLogService implements ISystemLogService {
 
 
     /**
-     * Convierte el Stack Trace de una exception en un string para luego persistir en base de datos.
+     * Convierte el Stack Trace de una exception en un string compacto para luego persistir en base de datos.
+     * <p>
+     * Limita la cantidad de frames y causas y resume los frames de frameworks ({@link StackTraceFormatter}).
+     * </p>
      * @param e
      * @return
      */
     public String getStackTraceAsString(Throwable e) {
-        StringWriter sw = new StringWriter();
-        e.printStackTrace(new PrintWriter(sw));
-        return sw.toString();
+        return StackTraceFormatter.format(e, stackTraceMaxFrames, stackTraceMaxCauses);
+    }
+
+
+    private void writeCsv(CsvWriter csv, SystemLogSearchResponseDTO log) throws IOException {
+        csv.writeRecord(
+                String.valueOf(log.id()),
+                String.valueOf(log.timestamp()),
+                log.level() != null ? log.level().name() : null,
+                log.type() != null ? log.type().name() : null,
+                log.userMessage(),
+                log.technicalMessage(),
+                log.name(),
+                log.username(),
+                log.metadata(),
+                log.stackTraceFingerprint());
+    }
+
+
+    //Obtiene el texto de los stack traces referenciados por fingerprint en los logs indicados.
+    private Map<String, String> getStackTraces(List<SystemLog> logs) {
+        Set<String> fingerprints = new HashSet<>();
+        for (SystemLog log : logs) {
+            if (log.getStackTraceFingerprint() != null) {
+                fingerprints.add(log.getStackTraceFingerprint());
+            }
+        }
+        if (fingerprints.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> stackTraces = new HashMap<>();
+        for (StackTraceFingerprint stackTraceFingerprint : stackTraceFingerprintRepository.findAllByFingerprintIn(fingerprints)) {
+            stackTraces.put(stackTraceFingerprint.getFingerprint(), stackTraceFingerprint.getStackTrace());
+        }
+        return stackTraces;
     }
 
 
@@ -0,0 +1,292 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.enums.LogOverflowPolicy;
+import com.odontologiaintegralfm.exception.StackTraceFormatter;
+import com.odontologiaintegralfm.model.SystemLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Escritor asíncrono de los logs del sistema ({@code system_logs}).
+ * <p>
+ * {@link SystemLogService#save} solo encola el log en un buffer circular acotado y vuelve de inmediato; un hilo
+ * en segundo plano lo persiste con inserts JDBC por lotes, cuando se junta un lote completo o vence el intervalo
+ * de escritura. De este modo el registro de auditoría no suma una escritura a la base en cada operación de negocio
+ * y no depende de la transacción del llamador.
+ * </p>
+ * <ul>
+ *   <li>Si el buffer se llena se aplica la política configurada ({@link LogOverflowPolicy}).</li>
+ *   <li>Al detener la aplicación se escriben los logs pendientes.</li>
+ *   <li>Los stack traces se guardan una sola vez en {@code stack_trace_fingerprints}: por lote se hace un upsert
+ *   por fingerprint distinto (sumando sus ocurrencias) y los logs solo guardan el fingerprint.</li>
+ *   <li>Un error al escribir un lote se informa por consola (no en la base, para no realimentar el error) y el lote se descarta.</li>
+ * </ul>
+ * <p>
+ * Para que MySQL ejecute cada lote como un único insert multi-fila, la URL de conexión debe incluir
+ * {@code rewriteBatchedStatements=true}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SystemLogWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO system_logs " +
+            "(timestamp, level, type, user_message, technical_message, name, username, metadata, stack_trace, stack_trace_fingerprint) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_FINGERPRINT_SQL = "INSERT INTO stack_trace_fingerprints " +
+            "(fingerprint, exception_class, stack_trace, occurrences, first_seen, last_seen) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE occurrences = occurrences + VALUES(occurrences), last_seen = GREATEST(last_seen, VALUES(last_seen))";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${system-log.writer.capacity:10000}")
+    private int capacity;
+
+    @Value("${system-log.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${system-log.writer.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${system-log.writer.overflow-policy:DROP_OLDEST}")
+    private LogOverflowPolicy overflowPolicy;
+
+    @Value("${system-log.writer.block-timeout-ms:50}")
+    private long blockTimeoutMillis;
+
+    @Value("${system-log.writer.sample-rate:10}")
+    private int sampleRate;
+
+    @Value("${system-log.writer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMillis;
+
+    private ArrayBlockingQueue<SystemLog> buffer;
+
+    private Thread worker;
+
+    private volatile boolean running;
+
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private Counter droppedCounter;
+
+    private Counter failedCounter;
+
+
+    @PostConstruct
+    public void init() {
+        buffer = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("system.log.writer.queue.depth", buffer, ArrayBlockingQueue::size)
+                .description("Logs del sistema pendientes de escritura")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("system.log.writer.dropped")
+                .description("Logs descartados por buffer lleno")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("system.log.writer.failed")
+                .description("Logs descartados por error al escribir el lote")
+                .register(meterRegistry);
+
+        running = true;
+        worker = new CustomizableThreadFactory("system-log-writer-").newThread(this::run);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+
+    /**
+     * Detiene el hilo de escritura después de persistir los logs pendientes (con un tiempo máximo de espera).
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            worker.join(shutdownTimeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!buffer.isEmpty()) {
+            log.warn("Se descartaron {} logs del sistema pendientes al detener la aplicación.", buffer.size());
+        }
+    }
+
+
+    /**
+     * Encola un log para su escritura. Nunca lanza excepciones al llamador.
+     *
+     * @param systemLog Log a persistir.
+     */
+    public void enqueue(SystemLog systemLog) {
+        boolean accepted = switch (overflowPolicy) {
+            case DROP_OLDEST -> offerDroppingOldest(systemLog);
+            case BLOCK -> offerBlocking(systemLog);
+            case SAMPLE -> offerSampling(systemLog);
+        };
+
+        if (!accepted) {
+            droppedCounter.increment();
+        }
+    }
+
+
+    private boolean offerDroppingOldest(SystemLog systemLog) {
+        while (!buffer.offer(systemLog)) {
+            if (buffer.poll() != null) {
+                droppedCounter.increment();
+            }
+        }
+        return true;
+    }
+
+
+    private boolean offerBlocking(SystemLog systemLog) {
+        try {
+            return buffer.offer(systemLog, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+    //Con el buffer por encima de 3/4 de su capacidad solo se acepta uno de cada sampleRate logs.
+    private boolean offerSampling(SystemLog systemLog) {
+        if (buffer.size() >= capacity - capacity / 4 && sampleSequence.incrementAndGet() % sampleRate != 0) {
+            return false;
+        }
+        return buffer.offer(systemLog);
+    }
+
+
+    //Bucle del hilo de escritura: arma lotes por tamaño o por tiempo hasta que se detiene y el buffer queda vacío.
+    private void run() {
+        List<SystemLog> batch = new ArrayList<>(batchSize);
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                SystemLog first = buffer.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                while (batch.size() < batchSize && running) {
+                    buffer.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    SystemLog next = buffer.poll(remaining, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                //Al detener la aplicación se escribe lo pendiente sin esperar el intervalo.
+                buffer.drainTo(batch, batchSize - batch.size());
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+
+    /**
+     * Ocurrencias de un mismo stack trace dentro de un lote.
+     */
+    private static final class FingerprintOccurrences {
+        private final SystemLog first;
+        private LocalDateTime lastSeen;
+        private int count;
+
+        private FingerprintOccurrences(SystemLog first) {
+            this.first = first;
+            this.lastSeen = first.getTimestamp();
+        }
+    }
+
+
+    private void write(List<SystemLog> batch) {
+        try {
+            upsertFingerprints(batch);
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, systemLog) -> {
+                ps.setTimestamp(1, Timestamp.valueOf(systemLog.getTimestamp()));
+                ps.setString(2, systemLog.getLevel() != null ? systemLog.getLevel().name() : null);
+                ps.setString(3, systemLog.getType() != null ? systemLog.getType().name() : null);
+                ps.setString(4, systemLog.getUserMessage());
+                ps.setString(5, systemLog.getTechnicalMessage());
+                ps.setString(6, systemLog.getName());
+                ps.setString(7, systemLog.getUsername());
+                ps.setString(8, systemLog.getMetadata());
+                //Con fingerprint el texto ya está en stack_trace_fingerprints.
+                ps.setString(9, systemLog.getStackTraceFingerprint() == null ? systemLog.getStackTrace() : null);
+                ps.setString(10, systemLog.getStackTraceFingerprint());
+            });
+        } catch (RuntimeException e) {
+            //Cualquier error se captura: si el hilo de escritura termina, los logs siguientes se perderían.
+            failedCounter.increment(batch.size());
+            log.error("No se pudo escribir un lote de {} logs del sistema.", batch.size(), e);
+        }
+    }
+
+
+    //Registra los stack traces del lote: un upsert por fingerprint con la cantidad de ocurrencias del lote.
+    private void upsertFingerprints(List<SystemLog> batch) {
+        Map<String, FingerprintOccurrences> fingerprints = new LinkedHashMap<>();
+        for (SystemLog systemLog : batch) {
+            if (systemLog.getStackTraceFingerprint() != null) {
+                FingerprintOccurrences occurrences = fingerprints.computeIfAbsent(systemLog.getStackTraceFingerprint(), k -> new FingerprintOccurrences(systemLog));
+                occurrences.count++;
+                if (systemLog.getTimestamp().isAfter(occurrences.lastSeen)) {
+                    occurrences.lastSeen = systemLog.getTimestamp();
+                }
+            }
+        }
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+
+        List<FingerprintOccurrences> rows = new ArrayList<>(fingerprints.values());
+        jdbcTemplate.batchUpdate(UPSERT_FINGERPRINT_SQL, rows, rows.size(), (ps, occurrences) -> {
+            SystemLog first = occurrences.first;
+            ps.setString(1, first.getStackTraceFingerprint());
+            ps.setString(2, StackTraceFormatter.exceptionClass(first.getStackTrace()));
+            ps.setString(3, first.getStackTrace());
+            ps.setLong(4, occurrences.count);
+            ps.setTimestamp(5, Timestamp.valueOf(first.getTimestamp()));
+            ps.setTimestamp(6, Timestamp.valueOf(occurrences.lastSeen));
+        });
+    }
+}
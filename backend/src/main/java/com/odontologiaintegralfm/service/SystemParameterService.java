@@ -1,27 +1,57 @@
 package com.odontologiaintegralfm.service;
 
 
+import com.odontologiaintegralfm.dto.internal.SystemParameterSnapshot;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.enums.SystemParameterKey;
+import com.odontologiaintegralfm.exception.ConflictException;
 import com.odontologiaintegralfm.exception.DataBaseException;
 import com.odontologiaintegralfm.exception.NotFoundException;
 import com.odontologiaintegralfm.model.SystemParameter;
 import com.odontologiaintegralfm.repository.ISystemParameterRepository;
 import com.odontologiaintegralfm.service.interfaces.ISystemParameterService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Servicio de parámetros del sistema.
+ * <p>
+ * Los métodos de uso interno ({@link #getByKey(SystemParameterKey)} y {@link #getSnapshot()}) leen una instantánea
+ * inmutable en memoria, con los valores ya convertidos a su tipo (enteros, duraciones, conjuntos de extensiones).
+ * Se carga en el primer uso y se reemplaza de forma atómica al confirmarse la actualización de un parámetro.
+ * </p>
+ * <p>
+ * Si un parámetro falta en la base de datos o su valor no es válido, se registra una advertencia y se usa el valor
+ * por defecto configurado en {@code system-parameter.default.*}, sin afectar al resto de los parámetros.
+ * </p>
+ */
+@Slf4j
 @Service
 public class SystemParameterService implements ISystemParameterService {
 
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private static final String DEFAULT_PROPERTY_PREFIX = "system-parameter.default.";
+
     @Autowired
     private ISystemParameterRepository systemParameterRepository;
 
+    @Autowired
+    private Environment environment;
+
+    private final AtomicReference<SystemParameterSnapshot> current = new AtomicReference<>();
+
     /**
      * Obtiene todas las parametrizaciones del sistema.
      *
@@ -63,26 +93,163 @@ public class SystemParameterService implements ISystemParameterService {
      */
     @Override
     public String getByKey(SystemParameterKey keyName) {
-        try{
-
-            return systemParameterRepository.findValueByKeyName(keyName);
+        return getSnapshot().values().get(keyName);
+    }
 
-        }catch (DataAccessException | CannotCreateTransactionException e) {
-            throw new DataBaseException(e, "SystemParameterService",null, keyName.toString(), "getByKey");
+    /**
+     * Obtiene la instantánea tipada de los parámetros del sistema (sin acceder a la base de datos).
+     *
+     * @return SystemParameterSnapshot
+     */
+    @Override
+    public SystemParameterSnapshot getSnapshot() {
+        SystemParameterSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current.get();
+                if (snapshot == null) {
+                    reload();
+                    snapshot = current.get();
+                }
+            }
         }
+        return snapshot;
     }
 
     /**
      * Actualiza valor de un parámetro del sistema.
+     * <p>
+     * El valor se valida según el tipo del parámetro antes de guardarlo. La instantánea en memoria se recarga
+     * cuando la transacción confirma (o de inmediato si no hay una transacción activa).
+     * </p>
      * @param systemParameter DTO del parámetro a actualizar.
      * @return SystemParameter
+     * @throws ConflictException Si el valor no es válido para el parámetro.
      */
     @Override
     public SystemParameter update(SystemParameter systemParameter) {
         try{
-            return systemParameterRepository.save(systemParameter);
+            parse(systemParameter.getKeyName(), systemParameter.getValue());
+        }catch (IllegalArgumentException e) {
+            throw new ConflictException("exception.systemParameterService.invalidValue.user", null, "exception.systemParameterService.invalidValue.log", new Object[]{systemParameter.getKeyName(), systemParameter.getValue(), "SystemParameterService", "update"}, LogLevel.INFO);
+        }
+
+        try{
+            SystemParameter saved = systemParameterRepository.save(systemParameter);
+            reloadAfterCommit();
+            return saved;
         }catch (DataAccessException | CannotCreateTransactionException e) {
             throw new DataBaseException(e, "SystemParameterService",systemParameter.getId(), null, "update");
         }
     }
+
+
+    /**
+     * Reconstruye la instantánea con los valores actuales de la base de datos y la reemplaza de forma atómica.
+     * Los parámetros faltantes o inválidos toman su valor por defecto.
+     *
+     * @throws IllegalStateException Si además el valor por defecto de un parámetro falta o no es válido.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void reload() {
+        Map<SystemParameterKey, String> values = new EnumMap<>(SystemParameterKey.class);
+        try{
+            for (SystemParameter systemParameter : systemParameterRepository.findAll()) {
+                values.put(systemParameter.getKeyName(), systemParameter.getValue());
+            }
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "SystemParameterService",null, null, "reload");
+        }
+
+        current.set(new SystemParameterSnapshot(
+                Collections.unmodifiableMap(values),
+                resolve(values, SystemParameterKey.FAILED_LOGIN_ATTEMPTS, Integer.class),
+                resolve(values, SystemParameterKey.JWT_EXPIRATION, Duration.class),
+                resolve(values, SystemParameterKey.REFRESH_TOKEN_EXPIRATION, Duration.class),
+                resolve(values, SystemParameterKey.ATTACHMENT_MIN_DAYS, Integer.class),
+                resolve(values, SystemParameterKey.LOGS_MIN_DAYS, Integer.class),
+                (Set<String>) resolve(values, SystemParameterKey.EXTENSION_IMAGE, Set.class),
+                (Set<String>) resolve(values, SystemParameterKey.EXTENSION_DOCUMENTS, Set.class),
+                resolve(values, SystemParameterKey.SIZE_FILE, Long.class)
+        ));
+        log.info("Parámetros del sistema actualizados [Parámetros: {}]", values.size());
+    }
+
+
+    private void reloadAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload();
+                }
+            });
+        } else {
+            reload();
+        }
+    }
+
+
+    //Convierte el valor de un parámetro; si falta o no es válido usa el valor por defecto y lo deja en values,
+    //para que getByKey devuelva el valor efectivo.
+    private <T> T resolve(Map<SystemParameterKey, String> values, SystemParameterKey key, Class<T> type) {
+        String value = values.get(key);
+        try {
+            return type.cast(parse(key, value));
+        } catch (IllegalArgumentException e) {
+            String defaultValue = environment.getProperty(DEFAULT_PROPERTY_PREFIX + key.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            log.warn("Parámetro del sistema inexistente o inválido, se usa el valor por defecto [Parámetro: {}, Valor: {}, Por defecto: {}]", key, value, defaultValue);
+            try {
+                T resolved = type.cast(parse(key, defaultValue));
+                values.put(key, defaultValue);
+                return resolved;
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalStateException("Valor por defecto inexistente o inválido para el parámetro del sistema: " + key + " = " + defaultValue, ex);
+            }
+        }
+    }
+
+
+    /**
+     * Convierte el valor de un parámetro a su tipo.
+     *
+     * @throws IllegalArgumentException Si el valor no es válido (incluye {@link NumberFormatException}).
+     */
+    private Object parse(SystemParameterKey key, String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Valor nulo");
+        }
+        return switch (key) {
+            case FAILED_LOGIN_ATTEMPTS, ATTACHMENT_MIN_DAYS, LOGS_MIN_DAYS -> positiveInt(value);
+            case JWT_EXPIRATION -> Duration.ofMinutes(positiveInt(value));
+            case REFRESH_TOKEN_EXPIRATION -> Duration.ofDays(positiveInt(value));
+            case SIZE_FILE -> positiveInt(value) * BYTES_PER_MB;
+            case EXTENSION_IMAGE, EXTENSION_DOCUMENTS -> extensions(value);
+        };
+    }
+
+
+    private int positiveInt(String value) {
+        int number = Integer.parseInt(value.trim());
+        if (number <= 0) {
+            throw new IllegalArgumentException("El valor debe ser mayor a cero");
+        }
+        return number;
+    }
+
+
+    //Separa la lista de extensiones (Ej: "jpg, png;.pdf") en un conjunto en minúsculas y sin punto.
+    private Set<String> extensions(String value) {
+        Set<String> extensions = new HashSet<>();
+        for (String extension : value.toLowerCase(Locale.ROOT).split("[,;|\\s]+")) {
+            String normalized = extension.startsWith(".") ? extension.substring(1) : extension;
+            if (!normalized.isEmpty()) {
+                extensions.add(normalized);
+            }
+        }
+        if (extensions.isEmpty()) {
+            throw new IllegalArgumentException("Lista de extensiones vacía");
+        }
+        return Set.copyOf(extensions);
+    }
 }
@@ -0,0 +1,355 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.configuration.appConfig.annotations.LogAction;
+import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+import com.odontologiaintegralfm.enums.LogLevel;
+import com.odontologiaintegralfm.enums.LogType;
+import com.odontologiaintegralfm.exception.DataBaseException;
+import com.odontologiaintegralfm.model.RevokedToken;
+import com.odontologiaintegralfm.repository.IRevokedTokenRepository;
+import com.odontologiaintegralfm.service.interfaces.ITokenRevocationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lista de JWT revocados (deny list por {@code jti}).
+ * <p>
+ * Las revocaciones se persisten en {@code revoked_tokens} y se mantienen en memoria en dos estructuras:
+ * </p>
+ * <ul>
+ *   <li>Un filtro de Bloom: si responde "no contiene", el token no está revocado y no se hace nada más.
+ *   Es el camino de prácticamente todas las solicitudes.</li>
+ *   <li>Un conjunto exacto {@code jti → expiración}, consultado solo cuando el filtro indica una posible coincidencia,
+ *   para descartar falsos positivos.</li>
+ * </ul>
+ * <p>
+ * Cada entrada vale hasta la expiración del token. La tarea programada {@code CLEAN_REVOKED_TOKENS} elimina las
+ * vencidas de la base y reconstruye la lista en memoria.
+ * </p>
+ * <p>
+ * La lista se carga al iniciar la aplicación, de modo que {@link #isRevoked(String)} nunca accede a la base. Si una
+ * recarga falla se conserva la última lista válida. Las revocaciones de otras instancias se incorporan consultando
+ * periódicamente las registradas desde la última consulta ({@code security.jwt.revocation.poll-ms}).
+ * </p>
+ */
+@Slf4j
+@Service
+public class TokenRevocationService implements ITokenRevocationService {
+
+    //Margen hacia atrás de cada consulta incremental: cubre revocaciones de otras instancias que confirman tarde.
+    private static final Duration POLL_OVERLAP = Duration.ofMinutes(1);
+
+    @Autowired
+    private IRevokedTokenRepository revokedTokenRepository;
+
+    @Value("${security.jwt.revocation.expected-entries:10000}")
+    private int expectedEntries;
+
+    @Value("${security.jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${security.jwt.revocation.purge.batch-size:1000}")
+    private int purgeBatchSize;
+
+    private final AtomicReference<RevocationList> current = new AtomicReference<>();
+
+    //Fecha de revocación más reciente incorporada desde la base; null mientras no haya una carga completa.
+    private volatile LocalDateTime lastRevokedAt;
+
+
+    /**
+     * Lista en memoria: filtro de Bloom dimensionado para {@code capacity} entradas y conjunto exacto.
+     */
+    private record RevocationList(int capacity, BloomFilter bloomFilter, Map<String, Long> entries) {
+    }
+
+
+    @Override
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        RevocationList list = getList();
+        if (!list.bloomFilter().mightContain(jti)) {
+            return false;
+        }
+
+        Long expiresAtMillis = list.entries().get(jti);
+        if (expiresAtMillis == null) {
+            return false;
+        }
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            list.entries().remove(jti, expiresAtMillis);
+            return false;
+        }
+        return true;
+    }
+
+
+    @Override
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+
+        try {
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setJti(jti);
+            revokedToken.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+            revokedToken.setRevokedAt(LocalDateTime.now());
+            revokedTokenRepository.save(revokedToken);
+        } catch (DataIntegrityViolationException e) {
+            //El token ya estaba revocado.
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "TokenRevocationService", 0L, jti, "revoke");
+        }
+
+        add(jti, expiresAt.toEpochMilli());
+    }
+
+
+    /**
+     * Elimina las revocaciones vencidas por lotes y reconstruye la lista en memoria.
+     *
+     * @return Resultado de la tarea programada.
+     */
+    @Override
+    @LogAction(
+            value ="tokenRevocationService.systemLogService.deleteExpired",
+            args =  {"#result.durationSeconds","#result.message","#result.countDeleted" },
+            type = LogType.SCHEDULED,
+            level = LogLevel.INFO
+    )
+    public SchedulerResultDTO deleteExpired() {
+        int countDeleted = 0;
+        long start = System.currentTimeMillis();
+
+        try{
+            LocalDateTime now = LocalDateTime.now();
+            int deleted;
+            do {
+                deleted = revokedTokenRepository.deleteExpiredBatch(now, purgeBatchSize);
+                countDeleted += deleted;
+            } while (deleted == purgeBatchSize);
+
+            reload();
+
+            double durationSeconds = (System.currentTimeMillis() - start) / 1000.0;
+
+            return new SchedulerResultDTO(
+                    durationSeconds,
+                    "Registros eliminados correctamente",
+                    0,
+                    countDeleted);
+
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "TokenRevocationService", null, null, "deleteExpired");
+        }
+    }
+
+
+    /**
+     * Carga la lista en memoria al iniciar la aplicación.
+     * Si la base no está disponible se inicia con la lista vacía y la consulta periódica reintenta la carga.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            reload();
+        } catch (DataBaseException e) {
+            log.error("No se pudo cargar la lista de tokens revocados, se reintentará en la próxima consulta", e);
+        }
+    }
+
+
+    /**
+     * Reconstruye la lista en memoria con las revocaciones vigentes de la base.
+     * Si la consulta falla se conserva la lista vigente.
+     */
+    public synchronized void reload() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<RevokedToken> revokedTokens = revokedTokenRepository.findAllByExpiresAtAfter(now);
+
+            Map<String, Long> entries = new ConcurrentHashMap<>();
+            for (RevokedToken revokedToken : revokedTokens) {
+                entries.put(revokedToken.getJti(), toEpochMilli(revokedToken.getExpiresAt()));
+            }
+            //Se conservan las revocaciones locales que aún no estaban confirmadas al consultar.
+            RevocationList previous = current.get();
+            if (previous != null) {
+                long nowMillis = System.currentTimeMillis();
+                previous.entries().forEach((jti, expiresAtMillis) -> {
+                    if (expiresAtMillis > nowMillis) {
+                        entries.putIfAbsent(jti, expiresAtMillis);
+                    }
+                });
+            }
+            current.set(build(entries));
+            lastRevokedAt = now;
+            log.info("Lista de tokens revocados actualizada [Entradas: {}]", entries.size());
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "TokenRevocationService", 0L, "", "reload");
+        }
+    }
+
+
+    /**
+     * Incorpora las revocaciones registradas (por cualquier instancia) desde la última consulta.
+     * Si todavía no hubo una carga completa, la intenta. Un fallo de la base se registra y se reintenta
+     * en la próxima ejecución, sin alterar la lista vigente.
+     */
+    @Scheduled(initialDelayString = "${security.jwt.revocation.poll-ms:30000}", fixedDelayString = "${security.jwt.revocation.poll-ms:30000}")
+    public void pollRecent() {
+        try {
+            if (lastRevokedAt == null) {
+                reload();
+                return;
+            }
+
+            LocalDateTime since = lastRevokedAt.minus(POLL_OVERLAP);
+            LocalDateTime latest = lastRevokedAt;
+            long now = System.currentTimeMillis();
+            Map<String, Long> recent = new HashMap<>();
+            for (RevokedToken revokedToken : revokedTokenRepository.findAllByRevokedAtAfter(since)) {
+                long expiresAtMillis = toEpochMilli(revokedToken.getExpiresAt());
+                if (expiresAtMillis > now) {
+                    recent.put(revokedToken.getJti(), expiresAtMillis);
+                }
+                if (revokedToken.getRevokedAt() != null && revokedToken.getRevokedAt().isAfter(latest)) {
+                    latest = revokedToken.getRevokedAt();
+                }
+            }
+            recent.forEach(this::add);
+            lastRevokedAt = latest;
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            log.warn("No se pudieron consultar las revocaciones recientes, se conserva la lista vigente: {}", e.getMessage());
+        } catch (DataBaseException e) {
+            log.warn("No se pudo cargar la lista de tokens revocados, se conserva la lista vigente: {}", e.getMessage());
+        }
+    }
+
+
+    //Agrega una revocación a la lista en memoria; si supera la capacidad del filtro, lo redimensiona.
+    //Se sincroniza con reload() para que una revocación concurrente no se pierda al reemplazar la lista.
+    private synchronized void add(String jti, long expiresAtMillis) {
+        RevocationList list = getList();
+        list.entries().put(jti, expiresAtMillis);
+        list.bloomFilter().put(jti);
+
+        if (list.entries().size() > list.capacity()) {
+            current.set(build(list.entries()));
+        }
+    }
+
+
+    //Obtiene la lista en memoria sin acceder a la base; hasta la primera carga es una lista vacía.
+    private RevocationList getList() {
+        RevocationList list = current.get();
+        if (list == null) {
+            current.compareAndSet(null, build(new ConcurrentHashMap<>()));
+            list = current.get();
+        }
+        return list;
+    }
+
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+
+    //Construye una lista con capacidad para el doble de las entradas actuales (mínimo la esperada).
+    private RevocationList build(Map<String, Long> entries) {
+        int capacity = Math.max(expectedEntries, entries.size() * 2);
+        BloomFilter bloomFilter = new BloomFilter(capacity, falsePositiveRate);
+        entries.keySet().forEach(bloomFilter::put);
+        return new RevocationList(capacity, bloomFilter, entries);
+    }
+
+
+    /**
+     * Filtro de Bloom concurrente sobre un {@link AtomicLongArray}.
+     * Usa doble hashing a partir de un hash de 64 bits del {@code jti}.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+
+        private final int numBits;
+
+        private final int numHashes;
+
+        private BloomFilter(int expectedEntries, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.numBits = (int) Math.max(64, Math.min(optimalBits, Integer.MAX_VALUE - 64));
+            this.numHashes = Math.max(1, (int) Math.round((double) numBits / expectedEntries * ln2));
+            this.bits = new AtomicLongArray((numBits + 63) >>> 6);
+        }
+
+        private void put(String value) {
+            long hash = hash64(value);
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int index = index(hash1 + i * hash2);
+                long mask = 1L << (index & 63);
+                bits.getAndAccumulate(index >>> 6, mask, (a, b) -> a | b);
+            }
+        }
+
+        private boolean mightContain(String value) {
+            long hash = hash64(value);
+            int hash1 = (int) hash;
+            int hash2 = (int) (hash >>> 32);
+            for (int i = 1; i <= numHashes; i++) {
+                int index = index(hash1 + i * hash2);
+                if ((bits.get(index >>> 6) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(int combinedHash) {
+            return (combinedHash < 0 ? ~combinedHash : combinedHash) % numBits;
+        }
+
+        //FNV-1a de 64 bits con mezcla final (fmix64 de MurmurHash3).
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -1,20 +1,28 @@
 package com.odontologiaintegralfm.service;
 import com.odontologiaintegralfm.configuration.appConfig.annotations.LogAction;
 import com.odontologiaintegralfm.dto.*;
+import com.odontologiaintegralfm.dto.internal.IssuedRefreshTokenDTO;
+import com.odontologiaintegralfm.dto.internal.LoginContextDTO;
 import com.odontologiaintegralfm.enums.LogType;
+import com.odontologiaintegralfm.exception.AppException;
 import com.odontologiaintegralfm.exception.ForbiddenException;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.exception.UnauthorizedException;
 import com.odontologiaintegralfm.model.*;
 import com.odontologiaintegralfm.repository.IUserRepository;
 import com.odontologiaintegralfm.service.interfaces.*;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthMetrics;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
 import com.odontologiaintegralfm.configuration.securityConfig.JwtUtils;
+import com.odontologiaintegralfm.configuration.securityConfig.LoginThrottle;
+import com.odontologiaintegralfm.configuration.securityConfig.PermissionAuthenticationToken;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
@@ -43,7 +51,7 @@ import java.util.*;
  * <p>
  * La autenticación se realiza mediante {@link #authenticate(String, String)}, que verifica
  * las credenciales del usuario y aplica lógica de seguridad como reintentos y bloqueos.
- * Si la autenticación es exitosa, {@link #loginUser(AuthLoginRequestDTO)} genera un token JWT.
+ * Si la autenticación es exitosa, {@link #loginUser(AuthLoginRequestDTO, String)} genera un token JWT.
  * </p>
  *
  * <p>
@@ -88,6 +96,21 @@ public class UserDetailsServiceImp implements UserDetailsService {
     @Autowired
     private IRoleService roleService;
 
+    @Autowired
+    private IRolePermissionSnapshotService rolePermissionSnapshotService;
+
+    @Autowired
+    private AuthenticatedUserService authenticatedUserService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Autowired
+    private ITokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuthMetrics authMetrics;
+
 
 
     /**
@@ -106,19 +129,54 @@ public class UserDetailsServiceImp implements UserDetailsService {
     @Override
         public UserDetails loadUserByUsername (String username) throws UsernameNotFoundException {
         //Se cuenta con usuario de tipo Usersec y se necesita devolver un tipo UserDetails
+        LoginContextDTO loginContext = this.loadLoginContext(username);
+        UserSec userSec = loginContext.user();
+
+        //Se retorna el usuario en formato Spring Security con los datos del userSec
+        return new User(
+                userSec.getUsername(),
+                userSec.getPassword(),
+                userSec.isEnabled(),
+                userSec.isAccountNotExpired(),
+                userSec.isCredentialNotExpired(),
+                userSec.isAccountNotLocked(),
+                loginContext.authorities()
+        );
+    }
+
+
+
+    /**
+     * Carga el contexto de login de un usuario: el usuario con roles y persona en una única consulta
+     * y sus autoridades desde la instantánea de roles en memoria.
+     * <p>
+     * El contexto se reutiliza en todos los pasos del login para no volver a consultar al usuario.
+     * </p>
+     *
+     * @param username El nombre de usuario del usuario a cargar.
+     * @return Un {@link LoginContextDTO} con el usuario y sus autoridades.
+     * @throws UnauthorizedException Si el usuario no se encuentra en la base de datos.
+     */
+    public LoginContextDTO loadLoginContext(String username) {
         //Se recupera el usuario de la bd
-        UserSec userSec = userRepo.findUserEntityByUsername(username)
+        UserSec userSec = userRepo.findLoginUserByUsername(username)
                 .orElseThrow(()-> new UnauthorizedException("exception.usernameNotFound.user", null,"exception.usernameNotFound.log",new Object[]{username,"UserDetailServiceImp", "loadUserByUsername"},LogLevel.WARN));
 
         //Spring Security maneja permisos con GrantedAuthority
         //Se crea una lista de SimpleGrantedAuthority para almacenar los permisos
-        List<SimpleGrantedAuthority> authorityList = new ArrayList<>();
+        List<GrantedAuthority> authorityList = new ArrayList<>();
 
 
-        //Se obtiene roles y los convertimos en SimpleGrantedAuthority para poder agregarlos a la authorityList
+        //Se obtienen las autoridades (ROLE_x y PERMISO_x_y) de cada rol desde la instantánea en memoria
         for (Role role : userSec.getRolesList()) {
+            List<GrantedAuthority> roleAuthorities = rolePermissionSnapshotService.getAuthorities(role.getId());
+
+            if (roleAuthorities != null) {
+                authorityList.addAll(roleAuthorities);
+                continue;
+            }
 
-            // Arma el árbol de respuesta entre rol, permisos y acciones.
+            // Si el rol no está en la instantánea, se arma el árbol de respuesta entre rol, permisos y acciones.
             RoleFullResponseDTO roleFullResponseDTO = roleService.getFullByRoleId(role.getId());
 
             // 1. Agregamos el rol como autoridad
@@ -135,16 +193,7 @@ public class UserDetailsServiceImp implements UserDetailsService {
             });
         }
 
-        //Se retorna el usuario en formato Spring Security con los datos del userSec
-        return new User(
-                userSec.getUsername(),
-                userSec.getPassword(),
-                userSec.isEnabled(),
-                userSec.isAccountNotExpired(),
-                userSec.isCredentialNotExpired(),
-                userSec.isAccountNotLocked(),
-                authorityList
-        );
+        return new LoginContextDTO(userSec, List.copyOf(authorityList));
     }
 
 
@@ -160,6 +209,7 @@ public class UserDetailsServiceImp implements UserDetailsService {
      * </p>
      *
      * @param authLoginRequest Un objeto {@link AuthLoginRequestDTO} que contiene las credenciales del usuario.
+     * @param clientIp IP del cliente, utilizada para limitar los intentos fallidos por origen.
      * @return Un objeto {@link AuthLoginResponseDTO} con el nombre de usuario, un mensaje de éxito, el token JWT y un estado de autenticación exitoso.
      * @throws UnauthorizedException  Si las credenciales son incorrectas, se lanza una excepción de tipo {@link UnauthorizedException }.
      */
@@ -170,21 +220,33 @@ public class UserDetailsServiceImp implements UserDetailsService {
             level = LogLevel.INFO,
             type = LogType.SECURITY
     )
-    public Response<AuthLoginResponseDTO> loginUser (AuthLoginRequestDTO authLoginRequest){
+    public Response<AuthLoginResponseDTO> loginUser (AuthLoginRequestDTO authLoginRequest, String clientIp){
         try {
             //Se recupera nombre de usuario y contraseña
             String username = authLoginRequest.username();
             String password = authLoginRequest.password();
 
+            //Rechaza la IP si superó el máximo de intentos fallidos, antes de consultar la base y calcular BCrypt.
+            loginThrottle.checkClient(clientIp);
+
+            //Carga una única vez el usuario con roles y persona.
+            LoginContextDTO loginContext;
+            try {
+                loginContext = this.loadLoginContext(username);
+            } catch (UnauthorizedException e) {
+                loginThrottle.recordClientFailure(clientIp);
+                throw e;
+            }
+            UserSec userSec = loginContext.user();
+
             // Se invoca al método authenticate.
-            Authentication authentication = this.authenticate(username, password);
+            Authentication authentication = this.authenticate(loginContext, password, clientIp);
 
             //si es autenticado correctamente se almacena la información SecurityContextHolder.
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            //Obtiene datos del usuario desde la base de datos.
-            UserSec userSec = userService.getByUsername(username);
-
+            //Se registra el usuario de la solicitud para la auditoría (@LogAction) sin volver a consultarlo.
+            authenticatedUserService.setAuthenticatedUser(userSec);
 
             //
             PersonResponseDTO personResponseDTO = null;
@@ -192,14 +254,11 @@ public class UserDetailsServiceImp implements UserDetailsService {
                 personResponseDTO = personService.convertToDTO(userSec.getPerson());
             }
 
-            // Elimina el RefreshToken anterior.
-            refreshTokenService.deleteRefreshToken(userSec.getId());
-
             //Crea el JWT
-            String accessToken = jwtUtils.createToken(authentication);
+            String accessToken = jwtUtils.createToken(authentication, userSec.getId());
 
-            //Crea el RefreshToken
-            RefreshToken refreshToken = refreshTokenService.createRefreshToken(username);
+            //Emite el RefreshToken (reemplaza en el lugar el anterior del usuario).
+            IssuedRefreshTokenDTO refreshToken = refreshTokenService.createRefreshToken(userSec);
 
             //Arma el árbol de roles, permisos y acciones.
             Set<RoleFullResponseDTO> roleSet = new HashSet<>();
@@ -215,13 +274,18 @@ public class UserDetailsServiceImp implements UserDetailsService {
                     .username(userSec.getUsername())
                     .roles(roleSet)
                     .jwt(accessToken)
-                    .refreshToken(refreshToken.getRefreshToken())
+                    .refreshToken(refreshToken.token())
                     .person(personResponseDTO)
                     .build();
 
+            authMetrics.loginSuccess();
             return new Response<> (true,"", authLoginResponseDTO);
         }catch (BadCredentialsException ex) {
+            authMetrics.loginFailure(ex.getClass().getSimpleName());
             throw new UnauthorizedException("exception.badCredentials.user",null, "exception.badCredentials.log",new Object[]{authLoginRequest.username(),"UserDetailServiceImp", "loginUser"}, LogLevel.WARN);
+        }catch (AppException ex) {
+            authMetrics.loginFailure(ex.getClass().getSimpleName());
+            throw ex;
         }
     }
 
@@ -243,47 +307,67 @@ public class UserDetailsServiceImp implements UserDetailsService {
      * @throws ForbiddenException Si la cuenta ha sido bloqueada debido a intentos fallidos de inicio de sesión.
      */
     public Authentication authenticate (String username, String password) {
-        //Se recupera información de todos los detalles del usuario por el username
-        UserDetails userDetails = this.loadUserByUsername(username);
+        return this.authenticate(this.loadLoginContext(username), password, null);
+    }
+
 
-        // En caso que sea nulo, se informa que no se pudo encontrar al usuario.
-        if (userDetails == null) {
-            String logMessage = messageService.getMessage("exception.UsernameNotFound.log", new Object[]{username}, LocaleContextHolder.getLocale());
-            throw new UnauthorizedException("exception.usernameNotFound.user", null,"exception.usernameNotFound.log",new Object[]{username,"UserDetailServiceImp", "authenticate"}, LogLevel.WARN);
+
+    /**
+     * Autentíca a un usuario a partir de su contexto de login ya cargado.
+     * <p>
+     * Verifica la contraseña y aplica la lógica de reintentos, bloqueo y reactivación sobre el usuario
+     * del contexto, sin volver a consultarlo. Los intentos fallidos se cuentan en memoria con {@link LoginThrottle};
+     * solo el bloqueo de la cuenta se escribe en la base de datos.
+     * </p>
+     *
+     * @param loginContext Contexto de login con el usuario y sus autoridades.
+     * @param password Contraseña proporcionada por el usuario.
+     * @param clientIp IP del cliente (puede ser null).
+     * @return Un objeto {@link Authentication} que representa la autenticación del usuario si las credenciales son correctas.
+     * @throws UnauthorizedException Si la contraseña es incorrecta o la cuenta no está habilitada.
+     * @throws ForbiddenException Si la cuenta ha sido bloqueada debido a intentos fallidos de inicio de sesión.
+     */
+    public Authentication authenticate (LoginContextDTO loginContext, String password, String clientIp) {
+        UserSec userSec = loginContext.user();
+        String username = userSec.getUsername();
+
+        //Una cuenta bloqueada solo se habilita restableciendo la contraseña: no se calcula BCrypt.
+        if (!userSec.isAccountNotLocked()) {
+            throw new ForbiddenException("exception.blockAccount.user",null,"exception.blockAccount.log",new Object[]{userSec.getId(), userSec.getUsername(), "UserDetailServiceImp", "authenticate"},LogLevel.WARN);
         }
 
         //En caso que no coincidan las credenciales se informa que la password es incorrecta
-        if (!passwordEncoder.matches(password, userDetails.getPassword())) {
+        if (!passwordEncoder.matches(password, userSec.getPassword())) {
 
-            //Se incrementa intentos fallidos.
-            userService.incrementFailedAttempts(username);
+            //Se registra el intento fallido en memoria (usuario e IP), sin escribir en la base.
+            long failedAttempts = loginThrottle.recordFailure(username, clientIp);
 
-            //Verifica intentos de inicio de sesión.
-            boolean status = userService.verifyAttempts(username);
-
-            //Se bloquea en caso de igualar o exceder el limite.
-            if(!status){
-                UserSec userSec = userService.blockAccount(username);
+            //Se bloquea en caso de igualar o exceder el limite. Es la única escritura en la base.
+            if(!userService.verifyAttempts(failedAttempts)){
+                userService.blockAccount(userSec);
                 throw new ForbiddenException("exception.blockAccount.user",null,"exception.blockAccount.log",new Object[]{userSec.getId(), userSec.getUsername(), "UserDetailServiceImp", "authenticate"},LogLevel.WARN);
             }
             throw new UnauthorizedException("exception.badCredentials.user",null, "exception.badCredentials.log", new Object[]{username,"UserDetailServiceImp", "authenticate"},LogLevel.WARN);
         }
 
+        //Descarta los intentos fallidos en memoria.
+        loginThrottle.reset(username);
+
         //Verifica si está activa la cuenta.
-        userService.enableAccount(username);
+        userService.enableAccount(userSec);
 
         //Resetea intentos fallidos a 0.
-        userService.resetFailedAttempts(username);
+        userService.resetFailedAttempts(userSec);
 
 
-        return new UsernamePasswordAuthenticationToken(username, userDetails.getPassword(), userDetails.getAuthorities());
+        return new UsernamePasswordAuthenticationToken(username, userSec.getPassword(), loginContext.authorities());
     }
 
     /**
      * Actualiza el refresh token y emite un nuevo JWT.
      *
-     * <p>Este método obtiene el token de refresco actual de la base de datos por el ID de usuario,
-     * lo valida, elimina el refresh token antiguo, genera uno nuevo y actualiza el JWT
+     * <p>Este método valida el token de refresco recibido (código, usuario y vigencia) y lo rota
+     * en el lugar con una única sentencia; luego genera un nuevo JWT
      * utilizado para la autenticación. Finalmente, devuelve una respuesta que contiene el
      * nuevo token de refresco y el JWT junto con los detalles del usuario.</p>
      *
@@ -294,30 +378,21 @@ public class UserDetailsServiceImp implements UserDetailsService {
      *         y un objeto {@link RefreshTokenRequestDTO} con el nuevo token de refresco y el JWT.
      */
     public Response<RefreshTokenResponseDTO> refreshToken(RefreshTokenRequestDTO refreshTokenRequestDTO) {
-        //Obtiene el refresh token desde la base de datos por Id usuario.
-        RefreshToken refreshToken = refreshTokenService.getRefreshTokenByUserId(refreshTokenRequestDTO.getIdUser());
-
-        // Valída el código y la expiración.
-        refreshTokenService.validateRefreshToken(refreshToken, refreshTokenRequestDTO);
-
-        //Elimina el refresh Token actual.
-        refreshTokenService.deleteRefreshToken(refreshTokenRequestDTO.getRefreshToken());
-
-        //Generar un nuevo refresh Token y guarda en la base.
-        RefreshToken refreshTokenNew =  refreshTokenService.createRefreshToken(refreshTokenRequestDTO.getUsername());
+        //Valída el código, el usuario y la expiración, y rota el refresh token en una única sentencia.
+        IssuedRefreshTokenDTO refreshTokenNew = refreshTokenService.rotateRefreshToken(refreshTokenRequestDTO);
 
         // Obtiene datos del usuario para generar el objeto userDetails.
         UserDetails userDetails = this.loadUserByUsername(refreshTokenRequestDTO.getUsername());
 
-        // Crea un objeto authentication.
-        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        // Crea un objeto authentication (el principal es el nombre de usuario, que se usa como subject del JWT).
+        Authentication authentication = new UsernamePasswordAuthenticationToken(userDetails.getUsername(), null, userDetails.getAuthorities());
 
         //Genera un nuevo JWT.
-        String jwt = jwtUtils.createToken(authentication);
+        String jwt = jwtUtils.createToken(authentication, refreshTokenRequestDTO.getIdUser());
 
         //Actualiza valores en el objeto respuesta.
         RefreshTokenResponseDTO refreshTokenResponse = new RefreshTokenResponseDTO();
-        refreshTokenResponse.setRefreshToken(refreshTokenNew.getRefreshToken());
+        refreshTokenResponse.setRefreshToken(refreshTokenNew.token());
         refreshTokenResponse.setJwt(jwt);
         refreshTokenResponse.setIdUser(refreshTokenRequestDTO.getIdUser());
         refreshTokenResponse.setUsername(refreshTokenRequestDTO.getUsername());
@@ -330,11 +405,11 @@ public class UserDetailsServiceImp implements UserDetailsService {
 
 
     /**
-     * Cierra la sesión del usuario eliminando el refresh token.
+     * Cierra la sesión del usuario eliminando el refresh token y revocando el JWT actual.
      *
      * Este método elimina el refresh token asociado al usuario, invalidando cualquier futuro intento de
-     * renovación del token. Después de la eliminación, se genera un mensaje de éxito que es enviado
-     * en la respuesta.
+     * renovación del token, y agrega el {@code jti} del JWT en uso a la lista de tokens revocados.
+     * Después de la eliminación, se genera un mensaje de éxito que es enviado en la respuesta.
      *
      * @param refreshTokenRequestDTO El objeto que contiene el refresh token a eliminar. Debe incluir
      *                        el refresh token para identificar al usuario.
@@ -358,6 +433,11 @@ public class UserDetailsServiceImp implements UserDetailsService {
         //Elimina el refresh token del usuario
         refreshTokenService.deleteRefreshToken(refreshTokenRequestDTO.getRefreshToken());
 
+        //Revoca el JWT actual para que no pueda seguir utilizándose hasta su expiración.
+        if (SecurityContextHolder.getContext().getAuthentication() instanceof PermissionAuthenticationToken token) {
+            tokenRevocationService.revoke(token.getTokenId(), token.getExpiresAt());
+        }
+
         //Descifra la clave del mensaje
         String message = messageService.getMessage("userDetailServiceImpl.logout.ok", null, LocaleContextHolder.getLocale());
 
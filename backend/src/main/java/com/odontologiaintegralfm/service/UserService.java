@@ -4,9 +4,9 @@ import com.auth0.jwt.interfaces.DecodedJWT;
 import com.odontologiaintegralfm.configuration.appConfig.annotations.LogAction;
 import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
 import com.odontologiaintegralfm.dto.*;
+import com.odontologiaintegralfm.dto.internal.KeysetCursor;
 import com.odontologiaintegralfm.enums.LogLevel;
 import com.odontologiaintegralfm.enums.LogType;
-import com.odontologiaintegralfm.enums.SystemParameterKey;
 import com.odontologiaintegralfm.exception.*;
 import com.odontologiaintegralfm.model.*;
 import com.odontologiaintegralfm.repository.IUserRepository;
@@ -14,13 +14,16 @@ import com.odontologiaintegralfm.service.interfaces.IEmailService;
 import com.odontologiaintegralfm.service.interfaces.IMessageService;
 import com.odontologiaintegralfm.service.interfaces.IUserService;
 import com.odontologiaintegralfm.configuration.securityConfig.JwtUtils;
+import com.odontologiaintegralfm.configuration.securityConfig.LoginThrottle;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.validator.internal.util.stereotypes.Lazy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -30,7 +33,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.annotation.Transactional;
@@ -55,9 +58,8 @@ import java.util.stream.Collectors;
  *   <li>{@link UserService#createTokenResetPasswordForUser(String)}: Crea un token de restablecimiento de contraseña y envía un correo electrónico.</li>
  *   <li>{@link UserService#updatePassword(ResetPasswordRequestDTO, HttpServletRequest)}: Actualiza la contraseña de un usuario utilizando un token de restablecimiento válido.</li>
  *   <li>{@link #unlockAccount(UserSec)}</li>
- *   <li>{@link #incrementFailedAttempts(String)}</li>
- *   <li>{@link #resetFailedAttempts(String)}</li>
- *   <li>{@link #enableAccount(String)}</li>
+ *   <li>{@link #resetFailedAttempts(UserSec)}</li>
+ *   <li>{@link #enableAccount(UserSec)}</li>
  *   <li>{@link #validateNotDevRole(UserSecCreateDTO)}</li>
  *   <li>{@link #validateSelfUpdate(Long)}</li>
  *   <li>{@link #validateNotDevRole(UserSec, UserSecUpdateDTO)}</li>
@@ -104,6 +106,15 @@ public class UserService implements IUserService {
     @Autowired
     private SystemParameterService systemParameterService;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    @Value("${pagination.cursor.max-size:100}")
+    private int cursorMaxSize;
+
 
     /**
      * Recupera la lista de todos los usuarios del sistema EXCLUIDOS los desarrolladores.
@@ -119,6 +130,7 @@ public class UserService implements IUserService {
      * @throws DataBaseException Si ocurre un error en la consulta a la base de datos.
      */
     @Override
+    @Transactional(readOnly = true)
     public Response<Page<UserSecResponseDTO>> getAll(int page, int size, String sortBy, String direction) {
         try {
             //Define criterio de ordenamiento
@@ -133,25 +145,7 @@ public class UserService implements IUserService {
             Page<UserSec> userList = userRepository.findAllExcludingDevelopers(1L, pageable);
 
             if (!userList.isEmpty()) {
-                Page<UserSecResponseDTO> userSecResponseDTOList = userList
-                        .map(user -> {
-                            PersonResponseDTO personDTO = personService.convertToDTO(personService.getById(user.getPerson().getId()));
-
-                            Optional<Dentist> dentist = dentistService.getById(user.getPerson().getId());
-
-                            DentistResponseDTO dentistDTO = null;
-                            if (dentist.isPresent()) {
-                                dentistDTO = dentistService.convertToDTO(dentist.get());
-                            }
-                            return new UserSecResponseDTO(
-                                    user.getId(),
-                                    user.getUsername(),
-                                    user.getRolesList(),
-                                    user.isEnabled(),
-                                    personDTO,
-                                    dentistDTO
-                            );
-                        });
+                Page<UserSecResponseDTO> userSecResponseDTOList = new PageImpl<>(convertToListDTOs(userList.getContent()), pageable, userList.getTotalElements());
 
                 String messageUser = messageService.getMessage("userService.getAll.ok.user", null, LocaleContextHolder.getLocale());
                 return new Response<>(true, messageUser, userSecResponseDTOList);
@@ -166,6 +160,95 @@ public class UserService implements IUserService {
     }
 
 
+    /**
+     * Recupera la lista de usuarios del sistema EXCLUIDOS los desarrolladores, paginada por cursor (keyset).
+     * <p>
+     * Los usuarios se ordenan por username e ID, el mismo orden por defecto del listado paginado. Cada página
+     * continúa desde el último usuario de la anterior, sin OFFSET ni conteo, por lo que su costo no depende
+     * de la profundidad de la página.
+     * </p>
+     *
+     * @param cursor Cursor devuelto en la página anterior, o {@code null} para la primera página.
+     * @param size Cantidad de usuarios por página (acotada por {@code pagination.cursor.max-size}).
+     * @return Un objeto {@link Response} con la página y el cursor de la siguiente ({@code null} si no hay más usuarios).
+     * @throws BadRequestException Si el cursor no es válido.
+     * @throws DataBaseException Si ocurre un error en la consulta a la base de datos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Response<CursorPageDTO<UserSecResponseDTO>> getAllByCursor(String cursor, int size) {
+        KeysetCursor after;
+        try {
+            after = KeysetCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("exception.invalidCursor.user", null, "exception.invalidCursor.log", new Object[]{cursor, "UserService", "getAllByCursor"}, LogLevel.WARN);
+        }
+        int limit = Math.max(1, Math.min(size, cursorMaxSize));
+
+        try {
+            //Se pide un usuario de más para saber si hay una página siguiente.
+            List<Long> ids = userRepository.findNextIdsExcludingDevelopers(1L,
+                    after != null ? after.key() : null,
+                    after != null ? after.id() : null,
+                    PageRequest.ofSize(limit + 1));
+
+            boolean hasNext = ids.size() > limit;
+            if (hasNext) {
+                ids = ids.subList(0, limit);
+            }
+
+            //Los usuarios (con sus roles) se cargan en una consulta y se ordenan como la página.
+            Map<Long, UserSec> usersById = userRepository.findListByIdIn(ids).stream()
+                    .collect(Collectors.toMap(UserSec::getId, user -> user));
+            List<UserSec> users = ids.stream().map(usersById::get).filter(Objects::nonNull).toList();
+
+            String nextCursor = null;
+            if (hasNext && !users.isEmpty()) {
+                UserSec last = users.get(users.size() - 1);
+                nextCursor = new KeysetCursor(last.getUsername(), last.getId()).encode();
+            }
+
+            List<UserSecResponseDTO> content = convertToListDTOs(users);
+            String messageUser = messageService.getMessage(content.isEmpty() ? "userService.getAll.empty.user" : "userService.getAll.ok.user", null, LocaleContextHolder.getLocale());
+            return new Response<>(true, messageUser, new CursorPageDTO<>(content, nextCursor));
+
+        } catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "userService", 0L, "", "getAllByCursor");
+        }
+    }
+
+
+    //Convierte los usuarios del listado en sus DTO de respuesta, con la persona y, si corresponde, el odontólogo.
+    //Las personas (con contactos) y los odontólogos de toda la página se cargan en bloque, no uno por usuario.
+    private List<UserSecResponseDTO> convertToListDTOs(List<UserSec> users) {
+        List<Long> personIds = users.stream().map(user -> user.getPerson().getId()).toList();
+        personService.loadDetails(personIds);
+        Map<Long, Dentist> dentists = dentistService.getByIds(personIds);
+
+        return users.stream()
+                .map(user -> convertToListDTO(user, dentists.get(user.getPerson().getId())))
+                .toList();
+    }
+
+
+    private UserSecResponseDTO convertToListDTO(UserSec user, Dentist dentist) {
+        PersonResponseDTO personDTO = personService.convertToDTO(user.getPerson());
+
+        DentistResponseDTO dentistDTO = null;
+        if (dentist != null) {
+            dentistDTO = dentistService.convertToDTO(dentist);
+        }
+        return new UserSecResponseDTO(
+                user.getId(),
+                user.getUsername(),
+                user.getRolesList(),
+                user.isEnabled(),
+                personDTO,
+                dentistDTO
+        );
+    }
+
+
 
 
 
@@ -471,6 +554,7 @@ public class UserService implements IUserService {
      * <p>
      * Este método recibe una contraseña en texto plano y la encripta utilizando el algoritmo BCrypt,
      * que es una técnica común para el almacenamiento seguro de contraseñas.
+     * El hashing se ejecuta en el pool acotado del {@link PasswordEncoder} con el costo calibrado al iniciar.
      * </p>
      *
      * @param password La contraseña en texto plano que se desea encriptar.
@@ -478,7 +562,7 @@ public class UserService implements IUserService {
      */
     @Override
     public String encriptPassword(String password) {
-        return new BCryptPasswordEncoder().encode(password);
+        return passwordEncoder.encode(password);
     }
 
 
@@ -612,26 +696,17 @@ public class UserService implements IUserService {
     /**
      * Verifica si un usuario aún tiene intentos de inicio de sesión disponibles antes de ser bloqueado.
      * <p>
-     * Este método compara el número de intentos fallidos de inicio de sesión de un usuario con el límite
+     * Compara los intentos fallidos registrados por {@link LoginThrottle} dentro de su ventana con el límite
      * configurado en el sistema. Si el usuario ha alcanzado o superado el límite de intentos fallidos,
      * devuelve {@code false}; de lo contrario, devuelve {@code true}.
      * </p>
      *
-     * @param username El nombre de usuario cuya cantidad de intentos fallidos se verificará.
+     * @param failedAttempts Cantidad de intentos fallidos del usuario, incluido el actual.
      * @return {@code true} si el usuario aún tiene intentos disponibles, {@code false} si ha alcanzado el límite.
-     * @throws DataBaseException Si ocurre un error en la base de datos durante la verificación.
      */
-    protected boolean verifyAttempts(String username){
-        try{
-            int configAttempts = Integer.parseInt(systemParameterService.getByKey(SystemParameterKey.FAILED_LOGIN_ATTEMPTS));
-            int userAttempts = userRepository.findFailedLoginAttemptsByUsername(username);
-            if(userAttempts >= configAttempts){
-                return false;
-            }
-            return true;
-        }catch (DataAccessException | CannotCreateTransactionException e) {
-            throw new DataBaseException(e, "userService", 0L, username, "verifyAttempts");
-        }
+    protected boolean verifyAttempts(long failedAttempts){
+        int configAttempts = systemParameterService.getSnapshot().failedLoginAttempts();
+        return failedAttempts < configAttempts;
     }
 
 
@@ -639,34 +714,26 @@ public class UserService implements IUserService {
     /**
      * Bloquea la cuenta de un usuario tras exceder el número de intentos fallidos de inicio de sesión.
      * <p>
-     * Este método busca al usuario por su nombre de usuario y, si existe, establece su cuenta como bloqueada,
-     * registra la fecha y hora del bloqueo y actualiza la última modificación. Luego, guarda los cambios en la base de datos.
+     * Establece la cuenta como bloqueada y registra la fecha y hora del bloqueo mediante una única sentencia UPDATE,
+     * y refleja el cambio en la entidad recibida.
      * </p>
      *
-     * @param username El nombre de usuario cuya cuenta será bloqueada.
+     * @param user El usuario cuya cuenta será bloqueada.
      * @return El objeto {@link UserSec} con la cuenta bloqueada.
-     * @throws UnauthorizedException  Si el usuario no existe en la base de datos.
      * @throws DataBaseException Si ocurre un error al acceder a la base de datos.
      */
     @Transactional
-    protected UserSec blockAccount(String username){
-        Long userId = 0L; // Variable para almacenar el ID del usuario
+    protected UserSec blockAccount(UserSec user){
         try{
-            Optional<UserSec>userSec = userRepository.findUserEntityByUsername(username);
-            if(userSec.isEmpty()){
-                throw new UnauthorizedException("exception.usernameNotFound.user", null, "exception.usernameNotFound.log",new Object[]{username,"UserService", "blockAccount"}, LogLevel.ERROR);
-            }
-
-            //Obtener id Usuario para exception
-            userId = userSec.get().getId();
+            LocalDateTime now = LocalDateTime.now();
+            userRepository.lockAccount(user.getId(), now);
 
-            UserSec user = userSec.get();
             user.setAccountNotLocked(false);
-            user.setLocktime(LocalDateTime.now());
-            user.setUpdatedAt(LocalDateTime.now());
-            return userRepository.save(user);
+            user.setLocktime(now);
+            user.setUpdatedAt(now);
+            return user;
         }catch (DataAccessException | CannotCreateTransactionException e) {
-            throw new DataBaseException(e, "userService",userId, username, "blockAccount");
+            throw new DataBaseException(e, "userService",user.getId(), user.getUsername(), "blockAccount");
         }
     }
 
@@ -690,6 +757,7 @@ public class UserService implements IUserService {
             user.setLocktime(null);
             user.setUpdatedAt(LocalDateTime.now());
             userRepository.save(user);
+            loginThrottle.reset(user.getUsername());
         }catch (DataAccessException | CannotCreateTransactionException e) {
             throw new DataBaseException(e, "userService",user.getId(), user.getUsername(), "blockAccount");
         }
@@ -698,54 +766,27 @@ public class UserService implements IUserService {
 
 
     /**
-     * Incrementa el contador de intentos fallidos de inicio de sesión de un usuario.
+     * Restablece el contador de intentos fallidos de inicio de sesión de un usuario a cero.
      * <p>
-     * Si el usuario existe en la base de datos, este método incrementa el número de intentos fallidos,
-     * actualiza la fecha de última modificación y guarda los cambios en la base de datos.
+     * Solo accede a la base de datos si el usuario tiene intentos fallidos registrados.
      * </p>
      *
-     * @param username El nombre de usuario cuyo contador de intentos fallidos será incrementado.
+     * @param user El usuario cuyo contador de intentos fallidos será reiniciado.
      * @throws DataBaseException Si ocurre un error al acceder a la base de datos durante la actualización.
      */
     @Transactional
-    protected void incrementFailedAttempts(String username) {
-        Optional<UserSec> userSec = userRepository.findUserEntityByUsername(username);
-
-        if(userSec.isPresent()) {
-            UserSec userSecOK = userSec.get();
-            userSecOK.setFailedLoginAttempts(userSecOK.getFailedLoginAttempts() + 1);
-            userSecOK.setUpdatedAt(LocalDateTime.now());
-            try {
-                userRepository.save(userSecOK);
-            }catch (DataAccessException | CannotCreateTransactionException e) {
-                throw new DataBaseException(e, "userService", userSecOK.getId(), username, "incrementFailedAttempts");
-            }
+    protected void resetFailedAttempts(UserSec user) {
+        if (user.getFailedLoginAttempts() == 0) {
+            return;
         }
-    }
-
+        try{
+            LocalDateTime now = LocalDateTime.now();
+            userRepository.resetFailedLoginAttempts(user.getId(), now);
 
-    /**
-     * Restablece el contador de intentos fallidos de inicio de sesión de un usuario a cero.
-     * <p>
-     * Si el usuario existe en la base de datos, este método establece su número de intentos fallidos en 0,
-     * actualiza la fecha de última modificación y guarda los cambios en la base de datos.
-     * </p>
-     *
-     * @param username El nombre de usuario cuyo contador de intentos fallidos será reiniciado.
-     * @throws DataBaseException Si ocurre un error al acceder a la base de datos durante la actualización.
-     */
-    @Transactional
-    protected void resetFailedAttempts(String username) {
-        Optional<UserSec> userSec = userRepository.findUserEntityByUsername(username);
-        if(userSec.isPresent()) {
-            UserSec userSecOK = userSec.get();
-            userSecOK.setFailedLoginAttempts(0);
-            userSecOK.setUpdatedAt(LocalDateTime.now());
-            try{
-                userRepository.save(userSecOK);
-            }catch (DataAccessException | CannotCreateTransactionException e) {
-                throw new DataBaseException(e, "userService", userSecOK.getId(), username, "decrementFailedAttempts");
-            }
+            user.setFailedLoginAttempts(0);
+            user.setUpdatedAt(now);
+        }catch (DataAccessException | CannotCreateTransactionException e) {
+            throw new DataBaseException(e, "userService", user.getId(), user.getUsername(), "decrementFailedAttempts");
         }
     }
 
@@ -754,29 +795,16 @@ public class UserService implements IUserService {
     /**
      * Verifica si la cuenta de un usuario está habilitada en el sistema.
      * <p>
-     * Si el usuario existe en la base de datos, se comprueba si su cuenta está habilitada.
-     * En caso de que no lo esté, se lanza una excepción {@code UnauthorizedException}.
+     * Se comprueba sobre el usuario ya cargado. En caso de que no esté habilitado, se lanza una excepción {@code UnauthorizedException}.
      * </p>
      *
-     * @param username El nombre de usuario cuya cuenta se desea verificar.
+     * @param user El usuario cuya cuenta se desea verificar.
      * @throws UnauthorizedException Si la cuenta del usuario no está habilitada.
-     * @throws DataBaseException Si ocurre un error al acceder a la base de datos.
      */
-    protected void enableAccount(String username){
-        Long id = 0L;
-        try{
-            Optional<UserSec> userSec = userRepository.findUserEntityByUsername(username);
-            if(userSec.isPresent()) {
-                UserSec userSecOK = userSec.get();
-                id = userSecOK.getId();
-                if(!userSecOK.isEnabled()) {
-                    throw new UnauthorizedException("exception.usernameNotFound.user", null, "exception.usernameNotFound.log",new Object[]{username,"UserService", "enableAccount"}, LogLevel.ERROR);
-                }
-            }
-        }catch(DataAccessException | CannotCreateTransactionException e) {
-            throw new DataBaseException(e, "userService", id, username, "enableAccount");
+    protected void enableAccount(UserSec user){
+        if(!user.isEnabled()) {
+            throw new UnauthorizedException("exception.usernameNotFound.user", null, "exception.usernameNotFound.log",new Object[]{user.getUsername(),"UserService", "enableAccount"}, LogLevel.ERROR);
         }
-
     }
 
 
@@ -961,7 +989,7 @@ public class UserService implements IUserService {
         }
 
         userSec.setUpdatedAt(LocalDateTime.now());
-        userSec.setUpdatedBy(authenticatedUserService.getAuthenticatedUser());
+        userSec.setUpdatedBy(authenticatedUserService.getAuthenticatedUserReference());
 
         return userSec;
     }
@@ -1112,7 +1140,7 @@ public class UserService implements IUserService {
 
                 // Campos heredados de Auditable
                 LocalDateTime.now(), // createdAt
-                authenticatedUserService.getAuthenticatedUser(), // createdBy
+                authenticatedUserService.getAuthenticatedUserReference(), // createdBy
                 null, // updatedAt
                 null, // updatedBy
                 true, // enabled
@@ -112,4 +112,22 @@ public interface IConfigService {
      */
     Response<Page<SystemLogResponseDTO>> getLogs(int pageValue, int sizeValue, String sortByValue, String directionValue);
 
+
+    /**
+     * Se comunica con el servicio de {@link com.odontologiaintegralfm.service.SystemLogService} para la búsqueda filtrada de logs.
+     * @param filter Filtros de la búsqueda.
+     * @param cursor Cursor de la página anterior, o {@code null} para la primera página.
+     * @param size Cantidad de logs por página.
+     * @return Página de logs y cursor de la página siguiente.
+     */
+    Response<CursorPageDTO<SystemLogSearchResponseDTO>> searchLogs(SystemLogFilterDTO filter, String cursor, int size);
+
+
+
+    /**
+     * Convierte la tabla de logs en una tabla particionada por mes (paso de mantenimiento, bloquea la tabla).
+     * @return Nombres de las particiones de la tabla.
+     */
+    Response<List<String>> partitionLogs();
+
 }
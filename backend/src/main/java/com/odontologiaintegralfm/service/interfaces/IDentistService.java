@@ -8,7 +8,9 @@ import com.odontologiaintegralfm.exception.DataBaseException;
 import com.odontologiaintegralfm.model.Dentist;
 import com.odontologiaintegralfm.model.Person;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -53,6 +55,14 @@ public interface IDentistService {
      */
     Optional<Dentist> getById(Long id);
 
+    /**
+     * Método para obtener en una única consulta los dentistas (con su especialidad) de varias personas.
+     * Las personas que no son dentistas no figuran en el resultado.
+     * @param ids IDs de las personas.
+     * @return Dentistas por ID.
+     */
+    Map<Long, Dentist> getByIds(Collection<Long> ids);
+
     /**
      * Método para transformar un {@link Dentist} a un {@link DentistResponseDTO}
      * @param dentist objeto completo
@@ -0,0 +1,21 @@
+package com.odontologiaintegralfm.service.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+
+public interface IPatientImportService {
+
+    /**
+     * Importa pacientes desde un archivo CSV, leyéndolo por filas y persistiéndolo por bloques.
+     * <p>
+     * Las filas rechazadas no interrumpen la importación: se informan como eventos NDJSON en la salida, junto con
+     * el avance después de cada bloque y un resumen final.
+     * </p>
+     * @param inputStream Archivo CSV (UTF-8, separado por comas, con encabezado).
+     * @param outputStream Salida (cuerpo de la respuesta).
+     * @throws IOException Si falla la lectura del archivo o la escritura en la salida.
+     */
+    void importCsv(InputStream inputStream, OutputStream outputStream) throws IOException;
+}
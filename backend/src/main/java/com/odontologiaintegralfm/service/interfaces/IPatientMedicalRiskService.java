@@ -5,6 +5,8 @@ import com.odontologiaintegralfm.dto.PatientMedicalRiskResponseDTO;
 import com.odontologiaintegralfm.model.PatientMedicalRisk;
 import com.odontologiaintegralfm.model.Patient;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -26,6 +28,14 @@ public interface IPatientMedicalRiskService {
     Set<PatientMedicalRisk> getByPatientIdAndEnabledTrue(Long patientId);
 
 
+    /**
+     * Método para obtener en una única consulta los riesgos clínicos "Habilitados" de varios pacientes.
+     * @param patientIds IDs de los pacientes.
+     * @return Riesgos agrupados por ID de paciente (los pacientes sin riesgos no figuran en el mapa).
+     */
+    Map<Long, Set<PatientMedicalRisk>> getByPatientIdsAndEnabledTrue(Collection<Long> patientIds);
+
+
     /**
      * Método para actualizar los riesgos médicos asociados a un paciente.
      * @param patientId Id del paciente
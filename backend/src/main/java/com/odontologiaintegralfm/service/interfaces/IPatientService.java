@@ -1,13 +1,20 @@
 package com.odontologiaintegralfm.service.interfaces;
 
+import com.odontologiaintegralfm.dto.CursorPageDTO;
 import com.odontologiaintegralfm.dto.PatientCreateRequestDTO;
 import com.odontologiaintegralfm.dto.PatientUpdateRequestDTO;
 import com.odontologiaintegralfm.dto.PatientResponseDTO;
+import com.odontologiaintegralfm.dto.PatientSearchResponseDTO;
 import com.odontologiaintegralfm.dto.Response;
+import com.odontologiaintegralfm.enums.PatientExportFormat;
 import com.odontologiaintegralfm.exception.DataBaseException;
 import com.odontologiaintegralfm.model.Patient;
 import org.springframework.data.domain.Page;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
 
 /**
  * @author [Facundo Palmieri]
@@ -47,6 +54,30 @@ public interface IPatientService {
      */
     Response<Page<PatientResponseDTO>> getAll(int page, int size, String sortBy, String direction);
 
+    /**
+     * Método para obtener un listado de pacientes habilitados paginado por cursor (orden por apellido e ID, sin conteo).
+     * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+     * @param size Cantidad de pacientes por página.
+     * @return Una respuesta con la página y el cursor de la siguiente.
+     */
+    Response<CursorPageDTO<PatientResponseDTO>> getAllByCursor(String cursor, int size);
+
+    /**
+     * Exporta los pacientes habilitados escribiéndolos directamente en la salida, por bloques.
+     * @param format Formato de exportación.
+     * @param outputStream Salida (cuerpo de la respuesta).
+     * @throws IOException Si falla la escritura en la salida.
+     */
+    void export(PatientExportFormat format, OutputStream outputStream) throws IOException;
+
+    /**
+     * Método para buscar pacientes habilitados por apellido, nombre, DNI o n.° de afiliado (por prefijo, sin acentos).
+     * @param query Texto ingresado.
+     * @param limit Máximo de resultados.
+     * @return Una respuesta con los pacientes encontrados.
+     */
+    Response<List<PatientSearchResponseDTO>> search(String query, int limit);
+
 
     /**
      * Método para obtener un paciente habilitado por ID
@@ -10,6 +10,7 @@ import org.springframework.core.io.UrlResource;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Collection;
 
 
 /**
@@ -59,6 +60,23 @@ public interface IPersonService {
     PersonResponseDTO convertToDTO (Person person);
 
 
+    /**
+     * Método para inicializar los emails y teléfonos de varias personas con una consulta por colección,
+     * en lugar de una por persona. Las personas deben estar en el contexto de persistencia de la transacción en curso.
+     * @param personIds IDs de las personas.
+     */
+    void loadContacts(Collection<Long> personIds);
+
+
+    /**
+     * Método para inicializar varias personas con sus asociaciones simples, emails y teléfonos (tres consultas en total),
+     * para convertirlas luego a DTO sin una consulta por persona.
+     * Deben usarse en la misma transacción, ya que las consultas completan las instancias del contexto de persistencia.
+     * @param personIds IDs de las personas.
+     */
+    void loadDetails(Collection<Long> personIds);
+
+
     /**
      * Método para actualizar la imágen de perfil de la persona.
      * @param file
@@ -1,32 +1,40 @@
 package com.odontologiaintegralfm.service.interfaces;
 
 import com.odontologiaintegralfm.dto.RefreshTokenRequestDTO;
-import com.odontologiaintegralfm.model.RefreshToken;
+import com.odontologiaintegralfm.dto.internal.IssuedRefreshTokenDTO;
+import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+import com.odontologiaintegralfm.model.UserSec;
 
 public interface IRefreshTokenService {
 
     /**
-     * Crea un nuevo Refresh Token para el usuario especificado por su nombre de usuario.
+     * Emite un nuevo Refresh Token para el usuario especificado por su nombre de usuario.
      * @param username El nombre de usuario para el cual se genera el Refresh Token.
-     * @return El Refresh Token recién creado y guardado en la base de datos.
+     * @return El Refresh Token emitido (valor en claro y vencimiento).
      */
-    RefreshToken createRefreshToken(String username);
+    IssuedRefreshTokenDTO createRefreshToken(String username);
 
 
+    /**
+     * Emite un nuevo Refresh Token para un usuario ya cargado, sin volver a consultarlo.
+     * Reemplaza en el lugar el token anterior del usuario.
+     * @param user El usuario para el cual se genera el Refresh Token.
+     * @return El Refresh Token emitido (valor en claro y vencimiento).
+     */
+    IssuedRefreshTokenDTO createRefreshToken(UserSec user);
 
 
     /**
-     * Valída el Refresh Token recibido en el DTO comparándolo con el Refresh Token almacenado en la base de datos.
-     * También verifica si el Refresh Token ha expirado.
+     * Valida y rota el Refresh Token recibido en una única sentencia.
      *
-     * @param refreshToken El objeto RefreshToken almacenado en la base de datos que se va a validar.
      * @param refreshTokenRequestDTO El objeto RefreshTokenRequestDTO que contiene el Refresh Token enviado por el cliente.
+     * @return El nuevo Refresh Token emitido.
      */
-    void validateRefreshToken(RefreshToken refreshToken, RefreshTokenRequestDTO refreshTokenRequestDTO);
+    IssuedRefreshTokenDTO rotateRefreshToken(RefreshTokenRequestDTO refreshTokenRequestDTO);
 
     /**
-     *  Elimina el Refresh Token correspondiente al usuario y token proporcionado.
-     * @param refreshToken El Refresh Token que se va a eliminar.
+     *  Elimina el Refresh Token proporcionado.
+     * @param refreshToken El Refresh Token (en claro) que se va a eliminar.
      */
     void deleteRefreshToken(String refreshToken);
 
@@ -38,10 +46,9 @@ public interface IRefreshTokenService {
 
 
     /**
-     * Obtiene el Refresh Token correspondiente al ID proporcionado.
-     * @param id El ID del usuario.
-     * @return El refresh token encontrado.
+     * Elimina por lotes los Refresh Tokens vencidos.
+     * @return Resultado de la tarea programada.
      */
-    RefreshToken getRefreshTokenByUserId(Long id);
+    SchedulerResultDTO deleteExpired();
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.odontologiaintegralfm.service.interfaces;
+
+import com.odontologiaintegralfm.dto.RoleFullResponseDTO;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Interfaz del servicio que mantiene en memoria una instantánea inmutable del grafo Rol → Permiso → Acción.
+ */
+public interface IRolePermissionSnapshotService {
+
+    /**
+     * Obtiene el árbol de permisos y acciones de un rol desde la instantánea vigente.
+     *
+     * @param roleId ID del rol.
+     * @return Una copia del {@link RoleFullResponseDTO} del rol (modificarla no afecta la instantánea)
+     *         o {@code null} si el rol no está en la instantánea.
+     */
+    RoleFullResponseDTO getRole(Long roleId);
+
+
+    /**
+     * Obtiene las autoridades de Spring Security de un rol (ROLE_x y PERMISO_x_y) desde la instantánea vigente.
+     *
+     * @param roleId ID del rol.
+     * @return Lista inmutable de autoridades o {@code null} si el rol no está en la instantánea.
+     */
+    List<GrantedAuthority> getAuthorities(Long roleId);
+
+
+    /**
+     * Obtiene la versión de la instantánea vigente. Se incrementa con cada reconstrucción.
+     */
+    long getVersion();
+
+
+    /**
+     * Reconstruye la instantánea desde la base de datos y la reemplaza de forma atómica.
+     */
+    void reload();
+
+
+    /**
+     * Programa la reconstrucción para cuando la transacción actual confirme (commit).
+     * Si no hay transacción activa, reconstruye inmediatamente.
+     */
+    void reloadAfterCommit();
+}
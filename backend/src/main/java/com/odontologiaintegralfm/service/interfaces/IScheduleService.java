@@ -32,6 +32,14 @@ public interface IScheduleService {
      */
      String getByKeyName(ScheduledTaskKey keyName);
 
+    /**
+     * Obtiene la expresión cron por defecto de la tarea, usada cuando no está configurada en la base
+     * o no se puede obtener.
+     * @param keyName
+     * @return expresión Cron
+     */
+     String getDefaultCron(ScheduledTaskKey keyName);
+
     /**
      * Actualiza la ejecución de la tarea programada.
      * @param scheduleTask
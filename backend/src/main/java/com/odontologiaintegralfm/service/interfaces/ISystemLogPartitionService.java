@@ -0,0 +1,38 @@
+package com.odontologiaintegralfm.service.interfaces;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ISystemLogPartitionService {
+
+    /**
+     * Indica si {@code system_logs} se administra con particiones mensuales.
+     * @return true si el particionado está habilitado.
+     */
+    boolean isEnabled();
+
+
+    /**
+     * Convierte {@code system_logs} en una tabla particionada por mes si aún no lo está.
+     * <p>
+     * Paso de mantenimiento: reconstruye la tabla bloqueándola. No se ejecuta al iniciar la aplicación.
+     * </p>
+     * @return Nombres de las particiones de la tabla.
+     */
+    List<String> ensurePartitioned();
+
+
+    /**
+     * Crea por adelantado las particiones del mes actual y de los meses configurados.
+     * No hace nada si la tabla no está particionada.
+     */
+    void createUpcomingPartitions();
+
+
+    /**
+     * Elimina las particiones cuyos registros son todos anteriores a la fecha límite.
+     * @param deadline Fecha límite de retención.
+     * @return Cantidad estimada de registros eliminados (estadísticas de {@code information_schema.PARTITIONS}).
+     */
+    int dropPartitionsBefore(LocalDateTime deadline);
+}
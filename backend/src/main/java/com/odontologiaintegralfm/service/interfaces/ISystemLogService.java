@@ -1,8 +1,15 @@
 package com.odontologiaintegralfm.service.interfaces;
 
+import com.odontologiaintegralfm.dto.CursorPageDTO;
+import com.odontologiaintegralfm.dto.SystemLogFilterDTO;
 import com.odontologiaintegralfm.dto.SystemLogResponseDTO;
+import com.odontologiaintegralfm.dto.SystemLogSearchResponseDTO;
 import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+import com.odontologiaintegralfm.enums.LogExportFormat;
 import org.springframework.data.domain.Page;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 
 
@@ -15,6 +22,16 @@ public interface ISystemLogService {
     void save(SystemLogResponseDTO dto);
 
 
+    /**
+     * Persiste un log sujeto al límite de frecuencia por {@code (clave, nivel, usuario o IP)}.
+     * Se usa para los logs que se pueden repetir en ráfagas (excepciones, rechazos de autenticación).
+     * @param dto Datos del log.
+     * @param logKey Clave que agrupa los logs similares (Ej: clave del mensaje técnico).
+     * @return {@code true} si el log se encoló; {@code false} si se omitió por el límite.
+     */
+    boolean save(SystemLogResponseDTO dto, String logKey);
+
+
     /**
      * Método para obtener el listado paginado de los logs.
      * @param pageValue
@@ -26,6 +43,26 @@ public interface ISystemLogService {
     Page<SystemLogResponseDTO> getAll(int pageValue, int sizeValue, String sortByValue, String directionValue);
 
 
+    /**
+     * Búsqueda filtrada de logs, del más reciente al más antiguo, con paginación por cursor.
+     * @param filter Filtros de la búsqueda.
+     * @param cursor Cursor devuelto por la página anterior, o {@code null} para la primera página.
+     * @param size Cantidad de logs por página (acotada al máximo configurado).
+     * @return Página de logs y cursor de la página siguiente.
+     */
+    CursorPageDTO<SystemLogSearchResponseDTO> search(SystemLogFilterDTO filter, String cursor, int size);
+
+
+    /**
+     * Exporta los logs que cumplen los filtros escribiéndolos directamente en la salida, por bloques.
+     * @param filter Filtros de la búsqueda.
+     * @param format Formato de exportación.
+     * @param outputStream Salida (cuerpo de la respuesta).
+     * @throws IOException Si falla la escritura en la salida.
+     */
+    void export(SystemLogFilterDTO filter, LogExportFormat format, OutputStream outputStream) throws IOException;
+
+
     /**
      * Convierte el Stack Trace de una exception en un string para luego persistir en base de datos.
      * @param e
@@ -1,6 +1,7 @@
 package com.odontologiaintegralfm.service.interfaces;
 
 
+import com.odontologiaintegralfm.dto.internal.SystemParameterSnapshot;
 import com.odontologiaintegralfm.enums.SystemParameterKey;
 import com.odontologiaintegralfm.model.SystemParameter;
 import java.util.List;
@@ -32,6 +33,12 @@ public interface ISystemParameterService {
      */
     String getByKey(SystemParameterKey key);
 
+    /**
+     * Obtiene la instantánea tipada de los parámetros del sistema (sin acceder a la base de datos).
+     * @return SystemParameterSnapshot
+     */
+    SystemParameterSnapshot getSnapshot();
+
     /**
      * Actualiza valor de un parámetro del sistema.
      * @param systemParameter Objeto a actualizar.
@@ -0,0 +1,30 @@
+package com.odontologiaintegralfm.service.interfaces;
+
+import com.odontologiaintegralfm.dto.internal.SchedulerResultDTO;
+
+import java.time.Instant;
+
+public interface ITokenRevocationService {
+
+    /**
+     * Indica si el JWT con el {@code jti} indicado fue revocado.
+     * @param jti Identificador del token (claim {@code jti}).
+     * @return true si el token está revocado y aún no expiró.
+     */
+    boolean isRevoked(String jti);
+
+
+    /**
+     * Revoca un JWT hasta su expiración.
+     * @param jti Identificador del token (claim {@code jti}).
+     * @param expiresAt Expiración del token (claim {@code exp}).
+     */
+    void revoke(String jti, Instant expiresAt);
+
+
+    /**
+     * Elimina las revocaciones de tokens ya expirados y reconstruye la lista en memoria desde la base.
+     * @return Resultado de la tarea programada.
+     */
+    SchedulerResultDTO deleteExpired();
+}
@@ -19,6 +19,14 @@ public interface IUserService {
       */
      Response<Page<UserSecResponseDTO>> getAll(int page, int size, String sortBy, String direction);
 
+     /**
+      * Obtiene los usuarios paginados por cursor (orden por username e ID, sin conteo).
+      * @param cursor Cursor devuelto en la página anterior, o null para la primera página.
+      * @param size Cantidad de usuarios por página.
+      * @return Una respuesta con la página y el cursor de la siguiente.
+      */
+     Response<CursorPageDTO<UserSecResponseDTO>> getAllByCursor(String cursor, int size);
+
      /**
       * Obtiene un usuario por su ID.
       * @param id El ID del usuario a recuperar.
@@ -0,0 +1,15 @@
+-- Migración de refresh_tokens a un registro por usuario con el token hasheado (MySQL).
+--
+-- Ejecutar una sola vez, con la aplicación detenida, ANTES de desplegar la versión que guarda el hash del token.
+-- spring.jpa.hibernate.ddl-auto=update no la reemplaza: si la tabla tiene varios tokens por usuario no puede crear
+-- el índice único y lo omite sin error, y tampoco reduce el largo de la columna.
+--
+-- Los tokens existentes están guardados en claro (UUID) y no coinciden con ningún hash, por lo que ya no sirven:
+-- se eliminan todos (también los duplicados por usuario). Los usuarios deben iniciar sesión nuevamente.
+
+DELETE FROM refresh_tokens;
+
+ALTER TABLE refresh_tokens
+    MODIFY refresh_token VARCHAR(64) NOT NULL,
+    ADD CONSTRAINT uk_refresh_tokens_user UNIQUE (id_user),
+    ADD INDEX idx_refresh_tokens_expiration (expiration_date);
@@ -0,0 +1,81 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Conteo de intentos fallidos bajo concurrencia (ningún intento se pierde al reutilizar un bucket) y depuración
+ * de contadores vencidos al alcanzar el máximo de claves.
+ */
+class LoginThrottleTest {
+
+	private static final int THREADS = 8;
+
+	private static final int FAILURES_PER_THREAD = 5000;
+
+	private static final int MAX_KEYS = 20;
+
+
+	@Test
+	void countsEveryFailureAcrossBucketBoundaries() throws Exception {
+		//Buckets de 5 ms: las ráfagas cruzan decenas de cambios de intervalo dentro de la ventana de 10 s.
+		LoginThrottle throttle = new LoginThrottle();
+		ReflectionTestUtils.setField(throttle, "windowSeconds", 10L);
+		ReflectionTestUtils.setField(throttle, "buckets", 2000);
+		ReflectionTestUtils.setField(throttle, "ipMaxFailures", Integer.MAX_VALUE);
+		ReflectionTestUtils.setField(throttle, "maxKeys", 10);
+		throttle.init();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < FAILURES_PER_THREAD; i++) {
+					throttle.recordFailure("admin", null);
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertThat(throttle.recordFailure("admin", null)).isEqualTo(THREADS * FAILURES_PER_THREAD + 1L);
+	}
+
+
+	@Test
+	void evictsExpiredCountersWhenReachingMaxKeys() throws Exception {
+		//Ventana de 1 ms: al llegar la clave que supera el máximo, las anteriores ya vencieron.
+		LoginThrottle throttle = new LoginThrottle();
+		ReflectionTestUtils.setField(throttle, "windowSeconds", 0L);
+		ReflectionTestUtils.setField(throttle, "buckets", 1);
+		ReflectionTestUtils.setField(throttle, "ipMaxFailures", Integer.MAX_VALUE);
+		ReflectionTestUtils.setField(throttle, "maxKeys", MAX_KEYS);
+		throttle.init();
+
+		for (int i = 0; i < MAX_KEYS; i++) {
+			throttle.recordFailure("usuario" + i, null);
+		}
+		Thread.sleep(5);
+
+		assertThat(throttle.recordFailure("admin", null)).isEqualTo(1L);
+		Map<?, ?> counters = (Map<?, ?>) ReflectionTestUtils.getField(throttle, "counters");
+		assertThat(counters).hasSize(1);
+		assertThat(counters.containsKey("u:admin")).isTrue();
+	}
+}
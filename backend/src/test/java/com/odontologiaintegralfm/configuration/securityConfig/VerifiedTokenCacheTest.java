@@ -0,0 +1,72 @@
+package com.odontologiaintegralfm.configuration.securityConfig;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Caché de tokens verificados: cada acierto es una autenticación nueva y los tokens aún no válidos no se cachean.
+ */
+class VerifiedTokenCacheTest {
+
+	private static final String TOKEN = "header.payload.signature";
+
+	private VerifiedTokenCache cache;
+
+
+	@BeforeEach
+	void setUp() {
+		cache = new VerifiedTokenCache();
+		ReflectionTestUtils.setField(cache, "maxSize", 10);
+	}
+
+
+	@Test
+	void buildsNewAuthenticationOnEveryHit() {
+		cache.put(TOKEN, authentication(Instant.now().plus(30, ChronoUnit.MINUTES)), new Date());
+
+		PermissionAuthenticationToken first = cache.get(TOKEN).toAuthentication();
+		PermissionAuthenticationToken second = cache.get(TOKEN).toAuthentication();
+
+		assertThat(first).isNotSameAs(second);
+		assertThat(second.getName()).isEqualTo("secretaria@clinica.com");
+		assertThat(second.getUserId()).isEqualTo(10L);
+		assertThat(second.getTokenId()).isEqualTo("jti-1");
+		assertThat(second.hasPermissionBit(3)).isTrue();
+		assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_SECRETARIA");
+	}
+
+
+	@Test
+	void doesNotCacheTokensBeforeNotBefore() {
+		Date notBefore = Date.from(Instant.now().plus(5, ChronoUnit.MINUTES));
+
+		cache.put(TOKEN, authentication(Instant.now().plus(30, ChronoUnit.MINUTES)), notBefore);
+
+		assertThat(cache.get(TOKEN)).isNull();
+	}
+
+
+	@Test
+	void doesNotReturnExpiredTokens() {
+		cache.put(TOKEN, authentication(Instant.now().minusSeconds(1)), new Date());
+
+		assertThat(cache.get(TOKEN)).isNull();
+	}
+
+
+	private PermissionAuthenticationToken authentication(Instant expiresAt) {
+		BitSet permissionBits = new BitSet();
+		permissionBits.set(3);
+		return new PermissionAuthenticationToken(10L, "secretaria@clinica.com",
+				AuthorityUtils.createAuthorityList("ROLE_SECRETARIA"), permissionBits, "jti-1", expiresAt);
+	}
+}
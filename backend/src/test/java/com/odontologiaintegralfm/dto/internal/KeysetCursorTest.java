@@ -0,0 +1,37 @@
+package com.odontologiaintegralfm.dto.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Codificación del cursor de los listados: claves con separador, vacías y nulas.
+ */
+class KeysetCursorTest {
+
+	@Test
+	void roundTripsKeysWithSeparator() {
+		KeysetCursor cursor = new KeysetCursor("Pérez|Gómez", 42L);
+
+		assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+	}
+
+
+	@Test
+	void distinguishesNullKeyFromEmptyKey() {
+		KeysetCursor nullKey = new KeysetCursor(null, 7L);
+		KeysetCursor emptyKey = new KeysetCursor("", 7L);
+
+		assertThat(KeysetCursor.decode(nullKey.encode())).isEqualTo(nullKey);
+		assertThat(KeysetCursor.decode(emptyKey.encode())).isEqualTo(emptyKey);
+	}
+
+
+	@Test
+	void rejectsInvalidCursor() {
+		assertThat(KeysetCursor.decode(null)).isNull();
+		assertThatThrownBy(() -> KeysetCursor.decode("no es base64!")).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> KeysetCursor.decode("UMOpcmV6")).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,43 @@
+package com.odontologiaintegralfm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Lectura incremental de CSV: comillas, saltos de línea dentro de campos, CRLF y líneas vacías.
+ */
+class CsvReaderTest {
+
+	@Test
+	void readsQuotedFieldsAndTracksLines() throws IOException {
+		CsvReader csv = new CsvReader(new StringReader(
+				"lastName,firstName\r\n\r\n\"Núñez, Pérez\",\"María \"\"Majo\"\"\"\n\"Gómez\",\"Ana\nLaura\"\nRuiz,\n"), ',');
+
+		assertThat(csv.next()).containsExactly("lastName", "firstName");
+		assertThat(csv.getRecordLine()).isEqualTo(1);
+
+		assertThat(csv.next()).containsExactly("Núñez, Pérez", "María \"Majo\"");
+		assertThat(csv.getRecordLine()).isEqualTo(3);
+
+		assertThat(csv.next()).containsExactly("Gómez", "Ana\nLaura");
+		assertThat(csv.getRecordLine()).isEqualTo(4);
+
+		assertThat(csv.next()).containsExactly("Ruiz", "");
+		assertThat(csv.getRecordLine()).isEqualTo(6);
+
+		assertThat(csv.next()).isNull();
+	}
+
+
+	@Test
+	void failsOnUnclosedQuote() {
+		CsvReader csv = new CsvReader(new StringReader("a,\"b\n"), ',');
+
+		assertThatThrownBy(csv::next).isInstanceOf(IOException.class);
+	}
+}
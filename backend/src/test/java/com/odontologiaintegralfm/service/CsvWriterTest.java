@@ -0,0 +1,35 @@
+package com.odontologiaintegralfm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Escritura de CSV: comillas, valores nulos y neutralización de fórmulas.
+ */
+class CsvWriterTest {
+
+	@Test
+	void quotesValuesWithSeparatorsQuotesAndLineBreaks() throws IOException {
+		StringWriter out = new StringWriter();
+		CsvWriter csv = new CsvWriter(out, ',');
+
+		csv.writeRecord("1", "Núñez, Pérez", "María \"Majo\"", "Ana\nLaura", null, "");
+
+		assertThat(out.toString()).isEqualTo("1,\"Núñez, Pérez\",\"María \"\"Majo\"\"\",\"Ana\nLaura\",,\n");
+	}
+
+
+	@Test
+	void prefixesFormulaValues() throws IOException {
+		StringWriter out = new StringWriter();
+		CsvWriter csv = new CsvWriter(out, ',');
+
+		csv.writeRecord("=HYPERLINK(\"http://x\",\"y\")", "+1", "-2", "@SUM(A1)", "\tx", "a=b");
+
+		assertThat(out.toString()).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\",'+1,'-2,'@SUM(A1),'\tx,a=b\n");
+	}
+}
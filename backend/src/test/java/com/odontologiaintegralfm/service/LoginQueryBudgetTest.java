@@ -0,0 +1,250 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.configuration.securityConfig.AuthMetrics;
+import com.odontologiaintegralfm.configuration.securityConfig.AuthenticatedUserService;
+import com.odontologiaintegralfm.configuration.securityConfig.JwtUtils;
+import com.odontologiaintegralfm.configuration.securityConfig.LoginThrottle;
+import com.odontologiaintegralfm.dto.AuthLoginRequestDTO;
+import com.odontologiaintegralfm.dto.AuthLoginResponseDTO;
+import com.odontologiaintegralfm.dto.Response;
+import com.odontologiaintegralfm.dto.internal.SystemParameterSnapshot;
+import com.odontologiaintegralfm.enums.SystemParameterKey;
+import com.odontologiaintegralfm.model.*;
+import com.odontologiaintegralfm.repository.IRefreshTokenRepository;
+import com.odontologiaintegralfm.repository.IRolePermissionActionRepository;
+import com.odontologiaintegralfm.repository.IRoleRepository;
+import com.odontologiaintegralfm.repository.IUserRepository;
+import com.odontologiaintegralfm.service.interfaces.IMessageService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Presupuesto de sentencias SQL por login, medido con las estadísticas de Hibernate sobre H2.
+ * <p>
+ * Los servicios del flujo son los reales. Solo se simulan la firma del JWT, los mensajes y la instantánea de
+ * parámetros del sistema, que en ejecución ya está en memoria. La instantánea de roles y permisos se carga antes de
+ * empezar a contar. El registro de auditoría de {@code @LogAction} no se cuenta: se agrega fuera del flujo.
+ * </p>
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class LoginQueryBudgetTest {
+
+	/** Buscar usuario (con roles y persona) + rotar refresh token (UPDATE). */
+	private static final int LOGIN_STATEMENT_BUDGET = 2;
+
+	private static final String USERNAME = "secretaria@clinica.com";
+
+	private static final String PASSWORD = "password";
+
+	private static final String PREVIOUS_TOKEN_HASH = "0".repeat(64);
+
+	@MockBean
+	private PatientSearchIndex patientSearchIndex;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private IUserRepository userRepository;
+
+	@Autowired
+	private IRefreshTokenRepository refreshTokenRepository;
+
+	@Autowired
+	private IRoleRepository roleRepository;
+
+	@Autowired
+	private IRolePermissionActionRepository rolePermissionActionRepository;
+
+	private UserDetailsServiceImp userDetailsService;
+
+	private RolePermissionSnapshotService rolePermissionSnapshotService;
+
+	private BCryptPasswordEncoder passwordEncoder;
+
+	private QueryBudgetFixture fixture;
+
+
+	@BeforeEach
+	void setUp() {
+		//Costo mínimo de BCrypt: se mide la base de datos, no el hash.
+		passwordEncoder = new BCryptPasswordEncoder(4);
+
+		SystemParameterService systemParameterService = mock(SystemParameterService.class);
+		when(systemParameterService.getSnapshot()).thenReturn(new SystemParameterSnapshot(
+				Map.of(SystemParameterKey.REFRESH_TOKEN_EXPIRATION, "7"),
+				5, Duration.ofMinutes(30), Duration.ofDays(7), 30, 30, Set.of("jpg"), Set.of("pdf"), 5L * 1024 * 1024));
+
+		JwtUtils jwtUtils = mock(JwtUtils.class);
+		when(jwtUtils.createToken(any(), any())).thenReturn("jwt");
+
+		UserService userService = new UserService();
+		ReflectionTestUtils.setField(userService, "userRepository", userRepository);
+		ReflectionTestUtils.setField(userService, "systemParameterService", systemParameterService);
+
+		RefreshTokenService refreshTokenService = new RefreshTokenService();
+		ReflectionTestUtils.setField(refreshTokenService, "refreshTokenRepository", refreshTokenRepository);
+		ReflectionTestUtils.setField(refreshTokenService, "userService", userService);
+		ReflectionTestUtils.setField(refreshTokenService, "systemParameterService", systemParameterService);
+
+		rolePermissionSnapshotService = new RolePermissionSnapshotService();
+		ReflectionTestUtils.setField(rolePermissionSnapshotService, "rolePermissionActionRepository", rolePermissionActionRepository);
+
+		RoleService roleService = new RoleService();
+		ReflectionTestUtils.setField(roleService, "roleRepository", roleRepository);
+		ReflectionTestUtils.setField(roleService, "rolePermissionSnapshotService", rolePermissionSnapshotService);
+
+		AuthenticatedUserService authenticatedUserService = new AuthenticatedUserService();
+		ReflectionTestUtils.setField(authenticatedUserService, "userRepository", userRepository);
+
+		LoginThrottle loginThrottle = new LoginThrottle();
+		ReflectionTestUtils.setField(loginThrottle, "windowSeconds", 900L);
+		ReflectionTestUtils.setField(loginThrottle, "buckets", 15);
+		ReflectionTestUtils.setField(loginThrottle, "ipMaxFailures", 50);
+		ReflectionTestUtils.setField(loginThrottle, "maxKeys", 100_000);
+		loginThrottle.init();
+
+		AuthMetrics authMetrics = new AuthMetrics();
+		ReflectionTestUtils.setField(authMetrics, "meterRegistry", new SimpleMeterRegistry());
+
+		userDetailsService = new UserDetailsServiceImp();
+		ReflectionTestUtils.setField(userDetailsService, "userRepo", userRepository);
+		ReflectionTestUtils.setField(userDetailsService, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(userDetailsService, "passwordEncoder", passwordEncoder);
+		ReflectionTestUtils.setField(userDetailsService, "messageService", mock(IMessageService.class));
+		ReflectionTestUtils.setField(userDetailsService, "userService", userService);
+		ReflectionTestUtils.setField(userDetailsService, "refreshTokenService", refreshTokenService);
+		ReflectionTestUtils.setField(userDetailsService, "personService", new PersonService());
+		ReflectionTestUtils.setField(userDetailsService, "roleService", roleService);
+		ReflectionTestUtils.setField(userDetailsService, "rolePermissionSnapshotService", rolePermissionSnapshotService);
+		ReflectionTestUtils.setField(userDetailsService, "authenticatedUserService", authenticatedUserService);
+		ReflectionTestUtils.setField(userDetailsService, "loginThrottle", loginThrottle);
+		ReflectionTestUtils.setField(userDetailsService, "authMetrics", authMetrics);
+
+		fixture = new QueryBudgetFixture(entityManager);
+	}
+
+
+	@AfterEach
+	void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+
+	@Test
+	void loginStaysWithinStatementBudget() {
+		seedUser(0);
+		Statistics statistics = fixture.startCounting(entityManagerFactory);
+
+		Response<AuthLoginResponseDTO> response = userDetailsService.loginUser(new AuthLoginRequestDTO(USERNAME, PASSWORD), "127.0.0.1");
+
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(LOGIN_STATEMENT_BUDGET);
+		assertLoggedIn(response);
+	}
+
+
+	@Test
+	void loginAfterFailedAttemptsResetsWithSingleUpdate() {
+		UserSec user = seedUser(2);
+		Statistics statistics = fixture.startCounting(entityManagerFactory);
+
+		Response<AuthLoginResponseDTO> response = userDetailsService.loginUser(new AuthLoginRequestDTO(USERNAME, PASSWORD), "127.0.0.1");
+
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(LOGIN_STATEMENT_BUDGET + 1);
+		assertLoggedIn(response);
+		assertThat(((Number) entityManager.createNativeQuery("SELECT failed_login_attempts FROM users WHERE id = :id")
+				.setParameter("id", user.getId())
+				.getSingleResult()).intValue()).isZero();
+	}
+
+
+	//Verifica la respuesta completa y que el refresh token se haya rotado sobre el registro existente.
+	private void assertLoggedIn(Response<AuthLoginResponseDTO> response) {
+		AuthLoginResponseDTO login = response.data();
+		assertThat(login.getUsername()).isEqualTo(USERNAME);
+		assertThat(login.getJwt()).isEqualTo("jwt");
+		assertThat(login.getPerson().contactEmails()).containsExactly("persona1@odontologia.test");
+		assertThat(login.getPerson().address().locality()).isEqualTo("Localidad 1");
+		assertThat(login.getRoles()).singleElement().satisfies(role -> {
+			assertThat(role.getName()).isEqualTo("SECRETARIA");
+			assertThat(role.getPermissionsList()).hasSize(1);
+		});
+		assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+				.extracting(Object::toString)
+				.containsExactlyInAnyOrder("ROLE_SECRETARIA", "PERMISO_PATIENTS_READ");
+
+		List<?> tokenHashes = entityManager.createNativeQuery("SELECT refresh_token FROM refresh_tokens").getResultList();
+		assertThat(tokenHashes).singleElement().isNotEqualTo(PREVIOUS_TOKEN_HASH);
+	}
+
+
+	private UserSec seedUser(int failedLoginAttempts) {
+		Role role = Role.builder().name("SECRETARIA").label("Secretaria").build();
+		entityManager.persist(role);
+
+		Permission permission = new Permission(null, "PATIENTS", "Pacientes");
+		entityManager.persist(permission);
+
+		Action action = new Action(null, "READ", "Consultar");
+		entityManager.persist(action);
+
+		RolePermissionAction rolePermissionAction = new RolePermissionAction();
+		rolePermissionAction.setRole(role);
+		rolePermissionAction.setPermission(permission);
+		rolePermissionAction.setAction(action);
+		entityManager.persist(rolePermissionAction);
+
+		UserSec user = new UserSec();
+		user.setUsername(USERNAME);
+		user.setPassword(passwordEncoder.encode(PASSWORD));
+		user.setFailedLoginAttempts(failedLoginAttempts);
+		user.setAccountNotExpired(true);
+		user.setAccountNotLocked(true);
+		user.setCredentialNotExpired(true);
+		user.getRolesList().add(role);
+		user.setPerson(fixture.person(1, "Secretaria"));
+		fixture.audited(user);
+
+		//El usuario ya inició sesión antes: el login actualiza su registro en lugar de insertar uno nuevo.
+		RefreshToken refreshToken = new RefreshToken();
+		refreshToken.setTokenHash(PREVIOUS_TOKEN_HASH);
+		refreshToken.setUser(user);
+		refreshToken.setCreatedDate(LocalDateTime.now().minusDays(1));
+		refreshToken.setExpirationDate(LocalDateTime.now().plusDays(6));
+		entityManager.persist(refreshToken);
+
+		//La instantánea de roles se construye al iniciar la aplicación, no durante el login.
+		entityManager.flush();
+		rolePermissionSnapshotService.reload();
+		return user;
+	}
+}
@@ -0,0 +1,199 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.dto.CursorPageDTO;
+import com.odontologiaintegralfm.dto.PatientResponseDTO;
+import com.odontologiaintegralfm.dto.Response;
+import com.odontologiaintegralfm.enums.PatientExportFormat;
+import com.odontologiaintegralfm.model.*;
+import com.odontologiaintegralfm.repository.IPatientMedicalRiskRepository;
+import com.odontologiaintegralfm.repository.IPatientRepository;
+import com.odontologiaintegralfm.repository.IPersonRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Presupuesto de sentencias SQL del listado de pacientes, medido con las estadísticas de Hibernate sobre H2.
+ * <p>
+ * Cada paciente tiene su propia persona, domicilio, localidad, plan de salud, email, teléfono y riesgo médico:
+ * cualquier asociación que se cargue de a un paciente suma sentencias y supera el presupuesto.
+ * </p>
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class PatientListQueryBudgetTest {
+
+	/** Página de pacientes + su conteo + emails + teléfonos + riesgos médicos, sin importar el tamaño de la página. */
+	private static final int LIST_STATEMENT_BUDGET = 5;
+
+	/** Página por cursor: pacientes + emails + teléfonos + riesgos médicos (sin conteo). */
+	private static final int CURSOR_STATEMENT_BUDGET = 4;
+
+	/** Bloque de la exportación: las mismas sentencias que una página por cursor. */
+	private static final int EXPORT_CHUNK_SIZE = 25;
+
+	private static final int PATIENTS = 60;
+
+	private static final int PAGE_SIZE = 50;
+
+	@MockBean
+	private PatientSearchIndex patientSearchIndex;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private IPatientRepository patientRepository;
+
+	@Autowired
+	private IPersonRepository personRepository;
+
+	@Autowired
+	private IPatientMedicalRiskRepository patientMedicalRiskRepository;
+
+	private PatientService patientService;
+
+	private QueryBudgetFixture fixture;
+
+
+	@BeforeEach
+	void setUp() {
+		PersonService personService = new PersonService();
+		ReflectionTestUtils.setField(personService, "personRepository", personRepository);
+
+		PatientMedicalRiskService patientMedicalRiskService = new PatientMedicalRiskService();
+		ReflectionTestUtils.setField(patientMedicalRiskService, "patientMedicalRiskRepository", patientMedicalRiskRepository);
+		ReflectionTestUtils.setField(patientMedicalRiskService, "patientRepository", patientRepository);
+
+		patientService = new PatientService();
+		ReflectionTestUtils.setField(patientService, "patientRepository", patientRepository);
+		ReflectionTestUtils.setField(patientService, "personService", personService);
+		ReflectionTestUtils.setField(patientService, "patientMedicalRiskService", patientMedicalRiskService);
+		ReflectionTestUtils.setField(patientService, "entityManager", entityManager);
+		ReflectionTestUtils.setField(patientService, "cursorMaxSize", 100);
+		ReflectionTestUtils.setField(patientService, "transactionManager", transactionManager);
+		ReflectionTestUtils.setField(patientService, "exportChunkSize", EXPORT_CHUNK_SIZE);
+
+		fixture = new QueryBudgetFixture(entityManager);
+		seedPatients();
+	}
+
+
+	@Test
+	void patientPageStaysWithinStatementBudget() {
+		Statistics statistics = fixture.startCounting(entityManagerFactory);
+
+		Response<Page<PatientResponseDTO>> response = patientService.getAll(0, PAGE_SIZE, "person.lastName", "asc");
+
+		assertThat(response.data().getTotalElements()).isEqualTo(PATIENTS);
+		assertThat(response.data().getContent()).hasSize(PAGE_SIZE).allSatisfy(this::assertLoaded);
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(LIST_STATEMENT_BUDGET);
+	}
+
+
+	@Test
+	void cursorPagesStayWithinStatementBudget() {
+		Statistics statistics = fixture.startCounting(entityManagerFactory);
+
+		Response<CursorPageDTO<PatientResponseDTO>> first = patientService.getAllByCursor(null, PAGE_SIZE);
+
+		assertThat(first.data().content()).hasSize(PAGE_SIZE).allSatisfy(this::assertLoaded);
+		assertThat(first.data().nextCursor()).isNotNull();
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(CURSOR_STATEMENT_BUDGET);
+
+		entityManager.clear();
+		statistics.clear();
+		Response<CursorPageDTO<PatientResponseDTO>> second = patientService.getAllByCursor(first.data().nextCursor(), PAGE_SIZE);
+
+		assertThat(second.data().content()).hasSize(PATIENTS - PAGE_SIZE).allSatisfy(this::assertLoaded);
+		assertThat(second.data().content().get(0).getPerson().lastName()).isEqualTo("Apellido 051");
+		assertThat(second.data().nextCursor()).isNull();
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(CURSOR_STATEMENT_BUDGET);
+	}
+
+
+	@Test
+	void cursorPageSizeIsCapped() {
+		ReflectionTestUtils.setField(patientService, "cursorMaxSize", 20);
+
+		Response<CursorPageDTO<PatientResponseDTO>> page = patientService.getAllByCursor(null, 10_000);
+
+		assertThat(page.data().content()).hasSize(20);
+		assertThat(page.data().nextCursor()).isNotNull();
+	}
+
+
+	@Test
+	void exportChunksStayWithinStatementBudget() throws IOException {
+		Statistics statistics = fixture.startCounting(entityManagerFactory);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		patientService.export(PatientExportFormat.CSV, outputStream);
+
+		String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(lines).hasSize(PATIENTS + 1);
+		assertThat(lines[1]).contains("Apellido 001", "Localidad 1", "persona1@odontologia.test", "Plan 1", "Diabetes");
+		//60 pacientes en bloques de 25: tres bloques (25, 25 y 10).
+		int chunks = (PATIENTS + EXPORT_CHUNK_SIZE - 1) / EXPORT_CHUNK_SIZE;
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo((long) chunks * CURSOR_STATEMENT_BUDGET);
+	}
+
+
+	//Verifica que el DTO tenga todas las asociaciones (se cargaron dentro del presupuesto).
+	private void assertLoaded(PatientResponseDTO patient) {
+		assertThat(patient.getPerson().address().locality()).startsWith("Localidad ");
+		assertThat(patient.getPerson().contactEmails()).hasSize(1);
+		assertThat(patient.getPerson().contactPhone()).hasSize(1);
+		assertThat(patient.getHealthPlans()).startsWith("Plan ");
+		assertThat(patient.getMedicalHistoryRisk()).hasSize(1);
+	}
+
+
+	private void seedPatients() {
+		MedicalRisk medicalRisk = new MedicalRisk();
+		medicalRisk.setName("Diabetes");
+		fixture.audited(medicalRisk);
+
+		for (int number = 1; number <= PATIENTS; number++) {
+			Person person = fixture.person(number, String.format("Apellido %03d", number));
+
+			HealthPlan healthPlan = new HealthPlan();
+			healthPlan.setName("Plan " + number);
+			fixture.audited(healthPlan);
+
+			Patient patient = new Patient();
+			patient.setPerson(person);
+			patient.setHealthPlan(healthPlan);
+			patient.setAffiliateNumber("AF-" + number);
+			fixture.audited(patient);
+
+			PatientMedicalRisk risk = new PatientMedicalRisk();
+			risk.setPatient(patient);
+			risk.setMedicalRisk(medicalRisk);
+			fixture.audited(risk);
+		}
+	}
+}
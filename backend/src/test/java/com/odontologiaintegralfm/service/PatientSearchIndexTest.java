@@ -0,0 +1,93 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.dto.PatientSearchResponseDTO;
+import com.odontologiaintegralfm.dto.internal.PatientSearchRowDTO;
+import com.odontologiaintegralfm.repository.IPatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Búsqueda por prefijo del índice de pacientes: normalización, varias palabras, actualización incremental y
+ * búsqueda en la base si el índice no se pudo construir.
+ */
+class PatientSearchIndexTest {
+
+	private PatientSearchIndex index;
+
+
+	@BeforeEach
+	void setUp() {
+		index = new PatientSearchIndex();
+		ReflectionTestUtils.setField(index, "minLength", 2);
+		ReflectionTestUtils.setField(index, "maxResults", 20);
+
+		index.put(new PatientSearchRowDTO(1L, "María José", "Núñez", "30.123.456", "OS-1001"));
+		index.put(new PatientSearchRowDTO(2L, "Martín", "González-Pérez", "28123456", null));
+		index.put(new PatientSearchRowDTO(3L, "Mariana", "Gómez", "35111222", "OS-2002"));
+	}
+
+
+	@Test
+	void matchesPrefixesIgnoringCaseAndAccents() {
+		assertThat(ids("NUNE")).containsExactly(1L);
+		assertThat(ids("perez")).containsExactly(2L);
+		assertThat(ids("30123")).containsExactly(1L);
+		assertThat(ids("30.123.4")).containsExactly(1L);
+		assertThat(ids("os-2002")).containsExactly(3L);
+	}
+
+
+	@Test
+	void requiresEveryWordToMatch() {
+		assertThat(ids("mar")).containsExactlyInAnyOrder(1L, 2L, 3L);
+		assertThat(ids("gom mar")).containsExactly(3L);
+		assertThat(ids("gonz jose")).isEmpty();
+	}
+
+
+	@Test
+	void ignoresQueriesShorterThanMinimum() {
+		assertThat(ids("g")).isEmpty();
+	}
+
+
+	@Test
+	void updatesAndRemovesPatients() {
+		index.put(new PatientSearchRowDTO(3L, "Mariana", "Fernández", "35111222", "OS-2002"));
+		assertThat(ids("gomez")).isEmpty();
+		assertThat(ids("fern")).containsExactly(3L);
+
+		index.remove(3L);
+		assertThat(ids("fern")).isEmpty();
+	}
+
+
+	@Test
+	void searchesTheDatabaseWhileTheIndexCannotBeBuilt() {
+		IPatientRepository patientRepository = mock(IPatientRepository.class);
+		when(patientRepository.findAllSearchRows()).thenThrow(new DataAccessResourceFailureException("sin conexión"));
+		when(patientRepository.findSearchRowsByPrefix(eq("gonz%"), any())).thenReturn(List.of(
+				new PatientSearchRowDTO(2L, "Martín", "González-Pérez", "28123456", null),
+				new PatientSearchRowDTO(4L, "Lucía", "Gonzalo", "40111222", null)));
+		ReflectionTestUtils.setField(index, "patientRepository", patientRepository);
+
+		index.onApplicationReady();
+
+		assertThat(ids("gonz mart")).containsExactly(2L);
+	}
+
+
+	private Long[] ids(String query) {
+		return index.search(query, 20).stream().map(PatientSearchResponseDTO::id).toArray(Long[]::new);
+	}
+}
@@ -0,0 +1,144 @@
+package com.odontologiaintegralfm.service;
+
+import com.odontologiaintegralfm.model.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Datos de prueba para los presupuestos de sentencias SQL sobre H2 ({@code @DataJpaTest}, perfil {@code test}).
+ * <p>
+ * Crea el usuario de auditoría ({@code created_by_id} es obligatorio y el primer usuario se referencia a sí mismo,
+ * por eso se inserta con SQL nativo) y los catálogos comunes. Cada persona tiene su propia localidad, domicilio,
+ * email y teléfono, de modo que una asociación cargada de a una fila se vería como sentencias adicionales.
+ * </p>
+ */
+final class QueryBudgetFixture {
+
+	static final long AUDITOR_ID = 1000L;
+
+	private final EntityManager entityManager;
+
+	private final UserSec auditor;
+
+	private final DniType dniType;
+
+	private final Gender gender;
+
+	private final Nationality nationality;
+
+	private final PhoneType phoneType;
+
+	private final Province province;
+
+
+	QueryBudgetFixture(EntityManager entityManager) {
+		this.entityManager = entityManager;
+
+		entityManager.createNativeQuery("""
+				INSERT INTO users (id, username, password, failed_login_attempts, account_not_expired, account_not_locked,
+				                   credential_not_expired, created_at, created_by_id, enabled)
+				VALUES (:id, 'auditor@odontologia.test', 'x', 0, true, true, true, CURRENT_TIMESTAMP, :id, true)
+				""")
+				.setParameter("id", AUDITOR_ID)
+				.executeUpdate();
+		this.auditor = entityManager.getReference(UserSec.class, AUDITOR_ID);
+
+		DniType dniType = new DniType();
+		dniType.setName("DNI");
+		this.dniType = audited(dniType);
+
+		Gender gender = new Gender();
+		gender.setName("Femenino");
+		gender.setAlias('F');
+		this.gender = audited(gender);
+
+		Nationality nationality = new Nationality();
+		nationality.setName("Argentina");
+		this.nationality = audited(nationality);
+
+		PhoneType phoneType = new PhoneType();
+		phoneType.setName("Celular");
+		this.phoneType = audited(phoneType);
+
+		Country country = new Country();
+		country.setName("Argentina");
+		Province province = new Province();
+		province.setName("Buenos Aires");
+		province.setCountry(audited(country));
+		this.province = audited(province);
+	}
+
+
+	UserSec auditor() {
+		return auditor;
+	}
+
+
+	/**
+	 * Crea una persona con localidad, domicilio, email y teléfono propios.
+	 */
+	Person person(int number, String lastName) {
+		Locality locality = new Locality();
+		locality.setName("Localidad " + number);
+		locality.setProvince(province);
+		audited(locality);
+
+		Address address = new Address();
+		address.setStreet("Calle " + number);
+		address.setNumber(number);
+		address.setLocality(locality);
+		entityManager.persist(address);
+
+		ContactEmail email = new ContactEmail();
+		email.setEmail("persona" + number + "@odontologia.test");
+		entityManager.persist(email);
+
+		ContactPhone phone = new ContactPhone();
+		phone.setNumber(String.valueOf(2210000000L + number));
+		phone.setPhoneType(phoneType);
+		entityManager.persist(phone);
+
+		Person person = new Person();
+		person.setFirstName("Persona");
+		person.setLastName(lastName);
+		person.setDniType(dniType);
+		person.setDni(String.valueOf(30000000 + number));
+		person.setBirthDate(LocalDate.of(1985, 6, 15));
+		person.setGender(gender);
+		person.setNationality(nationality);
+		person.setAddress(address);
+		person.getContactEmails().add(email);
+		person.getContactPhones().add(phone);
+		return audited(person);
+	}
+
+
+	/**
+	 * Completa los datos de auditoría y persiste la entidad.
+	 */
+	<T extends Auditable> T audited(T entity) {
+		entity.setCreatedAt(LocalDateTime.now());
+		entity.setCreatedBy(auditor);
+		entity.setEnabled(true);
+		entityManager.persist(entity);
+		return entity;
+	}
+
+
+	/**
+	 * Escribe los datos creados, vacía el contexto de persistencia y reinicia las estadísticas:
+	 * a partir de acá solo se cuentan las sentencias de la operación bajo prueba.
+	 */
+	Statistics startCounting(EntityManagerFactory entityManagerFactory) {
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		return statistics;
+	}
+}